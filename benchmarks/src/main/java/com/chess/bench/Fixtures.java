@@ -0,0 +1,123 @@
+package com.chess.bench;
+
+import com.chess.engine.GameEngine;
+import com.chess.engine.GomokuEngine;
+import com.chess.engine.ReversiEngine;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+
+// 基准测试用的固定局面：X为黑，O为白，#为障碍物，@为弹坑，.为空
+// 所有局面都由黑方行棋，方便不同版本之间对比
+public final class Fixtures {
+    // 黑白棋开局后几手
+    public static final String[] REVERSI_OPENING = {
+        "........",
+        "........",
+        "...O....",
+        "...OO...",
+        "..XXXO..",
+        "........",
+        "........",
+        "........",
+    };
+
+    // 黑白棋中局，双方行动力都比较多
+    public static final String[] REVERSI_MIDGAME = {
+        "..O.....",
+        "..OOXX..",
+        "XOOOOXX.",
+        "XXOOXOX.",
+        "XXOXOOXX",
+        "XOXXXOX.",
+        "..XXOO..",
+        "...O.O..",
+    };
+
+    // 黑白棋残局，剩余空位很少
+    public static final String[] REVERSI_ENDGAME = {
+        "OOOOOOOX",
+        "OXXXXOXX",
+        "OXOXOXOX",
+        "OXXOXOXX",
+        "OXOXXOX.",
+        "OXXOXXX.",
+        "OOXXOOO.",
+        "OOOOOO..",
+    };
+
+    // 五子棋开局阶段，棋子稀疏
+    public static final String[] GOMOKU_SPARSE = {
+        "...............",
+        "...............",
+        ".....#.........",
+        "...............",
+        "...............",
+        "......X........",
+        "......OX.......",
+        "......#XO......",
+        ".....#.OX......",
+        "........O......",
+        "...............",
+        "..........#....",
+        "...............",
+        "...............",
+        "...............",
+    };
+
+    private Fixtures() {
+    }
+
+    public static ReversiEngine reversi(String[] rows) {
+        ReversiEngine engine = new ReversiEngine(1);
+        load(engine, rows);
+        return engine;
+    }
+
+    public static GomokuEngine gomoku(String[] rows) {
+        GomokuEngine engine = new GomokuEngine(1);
+        load(engine, rows);
+        return engine;
+    }
+
+    // 五子棋密集局面：约八成格子有棋子但没有五连（每两列换色，每行错开），可用于最坏情况的扫描
+    public static GomokuEngine gomokuDense() {
+        GomokuEngine engine = new GomokuEngine(1);
+        Board board = engine.board();
+        int size = board.getSize();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board.getPiece(i, j) != Piece.EMPTY || (i * 7 + j * 3) % 5 == 0) {
+                    continue;
+                }
+                Piece piece = ((j / 2 + i) % 2 == 0) ? Piece.BLACK : Piece.WHITE;
+                board.placePiece(i, j, piece, true);
+            }
+        }
+        return engine;
+    }
+
+    // 按图案覆盖引擎当前棋盘上的每个格子
+    public static void load(GameEngine engine, String[] rows) {
+        Board board = engine.board();
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows[i].length(); j++) {
+                board.placePiece(i, j, parse(rows[i].charAt(j)), true);
+            }
+        }
+    }
+
+    private static Piece parse(char symbol) {
+        switch (symbol) {
+            case 'X':
+                return Piece.BLACK;
+            case 'O':
+                return Piece.WHITE;
+            case '#':
+                return Piece.BLOCK;
+            case '@':
+                return Piece.CRATER;
+            default:
+                return Piece.EMPTY;
+        }
+    }
+}
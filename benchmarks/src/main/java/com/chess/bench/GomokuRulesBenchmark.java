@@ -0,0 +1,93 @@
+package com.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.chess.engine.GameStatus;
+import com.chess.engine.GomokuEngine;
+import com.chess.engine.GomokuWinDetector;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+
+// 五子棋胜负判断：稀疏和密集局面上，落下一子后的checkGameEnd
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GomokuRulesBenchmark {
+    @Param({"sparse", "dense"})
+    public String position;
+
+    private GomokuEngine engine;
+    private Board board;
+    // 最后一手的位置
+    private int lastRow;
+    private int lastCol;
+
+    @Setup
+    public void setUp() {
+        engine = "sparse".equals(position) ? Fixtures.gomoku(Fixtures.GOMOKU_SPARSE) : Fixtures.gomokuDense();
+        board = engine.board();
+        // 找一个黑方落子后连线最长但不成五的空位作为最后一手
+        lastRow = -1;
+        int bestLength = -1;
+        for (int i = 1; i < board.getSize() - 1; i++) {
+            for (int j = 1; j < board.getSize() - 1; j++) {
+                if (board.getPiece(i, j) != Piece.EMPTY
+                        || GomokuWinDetector.longestLine(board, i, j, Piece.BLACK) >= GomokuWinDetector.WIN_LENGTH) {
+                    continue;
+                }
+                int length = GomokuWinDetector.longestLine(board, i, j, Piece.BLACK);
+                if (length > bestLength) {
+                    bestLength = length;
+                    lastRow = i;
+                    lastCol = j;
+                }
+            }
+        }
+        if (engine.apply(Move.place(lastRow, lastCol)) != MoveResult.OK
+                || engine.status() != GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("局面不适合测试: " + position);
+        }
+    }
+
+    // 与GomokuEngine.checkGameEnd每步的工作相同：检查经过最后一手的四条线，再看是否下满
+    // （引擎检查完就清除最后一手，不能直接反复调用）
+    @Benchmark
+    public boolean checkGameEnd() {
+        return GomokuWinDetector.findWinningLine(board, lastRow, lastCol) != null
+                || board.getEmptyCount() == 0;
+    }
+
+    @Benchmark
+    public boolean isWinningMove() {
+        return GomokuWinDetector.isWinningMove(board, lastRow, lastCol);
+    }
+
+    // 作为对比：逐格扫描整个棋盘的所有棋子
+    @Benchmark
+    public boolean fullBoardScan() {
+        int size = board.getSize();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (GomokuWinDetector.isWinningMove(board, i, j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
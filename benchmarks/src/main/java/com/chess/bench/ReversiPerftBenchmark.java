@@ -0,0 +1,49 @@
+package com.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.chess.engine.ReversiEngine;
+import com.chess.engine.ReversiPerft;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋perft（单线程），节点数除以耗时即为走法生成和翻转的整体速度
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReversiPerftBenchmark {
+    @Param({"6", "9"})
+    public int depth;
+
+    private long black;
+    private long white;
+
+    @Setup
+    public void setUp() {
+        // 标准开局
+        ReversiBoard board = new ReversiEngine(1).board();
+        black = board.getBitboard(Piece.BLACK);
+        white = board.getBitboard(Piece.WHITE);
+        if (ReversiPerft.perft(black, white, depth) != ReversiPerft.expected(depth)) {
+            throw new IllegalStateException("perft结果与公开数据不一致，深度 " + depth);
+        }
+    }
+
+    @Benchmark
+    public long perftFromOpening() {
+        return ReversiPerft.perft(black, white, depth);
+    }
+}
@@ -0,0 +1,134 @@
+package com.chess.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.chess.engine.ReversiEngine;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋规则：合法落子判断、是否有子可下、翻转、计数
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReversiRulesBenchmark {
+    @Param({"opening", "midgame", "endgame"})
+    public String position;
+
+    private ReversiEngine engine;
+    private ReversiBoard board;
+    // 黑方的一个合法落子，以及落子前双方的掩码（用于还原翻转）
+    private int moveRow;
+    private int moveCol;
+    private long black;
+    private long white;
+
+    @Setup
+    public void setUp() {
+        switch (position) {
+            case "opening":
+                engine = Fixtures.reversi(Fixtures.REVERSI_OPENING);
+                break;
+            case "midgame":
+                engine = Fixtures.reversi(Fixtures.REVERSI_MIDGAME);
+                break;
+            default:
+                engine = Fixtures.reversi(Fixtures.REVERSI_ENDGAME);
+                break;
+        }
+        board = engine.board();
+        long moves = board.legalMoves(Piece.BLACK);
+        if (moves == 0) {
+            throw new IllegalStateException("局面中黑方没有合法落子: " + position);
+        }
+        // 取翻转数最多的落子，让flipPieces的测量更有代表性
+        int best = -1;
+        int square = -1;
+        while (moves != 0) {
+            int s = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            int flips = Long.bitCount(board.flips(s / 8, s % 8, Piece.BLACK));
+            if (flips > best) {
+                best = flips;
+                square = s;
+            }
+        }
+        moveRow = square / 8;
+        moveCol = square % 8;
+        black = board.getBitboard(Piece.BLACK);
+        white = board.getBitboard(Piece.WHITE);
+    }
+
+    // 逐格调用isValidMove，相当于界面上标记所有可下位置
+    @Benchmark
+    public int isValidMoveAllSquares() {
+        int count = 0;
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                if (engine.isValidMove(i, j, Piece.BLACK)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // 一个回合内的全部查询：棋盘被修改后，提示显示逐格判断，再由回合和终局判断各查询双方是否有子可下
+    // 原地重放一个已有棋子只是让修改计数变化，局面不变
+    @Benchmark
+    public int turnQueriesAfterChange() {
+        board.placePiece(3, 3, board.getPiece(3, 3), true);
+        int count = isValidMoveAllSquares();
+        for (int k = 0; k < 2; k++) {
+            if (engine.hasValidMove(Piece.BLACK)) {
+                count++;
+            }
+            if (engine.hasValidMove(Piece.WHITE)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public boolean hasValidMove() {
+        return engine.hasValidMove(Piece.WHITE);
+    }
+
+    @Benchmark
+    public long flipMask() {
+        return board.flips(moveRow, moveCol, Piece.BLACK);
+    }
+
+    // 落子、翻转后再按原掩码还原，测量值包含还原的开销
+    @Benchmark
+    public int flipPieces() {
+        board.placePiece(moveRow, moveCol, Piece.BLACK, true);
+        engine.flipPieces(moveRow, moveCol, Piece.BLACK);
+        int count = engine.countPieces(Piece.BLACK);
+        long changed = board.getBitboard(Piece.BLACK) & ~black;
+        while (changed != 0) {
+            int s = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            board.placePiece(s / 8, s % 8, (white & (1L << s)) != 0 ? Piece.WHITE : Piece.EMPTY, true);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int countPieces() {
+        return engine.countPieces(Piece.BLACK) + engine.countPieces(Piece.WHITE);
+    }
+}
@@ -0,0 +1,89 @@
+package com.chess.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.chess.bench.Fixtures;
+
+// 控制台层：棋盘渲染和输入解析；放在com.chess.service包中以调用protected方法
+// System.out在测试期间替换为丢弃所有输出的流
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsoleBenchmark {
+    @Param({"peace", "reversi", "gomoku"})
+    public String mode;
+
+    private Game game;
+    private PrintStream originalOut;
+    // 不改变局面的输入：已占用的位置、越界位置、格式错误
+    private String occupiedInput;
+    private String outOfBoardInput;
+    private String malformedInput;
+
+    @Setup
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        switch (mode) {
+            case "reversi":
+                game = new ReversiGame("Player1", "Player2", 1);
+                Fixtures.load(game.engine, Fixtures.REVERSI_MIDGAME);
+                occupiedInput = "3b";
+                outOfBoardInput = "9a";
+                break;
+            case "gomoku":
+                game = new GomokuGame("Player1", "Player2", 1);
+                Fixtures.load(game.engine, Fixtures.GOMOKU_SPARSE);
+                occupiedInput = "6G";
+                outOfBoardInput = "@GZ";
+                break;
+            default:
+                game = new Game("Player1", "Player2");
+                occupiedInput = "4d";
+                outOfBoardInput = "9a";
+                break;
+        }
+        malformedInput = "a1";
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void displayBoard() {
+        game.displayBoard();
+    }
+
+    @Benchmark
+    public boolean processOccupiedMove() {
+        return game.processMoveInput(occupiedInput);
+    }
+
+    @Benchmark
+    public boolean processOutOfBoardMove() {
+        return game.processMoveInput(outOfBoardInput);
+    }
+
+    @Benchmark
+    public boolean processMalformedMove() {
+        return game.processMoveInput(malformedInput);
+    }
+}
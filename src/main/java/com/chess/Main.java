@@ -1,9 +1,17 @@
 package com.chess;
 
+import java.io.IOException;
+import java.util.Arrays;
+import com.chess.service.BatchRunner;
 import com.chess.service.Game;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // --batch [脚本文件|-] [--boards]：非交互地执行脚本，只输出最终结果
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Game.startGameSystem();
     }
-}
\ No newline at end of file
+}
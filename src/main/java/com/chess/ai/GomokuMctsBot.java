@@ -0,0 +1,489 @@
+package com.chess.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+
+// 五子棋蒙特卡洛树搜索电脑玩家（根并行）
+// 炸弹和普通落子一样是树中的动作：落子只考虑已有棋子附近的空位，炸弹可作用于任意一颗对方棋子
+// 每个工作线程在ForkJoinPool中独立建树，结束后按动作合并访问次数，线程之间没有共享的可变状态
+// 线程池归本实例所有，不再使用时调用close关闭
+public class GomokuMctsBot implements AutoCloseable {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    private static final double EXPLORATION = 1.4;
+    // 落子候选：与已有棋子的切比雪夫距离不超过该值的空位
+    private static final int NEIGHBOUR_RADIUS = 2;
+    private static final int WIN_LENGTH = 5;
+
+    private final long timeBudgetMillis;
+    private final long maxPlayouts;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    private long seed = System.nanoTime();
+
+    public GomokuMctsBot() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, 0, Runtime.getRuntime().availableProcessors());
+    }
+
+    // maxPlayouts为每步所有线程合计的模拟次数上限，0表示只受时间预算限制
+    public GomokuMctsBot(long timeBudgetMillis, long maxPlayouts, int parallelism) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.maxPlayouts = maxPlayouts;
+        this.parallelism = Math.max(1, parallelism);
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    public static class SearchResult {
+        private final int row;
+        private final int col;
+        private final boolean bomb;
+        private final long playouts;
+        private final double winRate;
+        private final long elapsedNanos;
+
+        public SearchResult(int row, int col, boolean bomb, long playouts, double winRate, long elapsedNanos) {
+            this.row = row;
+            this.col = col;
+            this.bomb = bomb;
+            this.playouts = playouts;
+            this.winRate = winRate;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public boolean isBomb() {
+            return bomb;
+        }
+
+        public long getPlayouts() {
+            return playouts;
+        }
+
+        // 所选动作在模拟中的胜率（平局记0.5）
+        public double getWinRate() {
+            return winRate;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getPlayoutsPerSecond() {
+            return elapsedNanos == 0 ? 0 : playouts * 1000000000L / elapsedNanos;
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // 关闭线程池，之后不能再搜索
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    public SearchResult search(Board board, Piece toMove, int blackBombs, int whiteBombs) {
+        long start = System.nanoTime();
+        final State root = State.from(board, toMove, blackBombs, whiteBombs);
+        final long deadline = start + timeBudgetMillis * 1000000L;
+        final long playoutsPerWorker = maxPlayouts > 0 ? Math.max(1, maxPlayouts / parallelism) : Long.MAX_VALUE;
+
+        List<Callable<Tree>> workers = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            final long workerSeed = seed++ * 0x9E3779B97F4A7C15L;
+            workers.add(new Callable<Tree>() {
+                @Override
+                public Tree call() {
+                    Tree tree = new Tree(root, new SplittableRandom(workerSeed));
+                    tree.run(deadline, playoutsPerWorker);
+                    return tree;
+                }
+            });
+        }
+
+        // 合并各线程根节点的统计
+        int actionCount = 2 * root.cells.length;
+        long[] visits = new long[actionCount];
+        double[] wins = new double[actionCount];
+        long playouts = 0;
+        for (Future<Tree> future : pool.invokeAll(workers)) {
+            Tree tree;
+            try {
+                tree = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("搜索被中断", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("搜索线程异常", e.getCause());
+            }
+            playouts += tree.playouts;
+            for (Node child : tree.root.children) {
+                visits[child.action] += child.visits;
+                wins[child.action] += child.wins;
+            }
+        }
+
+        int best = -1;
+        for (int action = 0; action < actionCount; action++) {
+            if (visits[action] > 0 && (best < 0 || visits[action] > visits[best])) {
+                best = action;
+            }
+        }
+        if (best < 0) {
+            // 没有完成任何一次扩展（预算极小）时退回到任意合法动作
+            int[] actions = new int[actionCount];
+            best = root.actions(actions) > 0 ? actions[0] : -1;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (best < 0) {
+            return new SearchResult(-1, -1, false, playouts, 0, elapsed);
+        }
+        int cell = best % root.cells.length;
+        double winRate = visits[best] == 0 ? 0 : wins[best] / visits[best];
+        return new SearchResult(cell / root.size, cell % root.size, best >= root.cells.length,
+                playouts, winRate, elapsed);
+    }
+
+    // 单个线程私有的搜索树
+    private static final class Tree {
+        private final State rootState;
+        private final SplittableRandom random;
+        private final Node root;
+        private final int[] actionBuffer;
+        private long playouts;
+
+        Tree(State rootState, SplittableRandom random) {
+            this.rootState = rootState;
+            this.random = random;
+            this.actionBuffer = new int[2 * rootState.cells.length];
+            this.root = new Node(-1, null, rootState.toMove == 1 ? (byte) 2 : (byte) 1);
+        }
+
+        void run(long deadline, long maxPlayouts) {
+            while (playouts < maxPlayouts && ((playouts & 15) != 0 || System.nanoTime() < deadline)) {
+                iterate();
+                playouts++;
+            }
+        }
+
+        private void iterate() {
+            State state = rootState.copy();
+            Node node = root;
+
+            // 选择
+            while (node.untriedCount == 0 && !node.children.isEmpty() && state.winner == 0) {
+                node = node.select();
+                state.apply(node.action);
+            }
+            // 扩展
+            if (state.winner == 0) {
+                if (node.untried == null) {
+                    int count = state.actions(actionBuffer);
+                    node.untried = new int[count];
+                    System.arraycopy(actionBuffer, 0, node.untried, 0, count);
+                    node.untriedCount = count;
+                }
+                if (node.untriedCount > 0) {
+                    int pick = random.nextInt(node.untriedCount);
+                    int action = node.untried[pick];
+                    node.untried[pick] = node.untried[--node.untriedCount];
+                    byte mover = state.toMove;
+                    state.apply(action);
+                    Node child = new Node(action, node, mover);
+                    node.children.add(child);
+                    node = child;
+                }
+            }
+            // 模拟
+            byte winner = state.playout(random);
+            // 回传：每个节点从"走到该节点的一方"的角度记分
+            while (node != null) {
+                node.visits++;
+                if (winner == node.mover) {
+                    node.wins += 1;
+                } else if (winner == State.DRAW) {
+                    node.wins += 0.5;
+                }
+                node = node.parent;
+            }
+        }
+    }
+
+    private static final class Node {
+        private final int action;
+        private final Node parent;
+        private final byte mover;
+        private final List<Node> children = new ArrayList<>();
+        private int[] untried;
+        private int untriedCount = -1;
+        private int visits;
+        private double wins;
+
+        Node(int action, Node parent, byte mover) {
+            this.action = action;
+            this.parent = parent;
+            this.mover = mover;
+        }
+
+        // UCT
+        Node select() {
+            double logVisits = Math.log(visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                double value = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    // 搜索用的紧凑局面：0空、1黑、2白、3障碍物或弹坑
+    private static final class State {
+        static final byte EMPTY = 0;
+        static final byte WALL = 3;
+        static final byte DRAW = 3;
+        private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+        final int size;
+        final byte[] cells;
+        final int[] bombs = new int[3];
+        final int[] lastMove = {-1, -1, -1};
+        byte toMove;
+        byte winner;
+        int empty;
+
+        State(int size) {
+            this.size = size;
+            this.cells = new byte[size * size];
+        }
+
+        static State from(Board board, Piece toMove, int blackBombs, int whiteBombs) {
+            State state = new State(board.getSize());
+            for (int i = 0; i < state.size; i++) {
+                for (int j = 0; j < state.size; j++) {
+                    Piece piece = board.getPiece(i, j);
+                    byte value = piece == Piece.BLACK ? 1 : piece == Piece.WHITE ? 2 : piece == Piece.EMPTY ? EMPTY : WALL;
+                    state.cells[i * state.size + j] = value;
+                    if (value == EMPTY) {
+                        state.empty++;
+                    }
+                }
+            }
+            state.bombs[1] = blackBombs;
+            state.bombs[2] = whiteBombs;
+            state.toMove = toMove == Piece.BLACK ? (byte) 1 : (byte) 2;
+            if (state.empty == 0) {
+                state.winner = DRAW;
+            }
+            return state;
+        }
+
+        State copy() {
+            State copy = new State(size);
+            System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+            System.arraycopy(bombs, 0, copy.bombs, 0, bombs.length);
+            System.arraycopy(lastMove, 0, copy.lastMove, 0, lastMove.length);
+            copy.toMove = toMove;
+            copy.winner = winner;
+            copy.empty = empty;
+            return copy;
+        }
+
+        // 动作编号：落子为格子下标，炸弹为格子数+格子下标
+        int actions(int[] out) {
+            int count = 0;
+            boolean hasStone = false;
+            byte enemy = (toMove == 1) ? (byte) 2 : (byte) 1;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (cells[cell] == EMPTY) {
+                    if (nearStone(cell)) {
+                        out[count++] = cell;
+                    }
+                } else if (cells[cell] != WALL) {
+                    hasStone = true;
+                    if (cells[cell] == enemy && bombs[toMove] > 0) {
+                        out[count++] = cells.length + cell;
+                    }
+                }
+            }
+            if (!hasStone) {
+                int center = (size / 2) * size + size / 2;
+                if (cells[center] == EMPTY) {
+                    out[count++] = center;
+                } else {
+                    for (int cell = 0; cell < cells.length && count == 0; cell++) {
+                        if (cells[cell] == EMPTY) {
+                            out[count++] = cell;
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        private boolean nearStone(int cell) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int r = Math.max(0, row - NEIGHBOUR_RADIUS); r <= Math.min(size - 1, row + NEIGHBOUR_RADIUS); r++) {
+                for (int c = Math.max(0, col - NEIGHBOUR_RADIUS); c <= Math.min(size - 1, col + NEIGHBOUR_RADIUS); c++) {
+                    byte value = cells[r * size + c];
+                    if (value == 1 || value == 2) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void apply(int action) {
+            if (action >= cells.length) {
+                // 炸弹：对方棋子变为弹坑
+                cells[action - cells.length] = WALL;
+                bombs[toMove]--;
+            } else {
+                cells[action] = toMove;
+                empty--;
+                lastMove[toMove] = action;
+                if (isFive(action, toMove)) {
+                    winner = toMove;
+                } else if (empty == 0) {
+                    winner = DRAW;
+                }
+            }
+            toMove = (toMove == 1) ? (byte) 2 : (byte) 1;
+        }
+
+        // 随机模拟到终局：能成五就成五，对方能成五就挡，否则在已有棋子附近随机落子
+        byte playout(SplittableRandom random) {
+            int[] candidates = new int[cells.length];
+            boolean[] listed = new boolean[cells.length];
+            int count = 0;
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (cells[cell] == EMPTY && nearStone(cell)) {
+                    candidates[count++] = cell;
+                    listed[cell] = true;
+                }
+            }
+            while (winner == 0) {
+                byte enemy = (toMove == 1) ? (byte) 2 : (byte) 1;
+                int move = fiveCompletion(lastMove[toMove], toMove);
+                if (move < 0) {
+                    move = fiveCompletion(lastMove[enemy], enemy);
+                }
+                while (move < 0 && count > 0) {
+                    int pick = random.nextInt(count);
+                    int cell = candidates[pick];
+                    candidates[pick] = candidates[--count];
+                    listed[cell] = false;
+                    if (cells[cell] == EMPTY) {
+                        move = cell;
+                    }
+                }
+                if (move < 0) {
+                    move = firstEmpty();
+                }
+                apply(move);
+                // 新落子周围的空位加入候选
+                int row = move / size;
+                int col = move % size;
+                for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+                    for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                        int cell = r * size + c;
+                        if (cells[cell] == EMPTY && !listed[cell]) {
+                            candidates[count++] = cell;
+                            listed[cell] = true;
+                        }
+                    }
+                }
+            }
+            return winner;
+        }
+
+        private int firstEmpty() {
+            for (int cell = 0; cell < cells.length; cell++) {
+                if (cells[cell] == EMPTY) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+
+        // 经过cell的五格窗口中若有player的4子1空，返回该空位
+        private int fiveCompletion(int cell, byte player) {
+            if (cell < 0 || cells[cell] != player) {
+                return -1;
+            }
+            int row = cell / size;
+            int col = cell % size;
+            for (int[] dir : DIRECTIONS) {
+                for (int offset = -(WIN_LENGTH - 1); offset <= 0; offset++) {
+                    int startR = row + dir[0] * offset;
+                    int startC = col + dir[1] * offset;
+                    int endR = startR + dir[0] * (WIN_LENGTH - 1);
+                    int endC = startC + dir[1] * (WIN_LENGTH - 1);
+                    if (startR < 0 || startR >= size || startC < 0 || startC >= size
+                            || endR < 0 || endR >= size || endC < 0 || endC >= size) {
+                        continue;
+                    }
+                    int emptyCell = -1;
+                    int own = 0;
+                    for (int k = 0; k < WIN_LENGTH; k++) {
+                        int index = (startR + dir[0] * k) * size + (startC + dir[1] * k);
+                        if (cells[index] == player) {
+                            own++;
+                        } else if (cells[index] == EMPTY) {
+                            emptyCell = index;
+                        }
+                    }
+                    if (own == WIN_LENGTH - 1 && emptyCell >= 0) {
+                        return emptyCell;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean isFive(int cell, byte player) {
+            int row = cell / size;
+            int col = cell % size;
+            for (int[] dir : DIRECTIONS) {
+                int length = 1 + count(row, col, dir[0], dir[1], player) + count(row, col, -dir[0], -dir[1], player);
+                if (length >= WIN_LENGTH) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int count(int row, int col, int dRow, int dCol, byte player) {
+            int result = 0;
+            int r = row + dRow;
+            int c = col + dCol;
+            while (r >= 0 && r < size && c >= 0 && c < size && cells[r * size + c] == player) {
+                result++;
+                r += dRow;
+                c += dCol;
+            }
+            return result;
+        }
+    }
+}
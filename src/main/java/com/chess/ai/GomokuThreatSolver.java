@@ -0,0 +1,514 @@
+package com.chess.ai;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+
+// 五子棋威胁空间搜索：只沿着冲四(VCF)和活三(VCT)这样的强制手寻找必胜
+// 防守方对活三的应手包括所有能阻止其成为活四的位置以及防守方自己的冲四，
+// 因此找到的必胜序列是可靠的；反之"没有必胜"只表示在深度和预算内没有找到
+public class GomokuThreatSolver {
+    public static final long DEFAULT_MAX_NODES = 200000;
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+
+    private static final int VCF_DEPTH = 30;
+    private static final int MAX_VCT_DEPTH = 8;
+    private static final int WIN_LENGTH = 5;
+
+    private static final byte EMPTY = 0;
+    private static final byte WALL = 3;
+
+    // 水平、垂直、右下、左下
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    public enum Status {
+        WIN,
+        NO_WIN,
+        BUDGET_EXCEEDED
+    }
+
+    public static class Result {
+        private final Status status;
+        private final List<int[]> sequence;
+        private final boolean foursOnly;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        public Result(Status status, List<int[]> sequence, boolean foursOnly, long nodes, long elapsedNanos) {
+            this.status = status;
+            this.sequence = sequence;
+            this.foursOnly = foursOnly;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        // 主变例：攻方、守方交替的{row, col}，最后一手为攻方成五
+        public List<int[]> getSequence() {
+            return sequence;
+        }
+
+        // 是否仅靠连续冲四获胜(VCF)
+        public boolean isFoursOnly() {
+            return foursOnly;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+
+    private final long maxNodes;
+    private final long timeBudgetNanos;
+
+    private int size;
+    private byte[] cells;
+    private long[][] zobrist;
+    // 所有五格窗口：windowCells[w]为窗口内的5个格子，cellWindows[cell][d]为经过cell、方向为d的窗口
+    private int[][] windowCells;
+    private int[][][] cellWindows;
+    // windowCounts[code][w]：窗口w内黑子、白子、不可用格子的数量
+    private byte[][] windowCounts;
+    // 含有4个同色棋子的窗口数量，为0时可以跳过成五点的扫描
+    private int[] fourWindows;
+    private long hash;
+    private byte attacker;
+    private byte defender;
+    private boolean allowThrees;
+
+    private long nodes;
+    private long deadline;
+    private boolean exhausted;
+
+    // 已证明失败的局面 -> 失败时的剩余深度
+    private final Map<Long, Integer> failed = new HashMap<>();
+    // 三角形主变例表
+    private int[][] pv;
+    private int[] pvLength;
+
+    public GomokuThreatSolver() {
+        this(DEFAULT_MAX_NODES, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public GomokuThreatSolver(long maxNodes, long timeBudgetMillis) {
+        this.maxNodes = maxNodes;
+        this.timeBudgetNanos = timeBudgetMillis * 1000000L;
+    }
+
+    // 分析attacker先行时是否存在必胜；障碍物和弹坑视为双方都不能使用的格子
+    public Result solve(Board board, Piece attackerPiece) {
+        long start = System.nanoTime();
+        load(board, attackerPiece);
+        nodes = 0;
+        exhausted = false;
+        deadline = start + timeBudgetNanos;
+
+        int maxPly = 2 * (Math.max(VCF_DEPTH, MAX_VCT_DEPTH) + 1) + 2;
+        pv = new int[maxPly][maxPly];
+        pvLength = new int[maxPly];
+
+        // 先只用冲四，再逐步加深允许活三
+        allowThrees = false;
+        failed.clear();
+        if (attack(VCF_DEPTH, 0)) {
+            return new Result(Status.WIN, principalVariation(), true, nodes, System.nanoTime() - start);
+        }
+        // 冲四阶段的失败结论对允许活三的搜索不成立；VCT各轮之间则可以保留
+        allowThrees = true;
+        failed.clear();
+        for (int depth = 2; depth <= MAX_VCT_DEPTH && !exhausted; depth++) {
+            if (attack(depth, 0)) {
+                return new Result(Status.WIN, principalVariation(), false, nodes, System.nanoTime() - start);
+            }
+        }
+        Status status = exhausted ? Status.BUDGET_EXCEEDED : Status.NO_WIN;
+        return new Result(status, new ArrayList<int[]>(), false, nodes, System.nanoTime() - start);
+    }
+
+    private void load(Board board, Piece attackerPiece) {
+        if (cells == null || size != board.getSize()) {
+            size = board.getSize();
+            buildWindows();
+            Random random = new Random(size);
+            zobrist = new long[size * size][3];
+            for (long[] keys : zobrist) {
+                keys[1] = random.nextLong();
+                keys[2] = random.nextLong();
+            }
+        }
+        attacker = code(attackerPiece);
+        defender = (attacker == 1) ? (byte) 2 : (byte) 1;
+        cells = new byte[size * size];
+        windowCounts = new byte[4][windowCells.length];
+        fourWindows = new int[4];
+        hash = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                byte value = code(board.getPiece(i, j));
+                if (value != EMPTY) {
+                    place(i * size + j, value);
+                }
+            }
+        }
+    }
+
+    private void buildWindows() {
+        int[][] dirCounts = new int[size * size][DIRECTIONS.length];
+        int[][][] byCell = new int[size * size][DIRECTIONS.length][WIN_LENGTH];
+        int[][] windows = new int[DIRECTIONS.length * size * size][];
+        int count = 0;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int[] dir = DIRECTIONS[d];
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    int endR = r + dir[0] * (WIN_LENGTH - 1);
+                    int endC = c + dir[1] * (WIN_LENGTH - 1);
+                    if (endR < 0 || endR >= size || endC < 0 || endC >= size) {
+                        continue;
+                    }
+                    int[] window = new int[WIN_LENGTH];
+                    for (int k = 0; k < WIN_LENGTH; k++) {
+                        int cell = (r + dir[0] * k) * size + (c + dir[1] * k);
+                        window[k] = cell;
+                        byCell[cell][d][dirCounts[cell][d]++] = count;
+                    }
+                    windows[count++] = window;
+                }
+            }
+        }
+        windowCells = new int[count][];
+        System.arraycopy(windows, 0, windowCells, 0, count);
+        cellWindows = new int[size * size][DIRECTIONS.length][];
+        for (int cell = 0; cell < size * size; cell++) {
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                cellWindows[cell][d] = new int[dirCounts[cell][d]];
+                System.arraycopy(byCell[cell][d], 0, cellWindows[cell][d], 0, dirCounts[cell][d]);
+            }
+        }
+    }
+
+    private static byte code(Piece piece) {
+        if (piece == Piece.BLACK) {
+            return 1;
+        }
+        if (piece == Piece.WHITE) {
+            return 2;
+        }
+        if (piece == Piece.EMPTY) {
+            return EMPTY;
+        }
+        return WALL;
+    }
+
+    // 攻方节点：返回攻方在depth步强制手之内是否必胜
+    private boolean attack(int depth, int ply) {
+        pvLength[ply] = ply;
+        if (++nodes >= maxNodes || ((nodes & 1023) == 0 && System.nanoTime() >= deadline)) {
+            exhausted = true;
+        }
+        if (exhausted) {
+            return false;
+        }
+
+        int five = firstFiveCell(attacker);
+        if (five >= 0) {
+            setPv(ply, five);
+            return true;
+        }
+        if (depth == 0) {
+            return false;
+        }
+        Integer failedDepth = failed.get(hash);
+        if (failedDepth != null && failedDepth >= depth) {
+            return false;
+        }
+
+        int[] defenderFives = fiveCells(defender);
+        int[] candidates;
+        if (defenderFives.length >= 2) {
+            return false;
+        } else if (defenderFives.length == 1) {
+            // 必须先挡住对方的五，并且这一手本身得是冲四
+            candidates = defenderFives;
+        } else {
+            candidates = threatCells(attacker, allowThrees);
+        }
+
+        // 守方的冲四点在本节点只算一次；攻方落子后其中个别点可能不再成立，多考虑几个应手不影响结论
+        int[] counterFours = null;
+        for (int move : candidates) {
+            place(move, attacker);
+            boolean win = false;
+            int[] completions = completionCells(attacker, move, -1);
+            if (completions.length >= 2) {
+                // 双冲四/活四：对方已无五可成，下一手必然成五
+                setPv(ply, move);
+                pv[ply][ply + 1] = completions[0];
+                pv[ply][ply + 2] = completions[1];
+                pvLength[ply] = ply + 3;
+                win = true;
+            } else if (completions.length == 1) {
+                win = defend(new int[]{completions[0]}, depth, ply, move);
+            } else if (allowThrees && defenderFives.length == 0) {
+                if (counterFours == null) {
+                    counterFours = threatCells(defender, false);
+                }
+                int[] replies = threeDefences(move, counterFours);
+                if (replies.length > 0) {
+                    win = defend(replies, depth, ply, move);
+                }
+            }
+            remove(move, attacker);
+            if (win) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+        }
+        failed.put(hash, depth);
+        return false;
+    }
+
+    // 守方节点：所有应手之后攻方都必须仍然必胜
+    private boolean defend(int[] replies, int depth, int ply, int attackMove) {
+        int[] firstLine = null;
+        int firstLength = 0;
+        for (int reply : replies) {
+            place(reply, defender);
+            boolean win = attack(depth - 1, ply + 2);
+            remove(reply, defender);
+            if (!win) {
+                return false;
+            }
+            if (firstLine == null) {
+                firstLine = pv[ply + 2].clone();
+                firstLength = pvLength[ply + 2];
+                pv[ply][ply + 1] = reply;
+            }
+        }
+        pv[ply][ply] = attackMove;
+        System.arraycopy(firstLine, ply + 2, pv[ply], ply + 2, firstLength - (ply + 2));
+        pvLength[ply] = firstLength;
+        return true;
+    }
+
+    private void setPv(int ply, int move) {
+        pv[ply][ply] = move;
+        pvLength[ply] = ply + 1;
+    }
+
+    private List<int[]> principalVariation() {
+        List<int[]> sequence = new ArrayList<>();
+        for (int i = 0; i < pvLength[0]; i++) {
+            sequence.add(new int[]{pv[0][i] / size, pv[0][i] % size});
+        }
+        return sequence;
+    }
+
+    // 窗口内只有player的棋子和空位时，返回player的棋子数，否则返回-1
+    private int ownCount(byte player, int window) {
+        byte other = (player == 1) ? (byte) 2 : (byte) 1;
+        if (windowCounts[other][window] != 0 || windowCounts[WALL][window] != 0) {
+            return -1;
+        }
+        return windowCounts[player][window];
+    }
+
+    private int firstEmpty(int window) {
+        for (int cell : windowCells[window]) {
+            if (cells[cell] == EMPTY) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    // 4子1空窗口中的空位即成五点；最多返回两个不同的成五点
+    private int[] fiveCells(byte player) {
+        if (fourWindows[player] == 0) {
+            return new int[0];
+        }
+        int first = -1;
+        for (int w = 0; w < windowCells.length; w++) {
+            if (ownCount(player, w) != WIN_LENGTH - 1) {
+                continue;
+            }
+            int empty = firstEmpty(w);
+            if (first < 0) {
+                first = empty;
+            } else if (empty != first) {
+                return new int[]{first, empty};
+            }
+        }
+        return first < 0 ? new int[0] : new int[]{first};
+    }
+
+    private int firstFiveCell(byte player) {
+        if (fourWindows[player] == 0) {
+            return -1;
+        }
+        for (int w = 0; w < windowCells.length; w++) {
+            if (ownCount(player, w) == WIN_LENGTH - 1) {
+                return firstEmpty(w);
+            }
+        }
+        return -1;
+    }
+
+    // 候选强制手：3子2空窗口中的空位(冲四)，允许活三时还有2子3空窗口中的空位
+    private int[] threatCells(byte player, boolean withThrees) {
+        boolean[] isFour = new boolean[size * size];
+        boolean[] isThree = new boolean[size * size];
+        for (int w = 0; w < windowCells.length; w++) {
+            int own = ownCount(player, w);
+            if (own < 2 || own > 3 || (own == 2 && !withThrees)) {
+                continue;
+            }
+            for (int cell : windowCells[w]) {
+                if (cells[cell] == EMPTY) {
+                    if (own == 3) {
+                        isFour[cell] = true;
+                    } else {
+                        isThree[cell] = true;
+                    }
+                }
+            }
+        }
+        // 冲四排在活三之前
+        int[] result = new int[size * size];
+        int count = 0;
+        for (int i = 0; i < isFour.length; i++) {
+            if (isFour[i]) {
+                result[count++] = i;
+            }
+        }
+        for (int i = 0; i < isThree.length; i++) {
+            if (isThree[i] && !isFour[i]) {
+                result[count++] = i;
+            }
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    // player在cell落子后（已落下），经过cell、方向为direction(-1表示全部方向)的成五点
+    private int[] completionCells(byte player, int cell, int direction) {
+        int[] found = new int[8];
+        int count = 0;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (direction >= 0 && d != direction) {
+                continue;
+            }
+            for (int w : cellWindows[cell][d]) {
+                if (ownCount(player, w) != WIN_LENGTH - 1) {
+                    continue;
+                }
+                int empty = firstEmpty(w);
+                boolean duplicate = false;
+                for (int i = 0; i < count; i++) {
+                    duplicate |= found[i] == empty;
+                }
+                if (!duplicate && count < found.length) {
+                    found[count++] = empty;
+                }
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(found, 0, result, 0, count);
+        return result;
+    }
+
+    // 攻方在move落子后若形成活三，返回守方所有需要考虑的应手；不是活三返回空数组
+    private int[] threeDefences(int move, int[] counterFours) {
+        boolean[] reply = new boolean[size * size];
+        boolean isThree = false;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            boolean[] checked = new boolean[size * size];
+            // 能变成活四的点一定在经过move、已有3子2空的窗口里
+            for (int w : cellWindows[move][d]) {
+                if (ownCount(attacker, w) != WIN_LENGTH - 2) {
+                    continue;
+                }
+                for (int gain : windowCells[w]) {
+                    if (cells[gain] != EMPTY || checked[gain]) {
+                        continue;
+                    }
+                    checked[gain] = true;
+                    place(gain, attacker);
+                    int[] completions = completionCells(attacker, gain, d);
+                    remove(gain, attacker);
+                    // 这一点能形成活四（两个成五点），对方必须提前防守
+                    if (completions.length >= 2) {
+                        isThree = true;
+                        reply[gain] = true;
+                        for (int completion : completions) {
+                            reply[completion] = true;
+                        }
+                    }
+                }
+            }
+        }
+        if (!isThree) {
+            return new int[0];
+        }
+        // 守方也可以用自己的冲四反击
+        for (int counter : counterFours) {
+            if (cells[counter] == EMPTY) {
+                reply[counter] = true;
+            }
+        }
+        int count = 0;
+        for (boolean r : reply) {
+            if (r) {
+                count++;
+            }
+        }
+        int[] result = new int[count];
+        count = 0;
+        for (int i = 0; i < reply.length; i++) {
+            if (reply[i]) {
+                result[count++] = i;
+            }
+        }
+        return result;
+    }
+
+    private void place(int cell, byte player) {
+        cells[cell] = player;
+        for (int[] windows : cellWindows[cell]) {
+            for (int w : windows) {
+                if (++windowCounts[player][w] == WIN_LENGTH - 1) {
+                    fourWindows[player]++;
+                }
+            }
+        }
+        if (player != WALL) {
+            hash ^= zobrist[cell][player];
+        }
+    }
+
+    private void remove(int cell, byte player) {
+        cells[cell] = EMPTY;
+        for (int[] windows : cellWindows[cell]) {
+            for (int w : windows) {
+                if (windowCounts[player][w]-- == WIN_LENGTH - 1) {
+                    fourWindows[player]--;
+                }
+            }
+        }
+        hash ^= zobrist[cell][player];
+    }
+}
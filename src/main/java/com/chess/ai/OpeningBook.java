@@ -0,0 +1,188 @@
+package com.chess.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// 黑白棋开局库：内存映射的开放寻址哈希表，只读，多个电脑玩家实例可以共享同一份
+// 局面先在8种对称变换中取规范形式（own、opp按无符号数比较取最小）再查表，落子位置按同一变换换算
+// 文件格式：[魔数][版本][容量][局面数]，随后是容量个32字节的槽：
+// [own u64][opp u64][8个走法：位置u8（规范形式下，0xFF表示空）+ 分数i8]，走法按分数从高到低排列
+// own为行棋方的棋子；own和opp都为0的槽为空
+public final class OpeningBook {
+    static final int MAGIC = 0x43484F42; // "CHOB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 32;
+    static final int MOVES_PER_ENTRY = 8;
+    static final int NO_MOVE = 0xFF;
+    public static final int SYMMETRIES = 8;
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final int size;
+
+    private OpeningBook(ByteBuffer table) throws IOException {
+        this.table = table;
+        if (table.capacity() < HEADER_SIZE || table.getInt(0) != MAGIC || table.getInt(4) != VERSION) {
+            throw new IOException("不是开局库文件或版本不兼容");
+        }
+        int capacity = table.getInt(8);
+        if (Integer.bitCount(capacity) != 1 || (long) HEADER_SIZE + (long) capacity * ENTRY_SIZE > table.capacity()) {
+            throw new IOException("开局库文件已损坏");
+        }
+        this.mask = capacity - 1;
+        this.size = table.getInt(12);
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(table);
+        }
+    }
+
+    // 进程内共享的开局库，路径由 -Dchess.book 指定（默认 reversi-book.bin）；文件不存在时为null
+    public static OpeningBook shared() {
+        return SharedHolder.BOOK;
+    }
+
+    private static class SharedHolder {
+        static final OpeningBook BOOK = load();
+
+        private static OpeningBook load() {
+            Path path = Paths.get(System.getProperty("chess.book", "reversi-book.bin"));
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            try {
+                return open(path);
+            } catch (IOException e) {
+                System.out.println("无法读取开局库" + path + "：" + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // 库中的最佳走法（实际棋盘上的位置），不在库中时返回-1
+    public int bestMove(long own, long opp) {
+        int symmetry = canonicalSymmetry(own, opp);
+        long canonicalOwn = transform(own, symmetry);
+        long canonicalOpp = transform(opp, symmetry);
+        int entry = find(canonicalOwn, canonicalOpp);
+        if (entry < 0) {
+            return -1;
+        }
+        int square = table.get(entry + 16) & 0xFF;
+        if (square == NO_MOVE) {
+            return -1;
+        }
+        return Long.numberOfTrailingZeros(inverse(1L << square, symmetry));
+    }
+
+    // 最佳走法的分数（行棋方视角的子数差估计）；不在库中时返回0
+    public int bestScore(long own, long opp) {
+        int symmetry = canonicalSymmetry(own, opp);
+        int entry = find(transform(own, symmetry), transform(opp, symmetry));
+        return entry < 0 ? 0 : table.get(entry + 17);
+    }
+
+    // 在表中查找规范形式的局面，返回槽的偏移，没有时返回-1
+    private int find(long own, long opp) {
+        int index = slot(own, opp, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            int entry = HEADER_SIZE + index * ENTRY_SIZE;
+            long storedOwn = table.getLong(entry);
+            long storedOpp = table.getLong(entry + 8);
+            if (storedOwn == own && storedOpp == opp) {
+                return entry;
+            }
+            if (storedOwn == 0 && storedOpp == 0) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    static int slot(long own, long opp, int mask) {
+        long hash = own * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opp * 0xC2B2AE3D27D4EB4FL, 31);
+        hash ^= hash >>> 29;
+        return (int) hash & mask;
+    }
+
+    // ---- 对称变换：位0为沿主对角线转置，位1为上下翻转，位2为左右翻转 ----
+
+    // 8种变换中使(own, opp)最小的那一种
+    public static int canonicalSymmetry(long own, long opp) {
+        int best = 0;
+        long bestOwn = own;
+        long bestOpp = opp;
+        for (int symmetry = 1; symmetry < SYMMETRIES; symmetry++) {
+            long o = transform(own, symmetry);
+            long p = transform(opp, symmetry);
+            int compare = Long.compareUnsigned(o, bestOwn);
+            if (compare < 0 || (compare == 0 && Long.compareUnsigned(p, bestOpp) < 0)) {
+                best = symmetry;
+                bestOwn = o;
+                bestOpp = p;
+            }
+        }
+        return best;
+    }
+
+    public static long transform(long bits, int symmetry) {
+        if ((symmetry & 1) != 0) {
+            bits = transpose(bits);
+        }
+        if ((symmetry & 2) != 0) {
+            bits = Long.reverseBytes(bits);
+        }
+        if ((symmetry & 4) != 0) {
+            bits = mirror(bits);
+        }
+        return bits;
+    }
+
+    public static long inverse(long bits, int symmetry) {
+        if ((symmetry & 4) != 0) {
+            bits = mirror(bits);
+        }
+        if ((symmetry & 2) != 0) {
+            bits = Long.reverseBytes(bits);
+        }
+        if ((symmetry & 1) != 0) {
+            bits = transpose(bits);
+        }
+        return bits;
+    }
+
+    // 每行内左右翻转（第col列与第7-col列交换）
+    private static long mirror(long bits) {
+        bits = ((bits >>> 1) & 0x5555555555555555L) | ((bits & 0x5555555555555555L) << 1);
+        bits = ((bits >>> 2) & 0x3333333333333333L) | ((bits & 0x3333333333333333L) << 2);
+        bits = ((bits >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((bits & 0x0F0F0F0F0F0F0F0FL) << 4);
+        return bits;
+    }
+
+    // (row, col)与(col, row)交换
+    private static long transpose(long bits) {
+        long t = 0x0F0F0F0F00000000L & (bits ^ (bits << 28));
+        bits ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (bits ^ (bits << 14));
+        bits ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (bits ^ (bits << 7));
+        bits ^= t ^ (t >>> 7);
+        return bits;
+    }
+}
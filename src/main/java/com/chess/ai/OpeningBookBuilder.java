@@ -0,0 +1,276 @@
+package com.chess.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import com.chess.entity.ReversiBoard;
+
+// 生成开局库：统计前若干步中每个局面下各走法所在对局的最终子数差，按平均值给走法打分
+// 对局来源可以是电脑自我对弈，也可以是导入的棋谱（每行一局，如 f5d6c3d3c4...，Pass省略）
+// 用法：OpeningBookBuilder selfplay <输出文件> <局数> <步数> [每步毫秒数]
+//      OpeningBookBuilder import <输出文件> <棋谱文件> <步数>
+public final class OpeningBookBuilder {
+    private static final long START_BLACK = ReversiBoard.bit(3, 4) | ReversiBoard.bit(4, 3);
+    private static final long START_WHITE = ReversiBoard.bit(3, 3) | ReversiBoard.bit(4, 4);
+    // 自我对弈时开局阶段随机落子的概率，使对局覆盖更多变化
+    private static final double EXPLORATION = 0.25;
+
+    // 规范形式的局面
+    private static final class Position {
+        final long own;
+        final long opp;
+
+        Position(long own, long opp) {
+            this.own = own;
+            this.opp = opp;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Position)) {
+                return false;
+            }
+            Position position = (Position) other;
+            return own == position.own && opp == position.opp;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(own * 31 + opp);
+        }
+    }
+
+    // 某局面下各走法（规范形式下的位置）的出现次数与子数差之和
+    private static final class MoveStats {
+        final int[] count = new int[64];
+        final long[] discDifference = new long[64];
+    }
+
+    private final int maxPlies;
+    private final Map<Position, MoveStats> positions = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    // 记录一局：squares为依次的落子位置（不含Pass），返回是否是一局合法的对局
+    public boolean addGame(int[] squares) {
+        long own = START_BLACK;
+        long opp = START_WHITE;
+        // 每一步的规范局面、规范位置以及行棋方是否为黑方
+        List<Position> seen = new ArrayList<>();
+        List<Integer> moves = new ArrayList<>();
+        List<Boolean> blackMoved = new ArrayList<>();
+        boolean blackToMove = true;
+        for (int square : squares) {
+            long legal = ReversiBoard.legalMoves(own, opp);
+            if (legal == 0) {
+                long tmp = own;
+                own = opp;
+                opp = tmp;
+                blackToMove = !blackToMove;
+                legal = ReversiBoard.legalMoves(own, opp);
+            }
+            if ((legal & (1L << square)) == 0) {
+                return false;
+            }
+            if (seen.size() < maxPlies) {
+                int symmetry = OpeningBook.canonicalSymmetry(own, opp);
+                seen.add(new Position(OpeningBook.transform(own, symmetry), OpeningBook.transform(opp, symmetry)));
+                moves.add(Long.numberOfTrailingZeros(OpeningBook.transform(1L << square, symmetry)));
+                blackMoved.add(blackToMove);
+            }
+            long flipped = ReversiBoard.flips(own, opp, square);
+            long nextOwn = opp & ~flipped;
+            opp = own | flipped | (1L << square);
+            own = nextOwn;
+            blackToMove = !blackToMove;
+        }
+        long black = blackToMove ? own : opp;
+        long white = blackToMove ? opp : own;
+        int blackDifference = Long.bitCount(black) - Long.bitCount(white);
+        for (int i = 0; i < seen.size(); i++) {
+            MoveStats stats = positions.computeIfAbsent(seen.get(i), p -> new MoveStats());
+            int square = moves.get(i);
+            stats.count[square]++;
+            stats.discDifference[square] += blackMoved.get(i) ? blackDifference : -blackDifference;
+        }
+        games++;
+        return true;
+    }
+
+    // 电脑自我对弈：前maxPlies步中按EXPLORATION的概率随机落子，其余由搜索决定
+    public void selfPlay(int gameCount, long millisPerMove, long seed) {
+        ReversiBot bot = new ReversiBot(millisPerMove, null);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] squares = new int[64];
+        for (int game = 0; game < gameCount; game++) {
+            long own = START_BLACK;
+            long opp = START_WHITE;
+            int count = 0;
+            while (true) {
+                long legal = ReversiBoard.legalMoves(own, opp);
+                if (legal == 0) {
+                    if (ReversiBoard.legalMoves(opp, own) == 0) {
+                        break;
+                    }
+                    long tmp = own;
+                    own = opp;
+                    opp = tmp;
+                    continue;
+                }
+                int square;
+                if (count < maxPlies && random.nextDouble() < EXPLORATION) {
+                    int pick = random.nextInt(Long.bitCount(legal));
+                    for (int i = 0; i < pick; i++) {
+                        legal &= legal - 1;
+                    }
+                    square = Long.numberOfTrailingZeros(legal);
+                } else {
+                    square = bot.search(own, opp).getSquare();
+                }
+                squares[count++] = square;
+                long flipped = ReversiBoard.flips(own, opp, square);
+                long nextOwn = opp & ~flipped;
+                opp = own | flipped | (1L << square);
+                own = nextOwn;
+            }
+            int[] record = new int[count];
+            System.arraycopy(squares, 0, record, 0, count);
+            addGame(record);
+            if ((game + 1) % 10 == 0) {
+                System.out.println("已完成 " + (game + 1) + "/" + gameCount + " 局，" + positions.size() + " 个局面");
+            }
+        }
+    }
+
+    // 棋谱：每行一局，列a-h加行1-8，忽略空白；无法解析或不合法的行被跳过，返回跳过的行数
+    public int importRecords(Path file) throws IOException {
+        int skipped = 0;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String text = line.replaceAll("\\s+", "").toLowerCase();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            int[] squares = parseRecord(text);
+            if (squares == null || !addGame(squares)) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static int[] parseRecord(String text) {
+        if (text.length() % 2 != 0) {
+            return null;
+        }
+        int[] squares = new int[text.length() / 2];
+        for (int i = 0; i < squares.length; i++) {
+            int col = text.charAt(i * 2) - 'a';
+            int row = text.charAt(i * 2 + 1) - '1';
+            if (col < 0 || col >= 8 || row < 0 || row >= 8) {
+                return null;
+            }
+            squares[i] = row * 8 + col;
+        }
+        return squares;
+    }
+
+    public int positionCount() {
+        return positions.size();
+    }
+
+    // 写出开局库：负载不超过一半，每个局面最多保留分数最高的MOVES_PER_ENTRY个走法
+    // 分数为平均子数差，按 sum/(count+1) 向0收缩，样本少的走法不会因为一局的运气排到前面
+    public void write(Path path) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(16, positions.size() * 2 - 1)) << 1;
+        int mask = capacity - 1;
+        ByteBuffer out = ByteBuffer.allocate(OpeningBook.HEADER_SIZE + capacity * OpeningBook.ENTRY_SIZE);
+        out.putInt(0, OpeningBook.MAGIC)
+                .putInt(4, OpeningBook.VERSION)
+                .putInt(8, capacity)
+                .putInt(12, positions.size());
+        int[] squares = new int[64];
+        int[] scores = new int[64];
+        for (Map.Entry<Position, MoveStats> entry : positions.entrySet()) {
+            Position position = entry.getKey();
+            MoveStats stats = entry.getValue();
+            int count = 0;
+            for (int square = 0; square < 64; square++) {
+                if (stats.count[square] > 0) {
+                    long score = Math.round((double) stats.discDifference[square] / (stats.count[square] + 1));
+                    squares[count] = square;
+                    scores[count] = (int) Math.max(-64, Math.min(64, score));
+                    count++;
+                }
+            }
+            // 按分数从高到低插入排序（最多64个）
+            for (int i = 1; i < count; i++) {
+                int square = squares[i];
+                int score = scores[i];
+                int j = i - 1;
+                while (j >= 0 && scores[j] < score) {
+                    squares[j + 1] = squares[j];
+                    scores[j + 1] = scores[j];
+                    j--;
+                }
+                squares[j + 1] = square;
+                scores[j + 1] = score;
+            }
+            int index = OpeningBook.slot(position.own, position.opp, mask);
+            while (out.getLong(OpeningBook.HEADER_SIZE + index * OpeningBook.ENTRY_SIZE) != 0
+                    || out.getLong(OpeningBook.HEADER_SIZE + index * OpeningBook.ENTRY_SIZE + 8) != 0) {
+                index = (index + 1) & mask;
+            }
+            int offset = OpeningBook.HEADER_SIZE + index * OpeningBook.ENTRY_SIZE;
+            out.putLong(offset, position.own).putLong(offset + 8, position.opp);
+            for (int i = 0; i < OpeningBook.MOVES_PER_ENTRY; i++) {
+                out.put(offset + 16 + i * 2, (byte) (i < count ? squares[i] : OpeningBook.NO_MOVE));
+                out.put(offset + 17 + i * 2, (byte) (i < count ? scores[i] : 0));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        System.out.println("共 " + games + " 局，" + positions.size() + " 个局面，写入 " + path
+                + "（" + out.capacity() + " 字节）");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("用法: OpeningBookBuilder selfplay <输出文件> <局数> <步数> [每步毫秒数]");
+            System.out.println("      OpeningBookBuilder import <输出文件> <棋谱文件> <步数>");
+            return;
+        }
+        Path output = Paths.get(args[1]);
+        int plies = Integer.parseInt(args[3]);
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        if (args[0].equalsIgnoreCase("selfplay")) {
+            long millis = args.length > 4 ? Long.parseLong(args[4]) : 20;
+            builder.selfPlay(Integer.parseInt(args[2]), millis, System.nanoTime());
+        } else if (args[0].equalsIgnoreCase("import")) {
+            int skipped = builder.importRecords(Paths.get(args[2]));
+            if (skipped > 0) {
+                System.out.println("跳过 " + skipped + " 行无法解析或不合法的棋谱");
+            }
+        } else {
+            System.out.println("未知的来源: " + args[0]);
+            return;
+        }
+        builder.write(output);
+    }
+}
@@ -0,0 +1,374 @@
+package com.chess.ai;
+
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋电脑玩家：迭代加深 + negamax alpha-beta
+// 搜索只在自己的两个位掩码副本上做落子/撤销，不会修改游戏中的棋盘
+public class ReversiBot {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 1000;
+
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_PLY = 128;
+    private static final int INFINITY = 1000000;
+    // 终局分数按子数差放大，保证任何终局结果都比估值函数更"确定"
+    private static final int FINAL_SCALE = 1000;
+    // 空格不超过该数时先尝试用终局求解器算出精确结果，最多用掉一半的时间预算
+    // 单核上18个空格平均约0.25秒，20个空格平均要1秒以上，会经常超出默认预算的一半
+    public static final int ENDGAME_EMPTIES = 18;
+
+    // 估值权重
+    private static final int CORNER_WEIGHT = 25;
+    private static final int MOBILITY_WEIGHT = 5;
+    private static final int DISC_WEIGHT = 1;
+
+    private static final long CORNERS = 0x8100000000000081L;
+    // 低于该深度只用角优先排序，避免在叶子附近计算行动力
+    private static final int MOBILITY_ORDER_DEPTH = 3;
+
+    // 置换表，仅用于走法排序和截断
+    private static final int TT_BITS = 18;
+    private static final int TT_MASK = (1 << TT_BITS) - 1;
+    private static final byte EXACT = 0;
+    private static final byte LOWER = 1;
+    private static final byte UPPER = 2;
+
+    private final long timeBudgetNanos;
+    // 开局库，可以为null；命中时直接落子，不搜索
+    private final OpeningBook book;
+    // 终局求解器，第一次进入终局时才分配（置换表较大）
+    private ReversiEndgameSolver endgameSolver;
+
+    private final long[] ttOwn = new long[1 << TT_BITS];
+    private final long[] ttOpp = new long[1 << TT_BITS];
+    private final int[] ttScore = new int[1 << TT_BITS];
+    private final byte[] ttDepth = new byte[1 << TT_BITS];
+    private final byte[] ttFlag = new byte[1 << TT_BITS];
+    private final byte[] ttMove = new byte[1 << TT_BITS];
+
+    // 合法落子数不会超过格子数，每层按64分配
+    private final int[][] moveBuffer = new int[MAX_PLY][64];
+    private final int[][] keyBuffer = new int[MAX_PLY][64];
+
+    // 搜索用的私有局面副本：own为当前行棋方
+    private long own;
+    private long opp;
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+
+    public ReversiBot() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    public ReversiBot(long timeBudgetMillis) {
+        this(timeBudgetMillis, OpeningBook.shared());
+    }
+
+    public ReversiBot(long timeBudgetMillis, OpeningBook book) {
+        this.timeBudgetNanos = timeBudgetMillis * 1000000L;
+        this.book = book;
+    }
+
+    // 搜索结果的来源：迭代加深搜索、开局库或终局精确求解
+    public enum Source {
+        SEARCH, BOOK, ENDGAME
+    }
+
+    // 搜索结果：落子位置（-1表示只能Pass）、分数、完成的深度和节点统计；来自开局库时深度和节点数为0，
+    // 来自终局求解时深度为空格数，分数为精确的最终子数差乘以FINAL_SCALE
+    public static class SearchResult {
+        private final int square;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+        private final Source source;
+
+        public SearchResult(int square, int score, int depth, long nodes, long elapsedNanos) {
+            this(square, score, depth, nodes, elapsedNanos, Source.SEARCH);
+        }
+
+        public SearchResult(int square, int score, int depth, long nodes, long elapsedNanos, Source source) {
+            this.square = square;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.source = source;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        public boolean isFromBook() {
+            return source == Source.BOOK;
+        }
+
+        public boolean isSolved() {
+            return source == Source.ENDGAME;
+        }
+
+        // 终局求解得到的最终子数差（行棋方视角）
+        public int getFinalDiscDifference() {
+            return score / FINAL_SCALE;
+        }
+
+        public int getSquare() {
+            return square;
+        }
+
+        public int getRow() {
+            return square / ReversiBoard.REVERSI_SIZE;
+        }
+
+        public int getCol() {
+            return square % ReversiBoard.REVERSI_SIZE;
+        }
+
+        public boolean isPass() {
+            return square < 0;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+        }
+    }
+
+    // own为行棋方棋子，opp为对方棋子
+    public SearchResult search(long ownPieces, long oppPieces) {
+        long start = System.nanoTime();
+        own = ownPieces;
+        opp = oppPieces;
+        nodes = 0;
+        aborted = false;
+        deadline = start + timeBudgetNanos;
+
+        long moves = ReversiBoard.legalMoves(own, opp);
+        if (moves == 0) {
+            return new SearchResult(-1, 0, 0, 0, System.nanoTime() - start);
+        }
+        if (book != null) {
+            int square = book.bestMove(own, opp);
+            if (square >= 0 && (moves & (1L << square)) != 0) {
+                return new SearchResult(square, book.bestScore(own, opp), 0, 0, System.nanoTime() - start, Source.BOOK);
+            }
+        }
+
+        int empties = Long.bitCount(~(own | opp));
+        if (empties <= ENDGAME_EMPTIES) {
+            if (endgameSolver == null) {
+                endgameSolver = new ReversiEndgameSolver();
+            }
+            ReversiEndgameSolver.Result solved = endgameSolver.solve(own, opp, timeBudgetNanos / 2);
+            if (solved != null) {
+                return new SearchResult(solved.getSquare(), solved.getScore() * FINAL_SCALE, empties,
+                        solved.getNodes(), System.nanoTime() - start, Source.ENDGAME);
+            }
+            // 超时：在剩下的时间里照常搜索
+        }
+        int bestMove = Long.numberOfTrailingZeros(moves);
+        int bestScore = 0;
+        int reachedDepth = 0;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            int[] result = searchRoot(depth, bestMove);
+            if (aborted) {
+                break;
+            }
+            bestMove = result[0];
+            bestScore = result[1];
+            reachedDepth = depth;
+            // 已经搜到终局，继续加深没有意义
+            if (depth >= empties) {
+                break;
+            }
+        }
+        own = ownPieces;
+        opp = oppPieces;
+        return new SearchResult(bestMove, bestScore, reachedDepth, nodes, System.nanoTime() - start);
+    }
+
+    // 根节点搜索，上一轮的最佳走法排在最前面；返回{最佳走法, 分数}
+    private int[] searchRoot(int depth, int previousBest) {
+        nodes++;
+        int count = orderMoves(ReversiBoard.legalMoves(own, opp), previousBest, depth, 0);
+        int[] moves = moveBuffer[0];
+        int alpha = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            int square = moves[i];
+            long flipped = make(square);
+            int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+            unmake(square, flipped);
+            if (aborted) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = square;
+            }
+        }
+        return new int[]{bestMove, alpha};
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((nodes & 4095) == 0 && System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        long moves = ReversiBoard.legalMoves(own, opp);
+        if (moves == 0) {
+            if (ReversiBoard.legalMoves(opp, own) == 0) {
+                return finalScore();
+            }
+            // Pass：交换行棋方，深度不变
+            swapSides();
+            int score = -negamax(depth, -beta, -alpha, ply + 1);
+            swapSides();
+            return score;
+        }
+        if (depth == 0) {
+            return evaluate(moves);
+        }
+
+        int index = ttIndex(own, opp);
+        int hashMove = -1;
+        if (ttOwn[index] == own && ttOpp[index] == opp) {
+            hashMove = ttMove[index];
+            if (ttDepth[index] >= depth) {
+                int stored = ttScore[index];
+                byte flag = ttFlag[index];
+                if (flag == EXACT
+                        || (flag == LOWER && stored >= beta)
+                        || (flag == UPPER && stored <= alpha)) {
+                    return stored;
+                }
+            }
+        }
+
+        int alphaOrig = alpha;
+        int count = orderMoves(moves, hashMove, depth, ply);
+        int[] buffer = moveBuffer[ply];
+        int best = -INFINITY;
+        int bestMove = buffer[0];
+        for (int i = 0; i < count; i++) {
+            int square = buffer[i];
+            long flipped = make(square);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            unmake(square, flipped);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        ttOwn[index] = own;
+        ttOpp[index] = opp;
+        ttScore[index] = best;
+        ttDepth[index] = (byte) depth;
+        ttMove[index] = (byte) bestMove;
+        ttFlag[index] = best <= alphaOrig ? UPPER : (best >= beta ? LOWER : EXACT);
+        return best;
+    }
+
+    // 走法排序：优先走法 > 角 > 落子后对方行动力少；结果写入moveBuffer[ply]
+    private int orderMoves(long moves, int firstMove, int depth, int ply) {
+        int[] buffer = moveBuffer[ply];
+        int[] keys = keyBuffer[ply];
+        int count = 0;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            int key = 0;
+            if (square == firstMove) {
+                key += 1 << 20;
+            }
+            if (((1L << square) & CORNERS) != 0) {
+                key += 1 << 10;
+            }
+            if (depth >= MOBILITY_ORDER_DEPTH) {
+                long flipped = make(square);
+                key -= Long.bitCount(ReversiBoard.legalMoves(own, opp));
+                unmake(square, flipped);
+            }
+            // 插入排序，按key从大到小
+            int j = count++;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                buffer[j] = buffer[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            buffer[j] = square;
+        }
+        return count;
+    }
+
+    // 估值：行动力、角、子数差，均从当前行棋方的角度计算
+    private int evaluate(long ownMoves) {
+        int mobility = Long.bitCount(ownMoves) - Long.bitCount(ReversiBoard.legalMoves(opp, own));
+        int corners = Long.bitCount(own & CORNERS) - Long.bitCount(opp & CORNERS);
+        int discs = Long.bitCount(own) - Long.bitCount(opp);
+        return MOBILITY_WEIGHT * mobility + CORNER_WEIGHT * corners + DISC_WEIGHT * discs;
+    }
+
+    private int finalScore() {
+        return (Long.bitCount(own) - Long.bitCount(opp)) * FINAL_SCALE;
+    }
+
+    // 落子并交换行棋方，返回被翻转的掩码供撤销使用
+    private long make(int square) {
+        long flipped = ReversiBoard.flips(own, opp, square);
+        long mover = own | flipped | (1L << square);
+        own = opp & ~flipped;
+        opp = mover;
+        return flipped;
+    }
+
+    private void unmake(int square, long flipped) {
+        long mover = opp & ~(flipped | (1L << square));
+        opp = own | flipped;
+        own = mover;
+    }
+
+    private void swapSides() {
+        long tmp = own;
+        own = opp;
+        opp = tmp;
+    }
+
+    private static int ttIndex(long own, long opp) {
+        long h = own * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opp * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        return (int) h & TT_MASK;
+    }
+}
@@ -0,0 +1,614 @@
+package com.chess.ai;
+
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋终局精确求解：返回双方完美对弈下的最终子数差（行棋方视角，剩余空格归胜方）和最佳落子
+// 根节点先用窗口(-1,1)判断胜负和，再用零宽窗口二分出精确分数；内部是主变例搜索（PVS）+ 置换表，
+// 搜索子节点前先查子节点的置换表（ETC），alpha足够高时用对方的稳定子数截断；
+// 空格较多时按"落子后对方行动力最少"排序（fastest-first），空格较少时按奇偶性排序（空格数为奇数的象限优先），
+// 最后4个空格直接遍历空格，不生成走法掩码
+public class ReversiEndgameSolver {
+    private static final int INFINITY = 65;
+    // 不超过该空格数时改用遍历空格的专用代码
+    private static final int SMALL_EMPTIES = 4;
+    // 超过该空格数时使用fastest-first排序，否则只按奇偶性排序
+    private static final int FASTEST_FIRST_EMPTIES = 6;
+    // 不少于该空格数时使用置换表
+    private static final int TT_EMPTIES = 8;
+    private static final int TT_BITS = 20;
+    private static final int TT_MASK = (1 << TT_BITS) - 1;
+    // 不少于该空格数时先查子节点的置换表（ETC），子节点空格数须不少于TT_EMPTIES
+    private static final int ETC_EMPTIES = TT_EMPTIES + 2;
+    private static final long CORNERS = 0x8100000000000081L;
+    // 稳定子判断用：横向两端的列、纵向两端的行、斜向的整圈边
+    private static final long EDGE_COLUMNS = 0x8181818181818181L;
+    private static final long EDGE_ROWS = 0xFF000000000000FFL;
+    private static final long BORDER = EDGE_COLUMNS | EDGE_ROWS;
+    // 每个格子所在的横、竖和两条斜线
+    private static final long[][] LINES = new long[4][64];
+    // 每个格子周围的8个格子
+    private static final long[] NEIGHBOURS = new long[64];
+    // solve4中去掉第i个空格后剩下的3个空格
+    private static final int[][] OTHER_SQUARES = {{1, 2, 3}, {0, 2, 3}, {0, 1, 3}, {0, 1, 2}};
+    // 四个象限（左上、右上、左下、右下）
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            NEIGHBOURS[square] = neighbours(1L << square);
+            for (int other = 0; other < 64; other++) {
+                int r = other / 8;
+                int c = other % 8;
+                long bit = 1L << other;
+                if (r == row) {
+                    LINES[0][square] |= bit;
+                }
+                if (c == col) {
+                    LINES[1][square] |= bit;
+                }
+                if (r - c == row - col) {
+                    LINES[2][square] |= bit;
+                }
+                if (r + c == row + col) {
+                    LINES[3][square] |= bit;
+                }
+            }
+        }
+    }
+
+    private final long[] ttOwn = new long[1 << TT_BITS];
+    private final long[] ttOpp = new long[1 << TT_BITS];
+    private final byte[] ttLower = new byte[1 << TT_BITS];
+    private final byte[] ttUpper = new byte[1 << TT_BITS];
+    private final byte[] ttMove = new byte[1 << TT_BITS];
+
+    // 按空格数分配的走法缓冲区（Pass后空格数不变，但此时上一层的缓冲区已不再使用）
+    // 合法落子数可能超过32（实际对局中可达33），每层按格子数64分配
+    private final int[][] moveBuffer = new int[65][64];
+    private final int[][] keyBuffer = new int[65][64];
+    // fastest-first排序时已算出的落子后对方的合法落子，传给子节点避免重复生成
+    private final long[][] replyBuffer = new long[65][64];
+    private final int[] smallSquares = new int[SMALL_EMPTIES];
+
+    private long nodes;
+    private int rootMove;
+    private long deadline;
+    private boolean aborted;
+
+    // 求解结果：落子位置（-1表示只能Pass）、子数差、节点数和耗时
+    public static class Result {
+        private final int square;
+        private final int score;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        Result(int square, int score, long nodes, long elapsedNanos) {
+            this.square = square;
+            this.score = score;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getSquare() {
+            return square;
+        }
+
+        public int getRow() {
+            return square / 8;
+        }
+
+        public int getCol() {
+            return square % 8;
+        }
+
+        public boolean isPass() {
+            return square < 0;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+        }
+    }
+
+    public static int empties(long own, long opp) {
+        return 64 - Long.bitCount(own | opp);
+    }
+
+    public Result solve(long own, long opp) {
+        return solve(own, opp, Long.MAX_VALUE);
+    }
+
+    // 在时间预算内求解，超时返回null；own为行棋方棋子
+    public Result solve(long own, long opp, long timeBudgetNanos) {
+        long start = System.nanoTime();
+        nodes = 0;
+        aborted = false;
+        deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + timeBudgetNanos;
+
+        long moves = ReversiBoard.legalMoves(own, opp);
+        if (moves == 0) {
+            int score = ReversiBoard.legalMoves(opp, own) == 0
+                    ? finalScore(own, opp)
+                    : -search(opp, own, -INFINITY, INFINITY);
+            return aborted ? null : new Result(-1, score, nodes, System.nanoTime() - start);
+        }
+        // 先用窗口(-1,1)判断胜、负、和，再在已知的一侧用零宽窗口二分出精确分数；各次搜索共用置换表
+        rootMove = -1;
+        int score = searchRoot(own, opp, moves, -1, 1);
+        int lower = score >= 1 ? score : (score == 0 ? 0 : -64);
+        int upper = score <= -1 ? score : (score == 0 ? 0 : 64);
+        int bestMove = rootMove;
+        while (lower < upper && !aborted) {
+            int guess = (lower + upper + 1) >> 1;
+            score = searchRoot(own, opp, moves, guess - 1, guess);
+            if (score >= guess) {
+                lower = score;
+                bestMove = rootMove;
+            } else {
+                upper = score;
+                rootMove = bestMove;
+            }
+        }
+        if (aborted) {
+            return null;
+        }
+        return new Result(bestMove, lower, nodes, System.nanoTime() - start);
+    }
+
+    // 根节点搜索，最佳落子写入rootMove，上一次的rootMove最先搜索
+    private int searchRoot(long own, long opp, long moves, int alpha, int beta) {
+        int empties = empties(own, opp);
+        int count = orderMoves(own, opp, moves, empties, rootMove);
+        int[] buffer = moveBuffer[empties];
+        int best = -INFINITY;
+        int bestMove = buffer[0];
+        for (int i = 0; i < count; i++) {
+            int square = buffer[i];
+            long flipped = ReversiBoard.flips(own, opp, square);
+            long nextOwn = opp & ~flipped;
+            long nextOpp = own | flipped | (1L << square);
+            int score;
+            if (i == 0) {
+                score = -search(nextOwn, nextOpp, -beta, -alpha);
+            } else {
+                score = -search(nextOwn, nextOpp, -alpha - 1, -alpha);
+                if (score > alpha && score < beta && !aborted) {
+                    score = -search(nextOwn, nextOpp, -beta, -score);
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        rootMove = bestMove;
+        return best;
+    }
+
+    private int search(long own, long opp, int alpha, int beta) {
+        int empties = empties(own, opp);
+        if (empties <= SMALL_EMPTIES) {
+            return searchSmall(own, opp, alpha, beta, empties);
+        }
+        return search(own, opp, alpha, beta, empties, ReversiBoard.legalMoves(own, opp));
+    }
+
+    // moves为行棋方的合法落子
+    private int search(long own, long opp, int alpha, int beta, int empties, long moves) {
+        nodes++;
+        if ((nodes & 4095) == 0 && System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        if (moves == 0) {
+            long opponentMoves = ReversiBoard.legalMoves(opp, own);
+            if (opponentMoves == 0) {
+                return finalScore(own, opp);
+            }
+            return -search(opp, own, -beta, -alpha, empties, opponentMoves);
+        }
+
+        // 稳定子截断：对方的稳定子不会再被翻转，行棋方最多得64-2*稳定子数
+        // 对方全部棋子都稳定也截不断时，不必计算稳定子
+        if (alpha >= 64 - 2 * Long.bitCount(opp)) {
+            int upper = 64 - 2 * Long.bitCount(stableDiscs(opp, own));
+            if (upper <= alpha) {
+                return upper;
+            }
+        }
+
+        int index = -1;
+        int hashMove = -1;
+        if (empties >= TT_EMPTIES) {
+            index = ttIndex(own, opp);
+            if (ttOwn[index] == own && ttOpp[index] == opp) {
+                int lower = ttLower[index];
+                int upper = ttUpper[index];
+                if (lower >= beta) {
+                    return lower;
+                }
+                if (upper <= alpha) {
+                    return upper;
+                }
+                if (lower == upper) {
+                    return lower;
+                }
+                alpha = Math.max(alpha, lower);
+                beta = Math.min(beta, upper);
+                hashMove = ttMove[index];
+            }
+        }
+
+        // 增强置换表截断（ETC）：搜索前先查各子节点的置换表，子节点的上界已足以让本节点达到beta时直接返回
+        if (empties >= ETC_EMPTIES) {
+            long remaining = moves;
+            while (remaining != 0) {
+                int square = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                long flipped = ReversiBoard.flips(own, opp, square);
+                long childOwn = opp & ~flipped;
+                long childOpp = own | flipped | (1L << square);
+                int child = ttIndex(childOwn, childOpp);
+                if (ttOwn[child] == childOwn && ttOpp[child] == childOpp && -ttUpper[child] >= beta) {
+                    return -ttUpper[child];
+                }
+            }
+        }
+
+        int alphaOrig = alpha;
+        int count = orderMoves(own, opp, moves, empties, hashMove);
+        int[] buffer = moveBuffer[empties];
+        long[] replies = replyBuffer[empties];
+        boolean repliesKnown = empties > FASTEST_FIRST_EMPTIES;
+        int best = -INFINITY;
+        int bestMove = buffer[0];
+        for (int i = 0; i < count; i++) {
+            int square = buffer[i];
+            long flipped = ReversiBoard.flips(own, opp, square);
+            long nextOwn = opp & ~flipped;
+            long nextOpp = own | flipped | (1L << square);
+            int score;
+            if (repliesKnown) {
+                // 子节点空格数为empties-1，一定大于SMALL_EMPTIES
+                long reply = replies[i];
+                if (i == 0) {
+                    score = -search(nextOwn, nextOpp, -beta, -alpha, empties - 1, reply);
+                } else {
+                    score = -search(nextOwn, nextOpp, -alpha - 1, -alpha, empties - 1, reply);
+                    if (score > alpha && score < beta && !aborted) {
+                        score = -search(nextOwn, nextOpp, -beta, -score, empties - 1, reply);
+                    }
+                }
+            } else if (i == 0) {
+                score = -search(nextOwn, nextOpp, -beta, -alpha);
+            } else {
+                score = -search(nextOwn, nextOpp, -alpha - 1, -alpha);
+                if (score > alpha && score < beta && !aborted) {
+                    score = -search(nextOwn, nextOpp, -beta, -score);
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = square;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (index >= 0) {
+            if (ttOwn[index] != own || ttOpp[index] != opp) {
+                ttOwn[index] = own;
+                ttOpp[index] = opp;
+                ttLower[index] = -64;
+                ttUpper[index] = 64;
+            }
+            if (best > alphaOrig) {
+                ttLower[index] = (byte) Math.max(ttLower[index], best);
+            }
+            if (best < beta) {
+                ttUpper[index] = (byte) Math.min(ttUpper[index], best);
+            }
+            ttMove[index] = (byte) bestMove;
+        }
+        return best;
+    }
+
+    // 走法排序，结果写入moveBuffer[empties]：
+    // 置换表走法最先；空格多时按落子后对方行动力从少到多，角优先；奇数象限优先
+    private int orderMoves(long own, long opp, long moves, int empties, int hashMove) {
+        int[] buffer = moveBuffer[empties];
+        int[] keys = keyBuffer[empties];
+        long[] replies = replyBuffer[empties];
+        long empty = ~(own | opp);
+        int oddQuadrants = 0;
+        for (int q = 0; q < QUADRANTS.length; q++) {
+            if ((Long.bitCount(empty & QUADRANTS[q]) & 1) != 0) {
+                oddQuadrants |= 1 << q;
+            }
+        }
+        int count = 0;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long bit = 1L << square;
+            int key = 0;
+            long reply = 0;
+            if (square == hashMove) {
+                key -= 1 << 20;
+            }
+            if ((oddQuadrants & (1 << quadrant(square))) == 0) {
+                key += 1;
+            }
+            if (empties > FASTEST_FIRST_EMPTIES) {
+                long flipped = ReversiBoard.flips(own, opp, square);
+                long nextOwn = opp & ~flipped;
+                long nextOpp = own | flipped | bit;
+                reply = ReversiBoard.legalMoves(nextOwn, nextOpp);
+                key += (Long.bitCount(reply) + Long.bitCount(reply & CORNERS)) << 4;
+                if ((bit & CORNERS) != 0) {
+                    key -= 1 << 3;
+                }
+                // 子节点已在置换表中时（之前的零宽窗口搜索留下的），按它的上下界调整：对方得分越低越先搜
+                if (empties > TT_EMPTIES) {
+                    int child = ttIndex(nextOwn, nextOpp);
+                    if (ttOwn[child] == nextOwn && ttOpp[child] == nextOpp) {
+                        key += (ttUpper[child] + ttLower[child]) << 4;
+                    }
+                }
+            }
+            // 插入排序，按key从小到大
+            int j = count++;
+            while (j > 0 && keys[j - 1] > key) {
+                keys[j] = keys[j - 1];
+                buffer[j] = buffer[j - 1];
+                replies[j] = replies[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            buffer[j] = square;
+            replies[j] = reply;
+        }
+        return count;
+    }
+
+    // ---- 最后几个空格：直接遍历空格 ----
+
+    private int searchSmall(long own, long opp, int alpha, int beta, int empties) {
+        int[] squares = smallSquares;
+        long empty = ~(own | opp);
+        // 奇数象限中的空格排在前面
+        int count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int q = 0; q < QUADRANTS.length; q++) {
+                long inQuadrant = empty & QUADRANTS[q];
+                boolean odd = (Long.bitCount(inQuadrant) & 1) != 0;
+                if (odd == (pass == 0)) {
+                    while (inQuadrant != 0) {
+                        squares[count++] = Long.numberOfTrailingZeros(inQuadrant);
+                        inQuadrant &= inQuadrant - 1;
+                    }
+                }
+            }
+        }
+        switch (empties) {
+            case 4:
+                return solve4(own, opp, alpha, beta, false);
+            case 3:
+                return solve3(own, opp, alpha, beta, squares[0], squares[1], squares[2], false);
+            case 2:
+                return solve2(own, opp, alpha, beta, squares[0], squares[1], false);
+            case 1:
+                return lastMove(own, opp, squares[0]);
+            default:
+                nodes++;
+                return finalScore(own, opp);
+        }
+    }
+
+    // 以下各层的空格直接作为参数传递，保持奇偶排序后的顺序；passed表示上一步是Pass
+    // 落子前先看周围有没有对方棋子，没有就一定不能下，省去计算翻转
+
+    // smallSquares中是4个空格
+    private int solve4(long own, long opp, int alpha, int beta, boolean passed) {
+        nodes++;
+        int[] squares = smallSquares;
+        int best = -INFINITY;
+        for (int i = 0; i < 4; i++) {
+            int square = squares[i];
+            long flipped;
+            if ((NEIGHBOURS[square] & opp) == 0 || (flipped = ReversiBoard.flips(own, opp, square)) == 0) {
+                continue;
+            }
+            int[] others = OTHER_SQUARES[i];
+            int score = -solve3(opp & ~flipped, own | flipped | (1L << square), -beta, -Math.max(alpha, best),
+                    squares[others[0]], squares[others[1]], squares[others[2]], false);
+            if (score > best) {
+                best = score;
+                if (best >= beta) {
+                    return best;
+                }
+            }
+        }
+        if (best == -INFINITY) {
+            if (passed) {
+                return finalScore(own, opp);
+            }
+            return -solve4(opp, own, -beta, -alpha, true);
+        }
+        return best;
+    }
+
+    private int solve3(long own, long opp, int alpha, int beta, int x1, int x2, int x3, boolean passed) {
+        nodes++;
+        int best = -INFINITY;
+        long flipped;
+        if ((NEIGHBOURS[x1] & opp) != 0 && (flipped = ReversiBoard.flips(own, opp, x1)) != 0) {
+            best = -solve2(opp & ~flipped, own | flipped | (1L << x1), -beta, -alpha, x2, x3, false);
+            if (best >= beta) {
+                return best;
+            }
+        }
+        if ((NEIGHBOURS[x2] & opp) != 0 && (flipped = ReversiBoard.flips(own, opp, x2)) != 0) {
+            int score = -solve2(opp & ~flipped, own | flipped | (1L << x2), -beta, -Math.max(alpha, best),
+                    x1, x3, false);
+            if (score > best) {
+                best = score;
+                if (best >= beta) {
+                    return best;
+                }
+            }
+        }
+        if ((NEIGHBOURS[x3] & opp) != 0 && (flipped = ReversiBoard.flips(own, opp, x3)) != 0) {
+            int score = -solve2(opp & ~flipped, own | flipped | (1L << x3), -beta, -Math.max(alpha, best),
+                    x1, x2, false);
+            if (score > best) {
+                best = score;
+            }
+        }
+        if (best == -INFINITY) {
+            if (passed) {
+                return finalScore(own, opp);
+            }
+            return -solve3(opp, own, -beta, -alpha, x1, x2, x3, true);
+        }
+        return best;
+    }
+
+    private int solve2(long own, long opp, int alpha, int beta, int x1, int x2, boolean passed) {
+        nodes++;
+        int best = -INFINITY;
+        long flipped;
+        if ((NEIGHBOURS[x1] & opp) != 0 && (flipped = ReversiBoard.flips(own, opp, x1)) != 0) {
+            best = -lastMove(opp & ~flipped, own | flipped | (1L << x1), x2);
+            if (best >= beta) {
+                return best;
+            }
+        }
+        if ((NEIGHBOURS[x2] & opp) != 0 && (flipped = ReversiBoard.flips(own, opp, x2)) != 0) {
+            int score = -lastMove(opp & ~flipped, own | flipped | (1L << x2), x1);
+            if (score > best) {
+                best = score;
+            }
+        }
+        if (best == -INFINITY) {
+            if (passed) {
+                return finalScore(own, opp);
+            }
+            return -solve2(opp, own, -beta, -alpha, x1, x2, true);
+        }
+        return best;
+    }
+
+    // 只剩一个空格：行棋方能下就下，否则对方下，都不能下则对局结束
+    private int lastMove(long own, long opp, int square) {
+        nodes++;
+        int ownCount = Long.bitCount(own);
+        int oppCount = Long.bitCount(opp);
+        int flipped = (NEIGHBOURS[square] & opp) == 0 ? 0 : Long.bitCount(ReversiBoard.flips(own, opp, square));
+        if (flipped > 0) {
+            return (ownCount + flipped + 1) - (oppCount - flipped);
+        }
+        flipped = (NEIGHBOURS[square] & own) == 0 ? 0 : Long.bitCount(ReversiBoard.flips(opp, own, square));
+        if (flipped > 0) {
+            return (ownCount - flipped) - (oppCount + flipped + 1);
+        }
+        int difference = ownCount - oppCount;
+        return difference > 0 ? difference + 1 : (difference < 0 ? difference - 1 : 0);
+    }
+
+    // 稳定子：在任何后续走法下都不会被翻转的棋子
+    // 四个方向上都满足"整条线已下满，或一侧是棋盘边缘或己方稳定子"的棋子是稳定的，反复扩展直到不再变化
+    static long stableDiscs(long own, long opp) {
+        long empty = ~(own | opp);
+        long open0 = 0;
+        long open1 = 0;
+        long open2 = 0;
+        long open3 = 0;
+        while (empty != 0) {
+            int square = Long.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+            open0 |= LINES[0][square];
+            open1 |= LINES[1][square];
+            open2 |= LINES[2][square];
+            open3 |= LINES[3][square];
+        }
+        // 移位越过行边界的位只落在边缘格子上，而边缘格子在对应方向上本来就算稳定
+        long horizontal = ~open0 | EDGE_COLUMNS;
+        long vertical = ~open1 | EDGE_ROWS;
+        long diagonal = ~open2 | BORDER;
+        long antiDiagonal = ~open3 | BORDER;
+        long stable = own & horizontal & vertical & diagonal & antiDiagonal;
+        while (true) {
+            long next = stable | (own
+                    & (horizontal | stable << 1 | stable >>> 1)
+                    & (vertical | stable << 8 | stable >>> 8)
+                    & (diagonal | stable << 9 | stable >>> 9)
+                    & (antiDiagonal | stable << 7 | stable >>> 7));
+            if (next == stable) {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+
+    // 终局子数差，剩余空格归胜方
+    private static int finalScore(long own, long opp) {
+        int ownCount = Long.bitCount(own);
+        int oppCount = Long.bitCount(opp);
+        int difference = ownCount - oppCount;
+        int empties = 64 - ownCount - oppCount;
+        return difference > 0 ? difference + empties : (difference < 0 ? difference - empties : 0);
+    }
+
+    // 与discs中任一棋子相邻的格子
+    private static long neighbours(long discs) {
+        long h = (discs << 1 & 0xFEFEFEFEFEFEFEFEL) | (discs >>> 1 & 0x7F7F7F7F7F7F7F7FL);
+        long row = discs | h;
+        return h | row << 8 | row >>> 8;
+    }
+
+    private static int quadrant(int square) {
+        return ((square >>> 5) & 1) * 2 + ((square >>> 2) & 1);
+    }
+
+    private static int ttIndex(long own, long opp) {
+        long h = own * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(opp * 0xC2B2AE3D27D4EB4FL, 31);
+        h ^= h >>> 29;
+        return (int) h & TT_MASK;
+    }
+}
@@ -0,0 +1,473 @@
+package com.chess.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.chess.entity.Board;
+import com.chess.entity.BoardStats;
+import com.chess.entity.Piece;
+
+// 无界面的规则引擎（和平模式规则）：不读输入、不打印，所有操作返回结果码
+// 一局游戏包含若干棋盘，双方共用同一个行棋方，落子作用于当前棋盘
+// 棋盘在第一次被选中时才创建，未选中过的棋盘视为开局局面，不占内存
+public class GameEngine {
+    private static final Piece[] PIECES = Piece.values();
+    private static final GameStatus[] STATUSES = GameStatus.values();
+    // 局面中每格棋子占用的位数（棋子共5种）
+    private static final int CELL_BITS = 3;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+    // 已创建的棋盘，下标为棋盘序号；数组按需增长，未创建的为null
+    protected Board[] boards;
+    private final int boardCount;
+    private int createdBoards;
+    protected int currentBoardIndex;
+    protected Piece sideToMove;
+    protected GameStatus status;
+    protected Piece winner;
+
+    // 已执行的操作、所在棋盘、改动记录的起点以及操作前子类的附加状态
+    // 撤销时按相反顺序还原该操作改动过的格子，耗时与改动的格子数成正比，不需要复制或重放棋盘
+    private Move[] historyMoves = new Move[64];
+    private int[] historyBoards = new int[64];
+    private int[] historyChangeStarts = new int[64];
+    private long[] historyUndoStates = new long[64];
+    private int historySize;
+    // 格子改动记录：棋盘序号 << 32 | 格子（row*size+col）<< 8 | 原来的棋子序号
+    private long[] changes = new long[256];
+    private int changeCount;
+    // 只在执行操作期间记录改动（setPiece在操作之外调用时不入栈）
+    private boolean recording;
+    // 撤销后可以重做的操作及其所在棋盘，最后撤销的在最后；执行新的操作时清空
+    private Move[] redoMoves = new Move[16];
+    private int[] redoBoards = new int[16];
+    private int redoSize;
+
+    public GameEngine(int boardCount) {
+        if (boardCount < 1) {
+            throw new IllegalArgumentException("棋盘数量至少为1：" + boardCount);
+        }
+        this.boardCount = boardCount;
+        reset();
+    }
+
+    // 回到开局：丢弃所有棋盘，只重新创建第一个棋盘
+    // 注意：构造函数中会调用该方法，子类的状态字段不要写初始值，统一在这里赋值
+    protected void reset() {
+        boards = new Board[1];
+        createdBoards = 0;
+        sideToMove = Piece.BLACK;
+        currentBoardIndex = 0;
+        ensureBoard(0);
+        status = GameStatus.IN_PROGRESS;
+        winner = null;
+    }
+
+    // 创建尚未创建的棋盘并摆好初始局面
+    private Board ensureBoard(int index) {
+        if (index >= boards.length) {
+            boards = Arrays.copyOf(boards, Math.min(boardCount, Math.max(index + 1, boards.length * 2)));
+        }
+        Board board = boards[index];
+        if (board == null) {
+            board = createBoard();
+            setupBoard(index, board);
+            // 新棋盘的哈希中默认轮到黑方
+            if (sideToMove != Piece.BLACK) {
+                board.switchSideToMove();
+            }
+            boards[index] = board;
+            createdBoards++;
+        }
+        return board;
+    }
+
+    protected Board createBoard() {
+        return new Board(true);
+    }
+
+    // 放置初始的中间的四个棋子
+    protected void setupBoard(int index, Board board) {
+        int middle = board.getSize() / 2;
+        board.placePiece(middle - 1, middle - 1, Piece.WHITE, false);
+        board.placePiece(middle, middle, Piece.WHITE, false);
+        board.placePiece(middle - 1, middle, Piece.BLACK, false);
+        board.placePiece(middle, middle - 1, Piece.BLACK, false);
+    }
+
+    // 执行一步操作；成功后切换行棋方并更新对局状态
+    public MoveResult apply(Move move) {
+        if (status != GameStatus.IN_PROGRESS) {
+            return MoveResult.GAME_OVER;
+        }
+        MoveResult result = validate(move);
+        if (result != MoveResult.OK) {
+            return result;
+        }
+        perform(move);
+        redoSize = 0;
+        return MoveResult.OK;
+    }
+
+    // 执行已经校验过的操作，并记录撤销所需的信息
+    private void perform(Move move) {
+        record(move);
+        recording = true;
+        try {
+            play(move);
+        } finally {
+            recording = false;
+        }
+        switchSide();
+        checkGameEnd();
+    }
+
+    // 撤销最后一步：还原改动过的格子、行棋方、所在棋盘和子类的附加状态
+    // 也可以作为搜索中的落子/撤销原语：apply之后undo即回到原局面，不需要复制棋盘
+    public MoveResult undo() {
+        if (historySize == 0) {
+            return MoveResult.NOTHING_TO_UNDO;
+        }
+        int last = --historySize;
+        int start = historyChangeStarts[last];
+        for (int i = changeCount - 1; i >= start; i--) {
+            long change = changes[i];
+            Board board = boards[(int) (change >>> 32)];
+            int square = (int) change >>> 8;
+            board.placePiece(square / board.getSize(), square % board.getSize(), PIECES[(int) change & 0xFF], true);
+        }
+        changeCount = start;
+        switchSide();
+        currentBoardIndex = historyBoards[last];
+        // 只有进行中的对局才能执行操作，所以操作前一定是进行中
+        status = GameStatus.IN_PROGRESS;
+        winner = null;
+        restoreUndoState(historyUndoStates[last]);
+        pushRedo(historyMoves[last], historyBoards[last]);
+        historyMoves[last] = null;
+        return MoveResult.OK;
+    }
+
+    // 重新执行最近撤销的一步（回到该操作所在的棋盘）
+    public MoveResult redo() {
+        if (redoSize == 0) {
+            return MoveResult.NOTHING_TO_REDO;
+        }
+        Move move = redoMoves[redoSize - 1];
+        int boardIndex = redoBoards[redoSize - 1];
+        if (boardIndex != currentBoardIndex) {
+            selectBoard(boardIndex);
+        }
+        if (status != GameStatus.IN_PROGRESS) {
+            return MoveResult.GAME_OVER;
+        }
+        MoveResult result = validate(move);
+        if (result != MoveResult.OK) {
+            return result;
+        }
+        redoSize--;
+        redoMoves[redoSize] = null;
+        perform(move);
+        return MoveResult.OK;
+    }
+
+    private void pushRedo(Move move, int boardIndex) {
+        if (redoSize == redoMoves.length) {
+            redoMoves = Arrays.copyOf(redoMoves, redoSize * 2);
+            redoBoards = Arrays.copyOf(redoBoards, redoSize * 2);
+        }
+        redoMoves[redoSize] = move;
+        redoBoards[redoSize] = boardIndex;
+        redoSize++;
+    }
+
+    // 改动当前棋盘上的一个格子；执行操作期间记录原来的棋子，撤销时还原
+    // 子类在play中都应通过它修改棋盘
+    protected void setPiece(int row, int col, Piece piece, boolean isFliped) {
+        Board board = board();
+        if (recording) {
+            if (changeCount == changes.length) {
+                changes = Arrays.copyOf(changes, changeCount * 2);
+            }
+            changes[changeCount++] = (long) currentBoardIndex << 32
+                    | (row * board.getSize() + col) << 8
+                    | board.getPiece(row, col).ordinal();
+        }
+        board.placePiece(row, col, piece, isFliped);
+    }
+
+    public MoveResult selectBoard(int index) {
+        if (index < 0 || index >= boardCount) {
+            return MoveResult.INVALID_BOARD;
+        }
+        ensureBoard(index);
+        currentBoardIndex = index;
+        checkGameEnd();
+        return MoveResult.OK;
+    }
+
+    // 当前棋盘上行棋方的所有合法操作，写入out（先清空）
+    public void legalMoves(List<Move> out) {
+        out.clear();
+        if (status != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        // 直接遍历维护好的空格列表，不扫描棋盘
+        Board board = board();
+        BoardStats stats = board.getStats();
+        int size = board.getSize();
+        for (int i = 0; i < stats.getEmptyCount(); i++) {
+            int square = stats.emptySquare(i);
+            out.add(Move.place(square / size, square % size));
+        }
+    }
+
+    public List<Move> legalMoves() {
+        List<Move> moves = new ArrayList<>();
+        legalMoves(moves);
+        return moves;
+    }
+
+    protected MoveResult validate(Move move) {
+        if (move.isPass()) {
+            return MoveResult.PASS_NOT_SUPPORTED;
+        }
+        if (move.isBomb()) {
+            return MoveResult.BOMB_NOT_SUPPORTED;
+        }
+        if (!isWithinBoard(move.getRow(), move.getCol())) {
+            return MoveResult.OUT_OF_BOARD;
+        }
+        if (board().getPiece(move.getRow(), move.getCol()) != Piece.EMPTY) {
+            return MoveResult.OCCUPIED;
+        }
+        return MoveResult.OK;
+    }
+
+    protected void play(Move move) {
+        setPiece(move.getRow(), move.getCol(), sideToMove, false);
+    }
+
+    // 重新计算对局状态：和平模式在所有棋盘都下满时结束（未创建的棋盘一定没下满）
+    public GameStatus checkGameEnd() {
+        status = createdBoards < boardCount ? GameStatus.IN_PROGRESS : GameStatus.DRAW;
+        for (Board board : boards) {
+            if (board != null && board.getEmptyCount() > 0) {
+                status = GameStatus.IN_PROGRESS;
+                break;
+            }
+        }
+        return status;
+    }
+
+    protected void switchSide() {
+        sideToMove = opponent(sideToMove);
+        // 所有棋盘共用同一个行棋方，哈希需要一起更新
+        for (Board board : boards) {
+            if (board != null) {
+                board.switchSideToMove();
+            }
+        }
+    }
+
+    // 局面的二进制表示（不含历史）：棋盘数u16、当前棋盘u16、行棋方、状态、胜者、已创建的棋盘数u16，
+    // 随后每个已创建的棋盘为 [序号u16][按行存放的棋子序号，每格3位（低位在前，按字节对齐）]，最后是子类的附加状态
+    public void writeState(ByteBuffer out) {
+        out.putShort((short) boardCount)
+                .putShort((short) currentBoardIndex)
+                .put((byte) sideToMove.ordinal())
+                .put((byte) status.ordinal())
+                .put((byte) (winner == null ? -1 : winner.ordinal()))
+                .putShort((short) createdBoards);
+        for (int index = 0; index < boards.length; index++) {
+            Board board = boards[index];
+            if (board == null) {
+                continue;
+            }
+            out.putShort((short) index);
+            int size = board.getSize();
+            int bits = 0;
+            int bitCount = 0;
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    bits |= board.getPiece(i, j).ordinal() << bitCount;
+                    bitCount += CELL_BITS;
+                    if (bitCount >= 8) {
+                        out.put((byte) bits);
+                        bits >>>= 8;
+                        bitCount -= 8;
+                    }
+                }
+            }
+            if (bitCount > 0) {
+                out.put((byte) bits);
+            }
+        }
+        writeExtraState(out);
+    }
+
+    public int stateSize() {
+        int size = 9;
+        for (Board board : boards) {
+            if (board != null) {
+                size += 2 + (board.getSize() * board.getSize() * CELL_BITS + 7) / 8;
+            }
+        }
+        return size + extraStateSize();
+    }
+
+    // 从writeState的结果恢复局面；恢复后的局面成为撤销的起点
+    public void readState(ByteBuffer in) {
+        reset();
+        loadState(in);
+        clearHistory();
+    }
+
+    private void clearHistory() {
+        Arrays.fill(historyMoves, 0, historySize, null);
+        Arrays.fill(redoMoves, 0, redoSize, null);
+        historySize = 0;
+        changeCount = 0;
+        redoSize = 0;
+    }
+
+    private void loadState(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        if (count != boardCount) {
+            throw new IllegalArgumentException("棋盘数量不一致：局面中为" + count + "，引擎中为" + boardCount);
+        }
+        int current = in.getShort() & 0xFFFF;
+        Piece side = PIECES[in.get()];
+        status = STATUSES[in.get()];
+        int winnerCode = in.get();
+        winner = winnerCode < 0 ? null : PIECES[winnerCode];
+        int created = in.getShort() & 0xFFFF;
+        for (int b = 0; b < created; b++) {
+            int index = in.getShort() & 0xFFFF;
+            if (index >= boardCount) {
+                throw new IllegalArgumentException("无效的棋盘序号：" + index);
+            }
+            Board board = ensureBoard(index);
+            int size = board.getSize();
+            int bits = 0;
+            int bitCount = 0;
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (bitCount < CELL_BITS) {
+                        bits |= (in.get() & 0xFF) << bitCount;
+                        bitCount += 8;
+                    }
+                    int code = bits & CELL_MASK;
+                    if (code >= PIECES.length) {
+                        throw new IllegalArgumentException("无效的棋子编码：" + code);
+                    }
+                    board.placePiece(i, j, PIECES[code], true);
+                    bits >>>= CELL_BITS;
+                    bitCount -= CELL_BITS;
+                }
+            }
+        }
+        if (current >= boardCount) {
+            throw new IllegalArgumentException("无效的棋盘序号：" + current);
+        }
+        ensureBoard(current);
+        currentBoardIndex = current;
+        // reset后轮到黑方，通过switchSide同步所有棋盘哈希中的行棋方
+        if (side != sideToMove) {
+            switchSide();
+        }
+        readExtraState(in);
+    }
+
+    // 子类需要保存的额外状态（如五子棋的炸弹数）
+    protected void writeExtraState(ByteBuffer out) {
+    }
+
+    protected void readExtraState(ByteBuffer in) {
+    }
+
+    protected int extraStateSize() {
+        return 0;
+    }
+
+    // 子类需要随撤销恢复的少量状态（如五子棋的炸弹数），压缩在一个long中，在每步操作前保存
+    protected long saveUndoState() {
+        return 0;
+    }
+
+    protected void restoreUndoState(long saved) {
+    }
+
+    private void record(Move move) {
+        if (historySize == historyMoves.length) {
+            int capacity = historySize * 2;
+            historyMoves = Arrays.copyOf(historyMoves, capacity);
+            historyBoards = Arrays.copyOf(historyBoards, capacity);
+            historyChangeStarts = Arrays.copyOf(historyChangeStarts, capacity);
+            historyUndoStates = Arrays.copyOf(historyUndoStates, capacity);
+        }
+        historyMoves[historySize] = move;
+        historyBoards[historySize] = currentBoardIndex;
+        historyChangeStarts[historySize] = changeCount;
+        historyUndoStates[historySize] = saveUndoState();
+        historySize++;
+    }
+
+    protected boolean isWithinBoard(int row, int col) {
+        int size = board().getSize();
+        return row >= 0 && row < size && col >= 0 && col < size;
+    }
+
+    public static Piece opponent(Piece piece) {
+        return (piece == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+    }
+
+    public Board board() {
+        return boards[currentBoardIndex];
+    }
+
+    // 指定序号的棋盘；还没有被选中过时为null
+    public Board board(int index) {
+        return index < boards.length ? boards[index] : null;
+    }
+
+    // 可以选择的棋盘数量（包括还没有创建的）
+    public int boardCount() {
+        return boardCount;
+    }
+
+    public int createdBoardCount() {
+        return createdBoards;
+    }
+
+    public int currentBoardIndex() {
+        return currentBoardIndex;
+    }
+
+    public Piece sideToMove() {
+        return sideToMove;
+    }
+
+    public GameStatus status() {
+        return status;
+    }
+
+    // 获胜方的棋子颜色；对局未结束或平局时为null
+    public Piece winner() {
+        return winner;
+    }
+
+    public int moveCount() {
+        return historySize;
+    }
+
+    // 最后执行的一步，没有时为null
+    public Move lastMove() {
+        return historySize == 0 ? null : historyMoves[historySize - 1];
+    }
+
+    public int redoCount() {
+        return redoSize;
+    }
+}
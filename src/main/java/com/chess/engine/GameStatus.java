@@ -0,0 +1,7 @@
+package com.chess.engine;
+
+public enum GameStatus {
+    IN_PROGRESS,
+    WIN,
+    DRAW
+}
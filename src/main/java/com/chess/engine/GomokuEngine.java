@@ -0,0 +1,216 @@
+package com.chess.engine;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import com.chess.entity.Board;
+import com.chess.entity.GomokuBoard;
+import com.chess.entity.Piece;
+import com.chess.entity.WinningLine;
+
+// 五子棋规则引擎：障碍物、炸弹道具以及基于最后一手的胜负判断
+public class GomokuEngine extends GameEngine {
+    public static final int BLACK_BOMBS = 2;
+    public static final int WHITE_BOMBS = 3;
+    // 障碍物位置固定为3F、8G、9F、CK
+    static final String[] BLOCK_POSITIONS = {"3F", "8G", "9F", "CK"};
+
+    // 以下字段在reset中赋值（父类构造函数会调用reset）
+    private int currentRound;
+    private int blackBombs;
+    private int whiteBombs;
+    // 最后一手普通落子的位置，checkGameEnd只检查经过它的四条线
+    private int lastMoveRow;
+    private int lastMoveCol;
+    private WinningLine winningLine;
+
+    public GomokuEngine(int boardCount) {
+        super(boardCount);
+    }
+
+    @Override
+    protected void reset() {
+        super.reset();
+        currentRound = 1;
+        blackBombs = BLACK_BOMBS;
+        whiteBombs = WHITE_BOMBS;
+        lastMoveRow = -1;
+        lastMoveCol = -1;
+        winningLine = null;
+    }
+
+    @Override
+    protected Board createBoard() {
+        return new GomokuBoard(true);
+    }
+
+    // 只在第一个棋盘上添加障碍物
+    @Override
+    protected void setupBoard(int index, Board board) {
+        if (index != 0) {
+            return;
+        }
+        for (String position : BLOCK_POSITIONS) {
+            int row = GomokuBoard.parseRowLabel(position.substring(0, 1));
+            int col = GomokuBoard.parseColLabel(position.substring(1));
+            board.placePiece(row, col, Piece.BLOCK, true);
+        }
+    }
+
+    @Override
+    public void legalMoves(List<Move> out) {
+        out.clear();
+        if (status != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        Board board = board();
+        Piece opponent = opponent(sideToMove);
+        boolean canBomb = bombsLeft(sideToMove) > 0;
+        for (int i = 0; i < board.getSize(); i++) {
+            for (int j = 0; j < board.getSize(); j++) {
+                Piece piece = board.getPiece(i, j);
+                if (piece == Piece.EMPTY) {
+                    out.add(Move.place(i, j));
+                } else if (canBomb && piece == opponent) {
+                    out.add(Move.bomb(i, j));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected MoveResult validate(Move move) {
+        if (move.isPass()) {
+            return MoveResult.PASS_NOT_SUPPORTED;
+        }
+        if (move.isBomb() && bombsLeft(sideToMove) == 0) {
+            return MoveResult.NO_BOMBS_LEFT;
+        }
+        if (!isWithinBoard(move.getRow(), move.getCol())) {
+            return MoveResult.OUT_OF_BOARD;
+        }
+        Piece cell = board().getPiece(move.getRow(), move.getCol());
+        if (move.isBomb()) {
+            // 只能炸掉对方棋子，不能炸空、障碍物、弹坑、自己棋子
+            return (cell == opponent(sideToMove)) ? MoveResult.OK : MoveResult.NOT_OPPONENT_PIECE;
+        }
+        if (cell == Piece.BLOCK) {
+            return MoveResult.BLOCKED;
+        }
+        if (cell == Piece.CRATER) {
+            return MoveResult.CRATER;
+        }
+        if (cell != Piece.EMPTY) {
+            return MoveResult.OCCUPIED;
+        }
+        return MoveResult.OK;
+    }
+
+    @Override
+    protected void play(Move move) {
+        if (move.isBomb()) {
+            setPiece(move.getRow(), move.getCol(), Piece.CRATER, true);
+            if (sideToMove == Piece.BLACK) {
+                blackBombs--;
+            } else {
+                whiteBombs--;
+            }
+            return;
+        }
+        setPiece(move.getRow(), move.getCol(), sideToMove, false);
+        lastMoveRow = move.getRow();
+        lastMoveCol = move.getCol();
+        if (sideToMove == Piece.BLACK) {
+            currentRound++;
+        }
+    }
+
+    @Override
+    public GameStatus checkGameEnd() {
+        // 已经分出胜负的对局不会再恢复
+        if (winningLine != null) {
+            return status;
+        }
+        // 只有刚落下的棋子可能形成五子连珠（炸弹只会移除棋子）
+        if (lastMoveRow >= 0) {
+            winningLine = GomokuWinDetector.findWinningLine(board(), lastMoveRow, lastMoveCol);
+            lastMoveRow = -1;
+            lastMoveCol = -1;
+            if (winningLine != null) {
+                status = GameStatus.WIN;
+                winner = winningLine.getPiece();
+                return status;
+            }
+        }
+        // 检查棋盘是否已满
+        status = board().getEmptyCount() == 0 ? GameStatus.DRAW : GameStatus.IN_PROGRESS;
+        return status;
+    }
+
+    // 操作前的回合数和双方炸弹数；操作前的对局一定在进行中，最后一手的位置已在checkGameEnd中清除
+    @Override
+    protected long saveUndoState() {
+        return (long) currentRound << 16 | blackBombs << 8 | whiteBombs;
+    }
+
+    @Override
+    protected void restoreUndoState(long saved) {
+        currentRound = (int) (saved >>> 16);
+        blackBombs = (int) (saved >>> 8) & 0xFF;
+        whiteBombs = (int) saved & 0xFF;
+        lastMoveRow = -1;
+        lastMoveCol = -1;
+        winningLine = null;
+    }
+
+    @Override
+    protected void writeExtraState(ByteBuffer out) {
+        out.put((byte) blackBombs).put((byte) whiteBombs).putShort((short) currentRound);
+    }
+
+    @Override
+    protected void readExtraState(ByteBuffer in) {
+        blackBombs = in.get();
+        whiteBombs = in.get();
+        currentRound = in.getShort();
+        // 获胜连线不保存，在各棋盘上找出获胜方的五连
+        if (status == GameStatus.WIN) {
+            for (int b = 0; b < boards.length && winningLine == null; b++) {
+                if (boards[b] != null) {
+                    winningLine = findLine(boards[b], winner);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected int extraStateSize() {
+        return 4;
+    }
+
+    private static WinningLine findLine(Board board, Piece piece) {
+        for (int i = 0; i < board.getSize(); i++) {
+            for (int j = 0; j < board.getSize(); j++) {
+                if (board.getPiece(i, j) == piece) {
+                    WinningLine line = GomokuWinDetector.findWinningLine(board, i, j);
+                    if (line != null) {
+                        return line;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public int bombsLeft(Piece piece) {
+        return (piece == Piece.BLACK) ? blackBombs : whiteBombs;
+    }
+
+    public int currentRound() {
+        return currentRound;
+    }
+
+    // 获胜连线，没有人获胜时为null
+    public WinningLine winningLine() {
+        return winningLine;
+    }
+}
@@ -0,0 +1,79 @@
+package com.chess.engine;
+
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.entity.WinningLine;
+
+// 只检查经过最后一手棋的四条线，判断是否形成五子连珠
+public final class GomokuWinDetector {
+    public static final int WIN_LENGTH = 5;
+
+    // 水平、垂直、右下对角线、左下对角线
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private GomokuWinDetector() {
+    }
+
+    // 返回经过(row, col)的获胜连线，没有则返回null
+    public static WinningLine findWinningLine(Board board, int row, int col) {
+        Piece piece = board.getPiece(row, col);
+        if (piece != Piece.BLACK && piece != Piece.WHITE) {
+            return null;
+        }
+        for (int[] dir : DIRECTIONS) {
+            int backward = countSame(board, row, col, -dir[0], -dir[1], piece);
+            int forward = countSame(board, row, col, dir[0], dir[1], piece);
+            int length = backward + 1 + forward;
+            if (length >= WIN_LENGTH) {
+                int[][] cells = new int[length][];
+                for (int k = 0; k < length; k++) {
+                    int offset = k - backward;
+                    cells[k] = new int[]{row + offset * dir[0], col + offset * dir[1]};
+                }
+                return new WinningLine(piece, cells);
+            }
+        }
+        return null;
+    }
+
+    // 不构造连线对象，仅判断是否获胜（供搜索使用）
+    public static boolean isWinningMove(Board board, int row, int col) {
+        Piece piece = board.getPiece(row, col);
+        if (piece != Piece.BLACK && piece != Piece.WHITE) {
+            return false;
+        }
+        for (int[] dir : DIRECTIONS) {
+            int length = 1 + countSame(board, row, col, -dir[0], -dir[1], piece)
+                    + countSame(board, row, col, dir[0], dir[1], piece);
+            if (length >= WIN_LENGTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 假设piece落在(row, col)时，经过该点最长的同色连线长度（不要求该位置为空）
+    public static int longestLine(Board board, int row, int col, Piece piece) {
+        int longest = 0;
+        for (int[] dir : DIRECTIONS) {
+            int length = 1 + countSame(board, row, col, -dir[0], -dir[1], piece)
+                    + countSame(board, row, col, dir[0], dir[1], piece);
+            longest = Math.max(longest, length);
+        }
+        return longest;
+    }
+
+    // 沿一个方向统计连续同色棋子数（不含起点）
+    private static int countSame(Board board, int row, int col, int dRow, int dCol, Piece piece) {
+        int size = board.getSize();
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (r >= 0 && r < size && c >= 0 && c < size && board.getPiece(r, c) == piece) {
+            count++;
+            r += dRow;
+            c += dCol;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,393 @@
+package com.chess.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import com.chess.entity.GomokuBoard;
+import com.chess.entity.Piece;
+import com.chess.entity.SparseBoard;
+import com.chess.entity.WinningLine;
+
+// 通用的k子连珠引擎：棋盘为稀疏哈希表（SparseBoard），可以很大或没有边界
+// 可配置连珠长度和每回合落子数（六子棋：黑方第一回合1子，此后双方每回合2子），支持障碍物和炸弹
+// 炸弹占用一次落子机会，把对方棋子变为弹坑；胜负只检查经过刚落下棋子的四条线，每步的开销与棋盘大小无关
+// 用法（随机对局测速）：java -cp chess-game.jar com.chess.engine.KInARowEngine [局数] [棋盘大小，0为无边界] [连珠长度] [每回合子数]
+public class KInARowEngine {
+    public static final int UNBOUNDED = 0;
+
+    // 水平、垂直、右下对角线、左下对角线
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final Piece[] PIECES = Piece.values();
+
+    private final int winLength;
+    private final int firstTurnStones;
+    private final int stonesPerTurn;
+    private final int initialBlackBombs;
+    private final int initialWhiteBombs;
+    private final SparseBoard board;
+    // 候选落子去重用的临时表
+    private final SparseBoard marks = new SparseBoard(UNBOUNDED);
+
+    private Piece sideToMove = Piece.BLACK;
+    // 当前回合（从1开始，双方各算一个回合）以及本回合还可以落的子数
+    private int turn = 1;
+    private int stonesLeft;
+    private int blackBombs;
+    private int whiteBombs;
+    private GameStatus status = GameStatus.IN_PROGRESS;
+    private Piece winner;
+    private WinningLine winningLine;
+
+    // 撤销记录：每次落子或炸弹改动一个格子，记下格子、原来的棋子和操作前的回合状态
+    private Move[] historyMoves = new Move[64];
+    private long[] historyKeys = new long[64];
+    private byte[] historyPieces = new byte[64];
+    private long[] historyStates = new long[64];
+    private int historySize;
+
+    public KInARowEngine(int size, int winLength, int firstTurnStones, int stonesPerTurn,
+                         int blackBombs, int whiteBombs) {
+        // 每回合子数和炸弹数在撤销记录中各占一个字节
+        if (winLength < 2 || firstTurnStones < 1 || firstTurnStones > 255 || stonesPerTurn < 1
+                || stonesPerTurn > 255 || blackBombs < 0 || blackBombs > 255 || whiteBombs < 0 || whiteBombs > 255) {
+            throw new IllegalArgumentException("无效的规则参数");
+        }
+        this.board = new SparseBoard(size);
+        this.winLength = winLength;
+        this.firstTurnStones = firstTurnStones;
+        this.stonesPerTurn = stonesPerTurn;
+        this.initialBlackBombs = blackBombs;
+        this.initialWhiteBombs = whiteBombs;
+        this.stonesLeft = firstTurnStones;
+        this.blackBombs = blackBombs;
+        this.whiteBombs = whiteBombs;
+    }
+
+    // 与GomokuEngine相同的规则：15x15、五子连珠、固定的障碍物、黑方2个白方3个炸弹
+    public static KInARowEngine gomoku() {
+        KInARowEngine engine = new KInARowEngine(GomokuBoard.GOMOKU_SIZE, GomokuWinDetector.WIN_LENGTH, 1, 1,
+                GomokuEngine.BLACK_BOMBS, GomokuEngine.WHITE_BOMBS);
+        for (String position : GomokuEngine.BLOCK_POSITIONS) {
+            engine.addBlock(GomokuBoard.parseRowLabel(position.substring(0, 1)),
+                    GomokuBoard.parseColLabel(position.substring(1)));
+        }
+        return engine;
+    }
+
+    // 六子棋：黑方第一回合1子，此后每回合2子，六子连珠获胜，没有炸弹
+    public static KInARowEngine connect6(int size) {
+        return new KInARowEngine(size, 6, 1, 2, 0, 0);
+    }
+
+    // 开局前添加障碍物
+    public void addBlock(int row, int col) {
+        if (historySize > 0) {
+            throw new IllegalStateException("只能在开局前添加障碍物");
+        }
+        if (!board.isWithinBoard(row, col)) {
+            throw new IllegalArgumentException("障碍物超出棋盘范围: " + row + "," + col);
+        }
+        board.placePiece(row, col, Piece.BLOCK);
+    }
+
+    public MoveResult apply(Move move) {
+        if (status != GameStatus.IN_PROGRESS) {
+            return MoveResult.GAME_OVER;
+        }
+        MoveResult result = validate(move);
+        if (result != MoveResult.OK) {
+            return result;
+        }
+        int row = move.getRow();
+        int col = move.getCol();
+        record(move, row, col);
+        if (move.isBomb()) {
+            board.placePiece(row, col, Piece.CRATER);
+            if (sideToMove == Piece.BLACK) {
+                blackBombs--;
+            } else {
+                whiteBombs--;
+            }
+        } else {
+            board.placePiece(row, col, sideToMove);
+            winningLine = findWinningLine(row, col);
+            if (winningLine != null) {
+                status = GameStatus.WIN;
+                winner = sideToMove;
+                return MoveResult.OK;
+            }
+        }
+        if (board.isFull()) {
+            status = GameStatus.DRAW;
+            return MoveResult.OK;
+        }
+        if (--stonesLeft == 0) {
+            sideToMove = (sideToMove == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+            turn++;
+            stonesLeft = stonesPerTurn;
+        }
+        return MoveResult.OK;
+    }
+
+    private MoveResult validate(Move move) {
+        if (move.isPass()) {
+            return MoveResult.PASS_NOT_SUPPORTED;
+        }
+        if (move.isBomb() && bombsLeft(sideToMove) == 0) {
+            return MoveResult.NO_BOMBS_LEFT;
+        }
+        if (!board.isWithinBoard(move.getRow(), move.getCol())) {
+            return MoveResult.OUT_OF_BOARD;
+        }
+        Piece cell = board.getPiece(move.getRow(), move.getCol());
+        if (move.isBomb()) {
+            return (cell == opponent(sideToMove)) ? MoveResult.OK : MoveResult.NOT_OPPONENT_PIECE;
+        }
+        if (cell == Piece.BLOCK) {
+            return MoveResult.BLOCKED;
+        }
+        if (cell == Piece.CRATER) {
+            return MoveResult.CRATER;
+        }
+        return cell == Piece.EMPTY ? MoveResult.OK : MoveResult.OCCUPIED;
+    }
+
+    // 撤销最后一次落子或炸弹，只改动一个格子
+    public MoveResult undo() {
+        if (historySize == 0) {
+            return MoveResult.NOTHING_TO_UNDO;
+        }
+        int last = --historySize;
+        long key = historyKeys[last];
+        board.placePiece(SparseBoard.rowOf(key), SparseBoard.colOf(key), PIECES[historyPieces[last]]);
+        long state = historyStates[last];
+        turn = (int) (state >>> 32);
+        stonesLeft = (int) (state >>> 24) & 0xFF;
+        blackBombs = (int) (state >>> 16) & 0xFF;
+        whiteBombs = (int) (state >>> 8) & 0xFF;
+        sideToMove = PIECES[(int) state & 0xFF];
+        status = GameStatus.IN_PROGRESS;
+        winner = null;
+        winningLine = null;
+        historyMoves[last] = null;
+        return MoveResult.OK;
+    }
+
+    private void record(Move move, int row, int col) {
+        if (historySize == historyMoves.length) {
+            int capacity = historySize * 2;
+            historyMoves = Arrays.copyOf(historyMoves, capacity);
+            historyKeys = Arrays.copyOf(historyKeys, capacity);
+            historyPieces = Arrays.copyOf(historyPieces, capacity);
+            historyStates = Arrays.copyOf(historyStates, capacity);
+        }
+        historyMoves[historySize] = move;
+        historyKeys[historySize] = SparseBoard.key(row, col);
+        historyPieces[historySize] = (byte) board.getPiece(row, col).ordinal();
+        // 各字段先转为long再移位，取值128~255时int移位会变成负数并覆盖高位的回合数
+        historyStates[historySize] = (long) turn << 32 | (long) stonesLeft << 24 | (long) blackBombs << 16
+                | (long) whiteBombs << 8 | sideToMove.ordinal();
+        historySize++;
+    }
+
+    // 经过(row, col)的获胜连线，没有则返回null；每个方向最多查找连线上的棋子数次
+    private WinningLine findWinningLine(int row, int col) {
+        Piece piece = board.getPiece(row, col);
+        for (int[] dir : DIRECTIONS) {
+            int backward = countSame(row, col, -dir[0], -dir[1], piece);
+            int forward = countSame(row, col, dir[0], dir[1], piece);
+            int length = backward + 1 + forward;
+            if (length >= winLength) {
+                int[][] cells = new int[length][];
+                for (int k = 0; k < length; k++) {
+                    int offset = k - backward;
+                    cells[k] = new int[]{row + offset * dir[0], col + offset * dir[1]};
+                }
+                return new WinningLine(piece, cells);
+            }
+        }
+        return null;
+    }
+
+    // 沿一个方向统计连续同色棋子数（不含起点），棋盘外的格子都为空
+    private int countSame(int row, int col, int dRow, int dCol, Piece piece) {
+        int count = 0;
+        int r = row + dRow;
+        int c = col + dCol;
+        while (board.getPiece(r, c) == piece) {
+            count++;
+            r += dRow;
+            c += dCol;
+        }
+        return count;
+    }
+
+    // 候选操作：距离已有棋子（含障碍物和弹坑）不超过radius的空格，以及有炸弹时对方的每个棋子
+    // 开销与棋子数成正比，不遍历整个棋盘；棋盘上没有任何东西时只有中心一个候选
+    public void candidateMoves(List<Move> out, int radius) {
+        out.clear();
+        if (status != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        if (board.occupiedCount() == 0) {
+            int center = board.getSize() / 2;
+            out.add(Move.place(center, center));
+            return;
+        }
+        marks.clear();
+        Piece opponent = opponent(sideToMove);
+        boolean canBomb = bombsLeft(sideToMove) > 0;
+        for (int slot = 0; slot < board.capacity(); slot++) {
+            if (!board.isUsed(slot)) {
+                continue;
+            }
+            long key = board.keyAt(slot);
+            int row = SparseBoard.rowOf(key);
+            int col = SparseBoard.colOf(key);
+            if (canBomb && board.pieceAt(slot) == opponent) {
+                out.add(Move.bomb(row, col));
+            }
+            for (int r = row - radius; r <= row + radius; r++) {
+                for (int c = col - radius; c <= col + radius; c++) {
+                    if (board.isWithinBoard(r, c) && board.getPiece(r, c) == Piece.EMPTY
+                            && marks.getPiece(r, c) == Piece.EMPTY) {
+                        marks.placePiece(r, c, Piece.BLACK);
+                        out.add(Move.place(r, c));
+                    }
+                }
+            }
+        }
+    }
+
+    // 大棋盘上的坐标输入：“行,列”（从1开始的十进制数，无边界时可以为0或负数），@开头为炸弹；格式错误时返回null
+    // GomokuBoard的十六进制行号和字母列号只能表示15x15以内的位置
+    public static Move parseMove(String input) {
+        boolean bomb = input.startsWith("@");
+        String[] parts = (bomb ? input.substring(1) : input).split(",");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            int row = Integer.parseInt(parts[0].trim()) - 1;
+            int col = Integer.parseInt(parts[1].trim()) - 1;
+            return bomb ? Move.bomb(row, col) : Move.place(row, col);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static String formatMove(Move move) {
+        return (move.isBomb() ? "@" : "") + (move.getRow() + 1) + "," + (move.getCol() + 1);
+    }
+
+    public Piece getPiece(int row, int col) {
+        return board.getPiece(row, col);
+    }
+
+    public SparseBoard board() {
+        return board;
+    }
+
+    public Piece sideToMove() {
+        return sideToMove;
+    }
+
+    public GameStatus status() {
+        return status;
+    }
+
+    public Piece winner() {
+        return winner;
+    }
+
+    // 获胜连线，没有人获胜时为null
+    public WinningLine winningLine() {
+        return winningLine;
+    }
+
+    public int winLength() {
+        return winLength;
+    }
+
+    public int turn() {
+        return turn;
+    }
+
+    // 本回合还可以落的子数
+    public int stonesLeftThisTurn() {
+        return stonesLeft;
+    }
+
+    public int bombsLeft(Piece piece) {
+        return (piece == Piece.BLACK) ? blackBombs : whiteBombs;
+    }
+
+    public int moveCount() {
+        return historySize;
+    }
+
+    private static Piece opponent(Piece piece) {
+        return (piece == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+    }
+
+    // 规则说明，用于输出
+    public String describe() {
+        return (board.isBounded() ? board.getSize() + "x" + board.getSize() : "无边界") + "棋盘，" + winLength
+                + "子连珠，每回合" + stonesPerTurn + "子（第一回合" + firstTurnStones + "子），炸弹 黑" + initialBlackBombs
+                + " 白" + initialWhiteBombs;
+    }
+
+    // 随机选一个已有棋子，在它周围radius以内随机找一个空格；不生成全部候选，开销与棋子数无关
+    private Move randomNearbyMove(Random random, int radius) {
+        if (board.occupiedCount() == 0) {
+            return Move.place(board.getSize() / 2, board.getSize() / 2);
+        }
+        while (true) {
+            int slot = random.nextInt(board.capacity());
+            if (!board.isUsed(slot)) {
+                continue;
+            }
+            long key = board.keyAt(slot);
+            int row = SparseBoard.rowOf(key) + random.nextInt(2 * radius + 1) - radius;
+            int col = SparseBoard.colOf(key) + random.nextInt(2 * radius + 1) - radius;
+            if (board.isWithinBoard(row, col) && board.getPiece(row, col) == Piece.EMPTY) {
+                return Move.place(row, col);
+            }
+        }
+    }
+
+    // 随机对局测速：每步在已有棋子附近（半径2）随机落子，输出每秒步数和最终棋盘哈希表的大小
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : UNBOUNDED;
+        int winLength = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int stones = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        Random random = new Random(1);
+        long totalMoves = 0;
+        int blackWins = 0;
+        int whiteWins = 0;
+        int maxStones = 0;
+        int maxCapacity = 0;
+        KInARowEngine engine = null;
+        long start = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            engine = new KInARowEngine(size, winLength, 1, stones, 0, 0);
+            while (engine.status() == GameStatus.IN_PROGRESS) {
+                engine.apply(engine.randomNearbyMove(random, 2));
+            }
+            totalMoves += engine.moveCount();
+            if (engine.winner() == Piece.BLACK) {
+                blackWins++;
+            } else if (engine.winner() == Piece.WHITE) {
+                whiteWins++;
+            }
+            maxStones = Math.max(maxStones, engine.board().occupiedCount());
+            maxCapacity = Math.max(maxCapacity, engine.board().capacity());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(engine.describe());
+        System.out.printf("%d 局，黑胜 %d，白胜 %d，平均 %.1f 步，%.0f 步/秒%n",
+                games, blackWins, whiteWins, (double) totalMoves / games, totalMoves / seconds);
+        System.out.printf("单局最多 %d 个棋子，哈希表最大 %d 槽（%d 字节）%n", maxStones, maxCapacity, maxCapacity * 9);
+    }
+}
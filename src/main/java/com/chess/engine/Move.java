@@ -0,0 +1,92 @@
+package com.chess.engine;
+
+// 一步操作：普通落子、炸弹或Pass
+// 常用坐标上的实例预先创建并复用，行棋路径上不产生新对象
+public final class Move {
+    public enum Type {
+        PLACE,
+        BOMB,
+        PASS
+    }
+
+    private static final int CACHE_SIZE = 16;
+    private static final Move[][] PLACE_CACHE = new Move[CACHE_SIZE][CACHE_SIZE];
+    private static final Move[][] BOMB_CACHE = new Move[CACHE_SIZE][CACHE_SIZE];
+    private static final Move PASS = new Move(Type.PASS, -1, -1);
+
+    static {
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            for (int j = 0; j < CACHE_SIZE; j++) {
+                PLACE_CACHE[i][j] = new Move(Type.PLACE, i, j);
+                BOMB_CACHE[i][j] = new Move(Type.BOMB, i, j);
+            }
+        }
+    }
+
+    private final Type type;
+    private final int row;
+    private final int col;
+
+    private Move(Type type, int row, int col) {
+        this.type = type;
+        this.row = row;
+        this.col = col;
+    }
+
+    public static Move place(int row, int col) {
+        if (row >= 0 && row < CACHE_SIZE && col >= 0 && col < CACHE_SIZE) {
+            return PLACE_CACHE[row][col];
+        }
+        return new Move(Type.PLACE, row, col);
+    }
+
+    public static Move bomb(int row, int col) {
+        if (row >= 0 && row < CACHE_SIZE && col >= 0 && col < CACHE_SIZE) {
+            return BOMB_CACHE[row][col];
+        }
+        return new Move(Type.BOMB, row, col);
+    }
+
+    public static Move pass() {
+        return PASS;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public boolean isPass() {
+        return type == Type.PASS;
+    }
+
+    public boolean isBomb() {
+        return type == Type.BOMB;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Move)) {
+            return false;
+        }
+        Move move = (Move) other;
+        return type == move.type && row == move.row && col == move.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return (type.ordinal() * 31 + row) * 31 + col;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.PASS ? "PASS" : type + "(" + row + "," + col + ")";
+    }
+}
@@ -0,0 +1,30 @@
+package com.chess.engine;
+
+// 引擎执行操作的结果码，附带控制台显示用的提示文字
+public enum MoveResult {
+    OK("操作成功"),
+    GAME_OVER("当前游戏已结束，请切换到其他游戏或添加新游戏"),
+    OUT_OF_BOARD("输入超出棋盘范围，请重新输入！"),
+    OCCUPIED("落子位置有误，请重新输入！"),
+    ILLEGAL_POSITION("不是合法的落子位置，请重新输入！"),
+    BLOCKED("该位置为障碍物，无法落子！"),
+    CRATER("该位置为弹坑，无法落子！"),
+    NO_BOMBS_LEFT("你没有剩余炸弹了！"),
+    NOT_OPPONENT_PIECE("只能炸掉对方的棋子！"),
+    BOMB_NOT_SUPPORTED("当前游戏不能使用炸弹"),
+    PASS_NOT_SUPPORTED("当前游戏不是Reversi模式，不能Pass"),
+    PASS_NOT_ALLOWED("当前游戏不是处于对局状态且你不能落子的情况，不能Pass"),
+    INVALID_BOARD("无效的棋盘号"),
+    NOTHING_TO_UNDO("没有可以撤销的操作"),
+    NOTHING_TO_REDO("没有可以重做的操作");
+
+    private final String message;
+
+    MoveResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,153 @@
+package com.chess.engine;
+
+import java.util.List;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋规则引擎：基于ReversiBoard的位掩码判断合法落子和翻转
+public class ReversiEngine extends GameEngine {
+    // 合法落子缓存：按(棋盘, 修改计数)保存双方的合法落子掩码，
+    // 棋盘被修改或切换到其他棋盘后自动失效，同一局面下的提示显示、Pass判断和终局判断共用一次计算
+    private ReversiBoard cachedBoard;
+    private int cachedVersion;
+    private long cachedBlackMoves;
+    private long cachedWhiteMoves;
+    // 位0：黑方已缓存，位1：白方已缓存
+    private int cachedSides;
+
+    public ReversiEngine(int boardCount) {
+        super(boardCount);
+    }
+
+    @Override
+    protected Board createBoard() {
+        return new ReversiBoard(true);
+    }
+
+    @Override
+    public ReversiBoard board() {
+        return (ReversiBoard) super.board();
+    }
+
+    @Override
+    public void legalMoves(List<Move> out) {
+        out.clear();
+        if (status != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        long moves = legalMoveMask(sideToMove);
+        if (moves == 0) {
+            out.add(Move.pass());
+            return;
+        }
+        int size = board().getSize();
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            out.add(Move.place(square / size, square % size));
+        }
+    }
+
+    @Override
+    protected MoveResult validate(Move move) {
+        if (move.isPass()) {
+            // 只有在无处可下时才能Pass
+            return hasValidMove(sideToMove) ? MoveResult.PASS_NOT_ALLOWED : MoveResult.OK;
+        }
+        if (move.isBomb()) {
+            return MoveResult.BOMB_NOT_SUPPORTED;
+        }
+        if (!isWithinBoard(move.getRow(), move.getCol())) {
+            return MoveResult.OUT_OF_BOARD;
+        }
+        if (!isValidMove(move.getRow(), move.getCol(), sideToMove)) {
+            return MoveResult.ILLEGAL_POSITION;
+        }
+        return MoveResult.OK;
+    }
+
+    @Override
+    protected void play(Move move) {
+        if (move.isPass()) {
+            return;
+        }
+        // 先放置棋子再翻转
+        setPiece(move.getRow(), move.getCol(), sideToMove, false);
+        flipPieces(move.getRow(), move.getCol(), sideToMove);
+    }
+
+    // 当前棋盘下满或者双方都无法落子时结束，子多者胜
+    @Override
+    public GameStatus checkGameEnd() {
+        boolean boardFull = board().getEmptyCount() == 0;
+        boolean noValidMoves = !hasValidMove(Piece.BLACK) && !hasValidMove(Piece.WHITE);
+        winner = null;
+        if (!boardFull && !noValidMoves) {
+            status = GameStatus.IN_PROGRESS;
+            return status;
+        }
+        int blackCount = countPieces(Piece.BLACK);
+        int whiteCount = countPieces(Piece.WHITE);
+        if (blackCount == whiteCount) {
+            status = GameStatus.DRAW;
+        } else {
+            status = GameStatus.WIN;
+            winner = (blackCount > whiteCount) ? Piece.BLACK : Piece.WHITE;
+        }
+        return status;
+    }
+
+    // 判断位置是否为合法落子（基于位棋盘的移位生成）
+    public boolean isValidMove(int row, int col, Piece pieceType) {
+        if (!isWithinBoard(row, col)) {
+            return false;
+        }
+        return (legalMoveMask(pieceType) & ReversiBoard.bit(row, col)) != 0;
+    }
+
+    public boolean hasValidMove(Piece pieceType) {
+        return legalMoveMask(pieceType) != 0;
+    }
+
+    // 当前棋盘上某一方的合法落子掩码
+    public long legalMoveMask(Piece pieceType) {
+        ReversiBoard board = board();
+        if (board != cachedBoard || board.getVersion() != cachedVersion) {
+            cachedBoard = board;
+            cachedVersion = board.getVersion();
+            cachedSides = 0;
+        }
+        if (pieceType == Piece.BLACK) {
+            if ((cachedSides & 1) == 0) {
+                cachedBlackMoves = board.legalMoves(Piece.BLACK);
+                cachedSides |= 1;
+            }
+            return cachedBlackMoves;
+        }
+        if (pieceType == Piece.WHITE) {
+            if ((cachedSides & 2) == 0) {
+                cachedWhiteMoves = board.legalMoves(Piece.WHITE);
+                cachedSides |= 2;
+            }
+            return cachedWhiteMoves;
+        }
+        return 0L;
+    }
+
+    // 翻转被夹住的对手棋子；在操作中调用时每个翻转都记入撤销记录
+    public void flipPieces(int row, int col, Piece pieceType) {
+        ReversiBoard board = board();
+        long toFlip = board.flips(row, col, pieceType);
+        int size = board.getSize();
+        while (toFlip != 0) {
+            int square = Long.numberOfTrailingZeros(toFlip);
+            toFlip &= toFlip - 1;
+            setPiece(square / size, square % size, pieceType, true);
+        }
+    }
+
+    public int countPieces(Piece pieceType) {
+        return board().getStats().count(pieceType);
+    }
+}
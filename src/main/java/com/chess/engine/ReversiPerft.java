@@ -0,0 +1,211 @@
+package com.chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+
+// 黑白棋走法生成的校验与测速：统计从某个局面出发走N步的叶子数
+// 一方无子可下时Pass计为一步；双方都无子可下时对局结束，该局面计为一个叶子
+// 从标准开局出发的结果应与公开的黑白棋perft数据一致
+// 用法：java -cp chess-game.jar com.chess.engine.ReversiPerft <深度> [线程数]
+public final class ReversiPerft {
+    // 标准开局的perft结果，下标为深度
+    private static final long[] EXPECTED = {
+            1L, 4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L,
+            24571284L, 212258800L, 1939886636L
+    };
+    private static final long START_BLACK = ReversiBoard.bit(3, 4) | ReversiBoard.bit(4, 3);
+    private static final long START_WHITE = ReversiBoard.bit(3, 3) | ReversiBoard.bit(4, 4);
+    // 并行时在根部展开到至少这么多个子局面（每线程）再分配给工作线程
+    private static final int POSITIONS_PER_THREAD = 16;
+
+    private ReversiPerft() {
+    }
+
+    public static class Result {
+        private final int depth;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        Result(int depth, long nodes, long elapsedNanos) {
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getNodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : (long) (nodes * 1e9 / elapsedNanos);
+        }
+    }
+
+    // 标准开局在该深度的公开结果；没有数据时返回-1
+    public static long expected(int depth) {
+        return depth >= 0 && depth < EXPECTED.length ? EXPECTED[depth] : -1;
+    }
+
+    public static boolean isStartPosition(ReversiEngine engine) {
+        ReversiBoard board = engine.board();
+        return engine.sideToMove() == Piece.BLACK
+                && board.getBitboard(Piece.BLACK) == START_BLACK
+                && board.getBitboard(Piece.WHITE) == START_WHITE;
+    }
+
+    // 从引擎当前棋盘、当前行棋方出发
+    public static Result run(ReversiEngine engine, int depth, int threads) {
+        Piece side = engine.sideToMove();
+        ReversiBoard board = engine.board();
+        long own = board.getBitboard(side);
+        long opp = board.getBitboard(GameEngine.opponent(side));
+        long start = System.nanoTime();
+        long nodes = threads <= 1 ? perft(own, opp, depth) : parallelPerft(own, opp, depth, threads);
+        return new Result(depth, nodes, System.nanoTime() - start);
+    }
+
+    public static Result runFromStart(int depth, int threads) {
+        return run(new ReversiEngine(1), depth, threads);
+    }
+
+    // 单线程perft；own为行棋方的棋子
+    public static long perft(long own, long opp, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = ReversiBoard.legalMoves(own, opp);
+        if (moves == 0) {
+            if (ReversiBoard.legalMoves(opp, own) == 0) {
+                return 1;
+            }
+            return perft(opp, own, depth - 1);
+        }
+        // 最后一层只需要数合法落子
+        if (depth == 1) {
+            return Long.bitCount(moves);
+        }
+        long nodes = 0;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long flipped = ReversiBoard.flips(own, opp, square);
+            nodes += perft(opp & ~flipped, own | flipped | (1L << square), depth - 1);
+        }
+        return nodes;
+    }
+
+    // 先在根部逐层展开，直到子局面足够多，再把它们分给fork-join线程
+    // 已结束的局面原样保留到下一层：perft对它在任何深度都返回1
+    private static long parallelPerft(long own, long opp, int depth, int threads) {
+        Frontier frontier = new Frontier();
+        frontier.add(own, opp);
+        int remaining = depth;
+        while (remaining > 1 && frontier.size < threads * POSITIONS_PER_THREAD) {
+            Frontier next = new Frontier();
+            for (int i = 0; i < frontier.size; i++) {
+                long o = frontier.owns[i];
+                long p = frontier.opps[i];
+                long moves = ReversiBoard.legalMoves(o, p);
+                if (moves == 0) {
+                    if (ReversiBoard.legalMoves(p, o) == 0) {
+                        next.add(o, p);
+                    } else {
+                        next.add(p, o);
+                    }
+                }
+                while (moves != 0) {
+                    int square = Long.numberOfTrailingZeros(moves);
+                    moves &= moves - 1;
+                    long flipped = ReversiBoard.flips(o, p, square);
+                    next.add(p & ~flipped, o | flipped | (1L << square));
+                }
+            }
+            frontier = next;
+            remaining--;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new PerftTask(frontier, 0, frontier.size, remaining));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // 根部展开得到的局面列表
+    private static class Frontier {
+        long[] owns = new long[16];
+        long[] opps = new long[16];
+        int size;
+
+        void add(long own, long opp) {
+            if (size == owns.length) {
+                owns = Arrays.copyOf(owns, size * 2);
+                opps = Arrays.copyOf(opps, size * 2);
+            }
+            owns[size] = own;
+            opps[size] = opp;
+            size++;
+        }
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Frontier frontier;
+        private final int from;
+        private final int to;
+        private final int depth;
+
+        PerftTask(Frontier frontier, int from, int to, int depth) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from == 1) {
+                return perft(frontier.owns[from], frontier.opps[from], depth);
+            }
+            int middle = (from + to) >>> 1;
+            PerftTask left = new PerftTask(frontier, from, middle, depth);
+            left.fork();
+            long right = new PerftTask(frontier, middle, to, depth).compute();
+            return left.join() + right;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("用法: ReversiPerft <深度> [线程数]");
+            return;
+        }
+        int maxDepth = Integer.parseInt(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("黑白棋perft，标准开局，" + threads + " 线程");
+        boolean allMatched = true;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Result result = runFromStart(depth, threads);
+            long expected = expected(depth);
+            String check = expected < 0 ? "无参考数据" : expected == result.getNodes() ? "正确" : "错误，应为" + expected;
+            allMatched &= expected < 0 || expected == result.getNodes();
+            System.out.printf("深度 %2d：%,15d 个节点，%8.1f 毫秒，%,13d 节点/秒  %s%n",
+                    depth, result.getNodes(), result.getElapsedNanos() / 1e6, result.getNodesPerSecond(), check);
+        }
+        if (!allMatched) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,10 +1,27 @@
 package com.chess.entity;
 
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class Board {
     protected static final int DEFAULT_SIZE = 8;
+    // Zobrist随机数表：每种棋盘大小一张，下标为 (row*size+col)*棋子种类数+棋子序号，空位的键为0
+    private static final Map<Integer, long[]> ZOBRIST_TABLES = new ConcurrentHashMap<>();
+    private static final int PIECE_KINDS = Piece.values().length;
+    private static final long SIDE_TO_MOVE_KEY = 0x5DEECE66DL * 0x9E3779B97F4A7C15L;
+    // 校验模式：每次落子后都与完整重算的结果比较，可通过 -Dchess.zobrist.verify=true 打开
+    private static volatile boolean zobristVerification = Boolean.getBoolean("chess.zobrist.verify");
+
     protected int size;
     private Piece[][] grid;
-    private int filledPositions;
+    // 棋子数、空格等统计，随placePiece增量更新
+    private final BoardStats stats;
+    private final long[] zobristTable;
+    private long zobristKey;
+    private boolean whiteToMove;
+    // 修改计数：每次成功放置棋子后加一，供按局面缓存计算结果的调用方判断缓存是否过期
+    private int version;
 
     public Board(boolean isFullyEmpty) {
         this(DEFAULT_SIZE, isFullyEmpty);
@@ -13,8 +30,23 @@ public class Board {
     public Board(int size, boolean isFullyEmpty) {
         this.size = size;
         grid = new Piece[size][size];
-        filledPositions = 0;
+        stats = new BoardStats(size);
+        zobristTable = ZOBRIST_TABLES.computeIfAbsent(size, Board::createZobristTable);
         initializeBoard(isFullyEmpty);
+        zobristKey = computeZobristKey();
+    }
+
+    private static long[] createZobristTable(int size) {
+        SplittableRandom random = new SplittableRandom(size);
+        long[] table = new long[size * size * PIECE_KINDS];
+        for (int cell = 0; cell < size * size; cell++) {
+            for (Piece piece : Piece.values()) {
+                if (piece != Piece.EMPTY) {
+                    table[cell * PIECE_KINDS + piece.ordinal()] = random.nextLong();
+                }
+            }
+        }
+        return table;
     }
 
     private void initializeBoard(boolean isFullyEmpty) {
@@ -26,12 +58,16 @@ public class Board {
         if (!isFullyEmpty) {
             // 设置初始布局：⿊棋位于 4E 和 5D，⽩棋位于 4D 和 5E
             int middle = size / 2;
-            grid[middle-1][middle] = Piece.BLACK; // 4E
-            grid[middle][middle-1] = Piece.BLACK; // 5D
-            grid[middle-1][middle-1] = Piece.WHITE; // 4D
-            grid[middle][middle] = Piece.WHITE; // 5E
+            setInitialPiece(middle-1, middle, Piece.BLACK); // 4E
+            setInitialPiece(middle, middle-1, Piece.BLACK); // 5D
+            setInitialPiece(middle-1, middle-1, Piece.WHITE); // 4D
+            setInitialPiece(middle, middle, Piece.WHITE); // 5E
         }
-        filledPositions = 4;
+    }
+
+    private void setInitialPiece(int row, int col, Piece piece) {
+        stats.update(row, col, grid[row][col], piece);
+        grid[row][col] = piece;
     }
 
     public boolean placePiece(int row, int col, Piece piece, boolean isFliped) {
@@ -43,15 +79,70 @@ public class Board {
             return false;
         }
 
+        Piece previous = grid[row][col];
         grid[row][col] = piece;
-        if(!isFliped) {
-            filledPositions++;
+        version++;
+        stats.update(row, col, previous, piece);
+        zobristKey ^= pieceKey(row, col, previous) ^ pieceKey(row, col, piece);
+        if (zobristVerification) {
+            verifyZobristKey();
         }
         return true;
     }
 
+    // 轮到另一方行棋，更新哈希中的行棋方
+    public void switchSideToMove() {
+        whiteToMove = !whiteToMove;
+        zobristKey ^= SIDE_TO_MOVE_KEY;
+    }
+
+    // 增量维护的64位Zobrist哈希：覆盖每个格子上的棋子以及行棋方
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    // 完整重算哈希，用于校验增量结果
+    public long computeZobristKey() {
+        long key = whiteToMove ? SIDE_TO_MOVE_KEY : 0L;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                key ^= pieceKey(i, j, grid[i][j]);
+            }
+        }
+        return key;
+    }
+
+    public void verifyZobristKey() {
+        long expected = computeZobristKey();
+        if (zobristKey != expected) {
+            throw new IllegalStateException("Zobrist哈希不一致：增量为" + Long.toHexString(zobristKey)
+                    + "，重算为" + Long.toHexString(expected));
+        }
+    }
+
+    public static void setZobristVerification(boolean enabled) {
+        zobristVerification = enabled;
+    }
+
+    private long pieceKey(int row, int col, Piece piece) {
+        return zobristTable[(row * size + col) * PIECE_KINDS + piece.ordinal()];
+    }
+
     public boolean isFull() {
-        return filledPositions >= size * size;
+        return stats.getEmptyCount() == 0;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getEmptyCount() {
+        return stats.getEmptyCount();
+    }
+
+    // 增量维护的统计，只读
+    public BoardStats getStats() {
+        return stats;
     }
 
     public Piece getPiece(int row, int col) {
@@ -0,0 +1,140 @@
+package com.chess.entity;
+
+// 棋盘统计：由Board.placePiece在每次改动一个格子时增量更新，读取时不需要扫描棋盘
+// 包括各种棋子的数量、空格数量及空格列表、边缘（最外一圈）上各方的棋子数，
+// 以及各方的前沿子数（八个相邻格中至少有一个空格的棋子，黑白棋估值常用）
+// 格子编号为 row*size+col
+public class BoardStats {
+    private static final int PIECE_KINDS = Piece.values().length;
+    private static final int EMPTY = Piece.EMPTY.ordinal();
+
+    private final int size;
+    private final int[] counts = new int[PIECE_KINDS];
+    private final int[] edgeCounts = new int[PIECE_KINDS];
+    private final int[] frontierCounts = new int[PIECE_KINDS];
+    // 每个格子上的棋子序号，以及该格的棋子当前是否计为前沿子
+    private final byte[] cells;
+    private final boolean[] frontier;
+    // 空格列表：emptySquares的前emptyCount项；emptyIndex为格子在列表中的位置，非空格为-1
+    private final int[] emptySquares;
+    private final int[] emptyIndex;
+    private int emptyCount;
+
+    // 初始时所有格子都为空
+    BoardStats(int size) {
+        this.size = size;
+        int cellCount = size * size;
+        cells = new byte[cellCount];
+        frontier = new boolean[cellCount];
+        emptySquares = new int[cellCount];
+        emptyIndex = new int[cellCount];
+        for (int square = 0; square < cellCount; square++) {
+            cells[square] = (byte) EMPTY;
+            emptySquares[square] = square;
+            emptyIndex[square] = square;
+        }
+        emptyCount = cellCount;
+        counts[EMPTY] = cellCount;
+        edgeCounts[EMPTY] = size <= 1 ? cellCount : 4 * (size - 1);
+    }
+
+    // 格子(row, col)由previous变为piece
+    void update(int row, int col, Piece previous, Piece piece) {
+        if (previous == piece) {
+            return;
+        }
+        int square = row * size + col;
+        int before = previous.ordinal();
+        int after = piece.ordinal();
+        counts[before]--;
+        counts[after]++;
+        if (isEdge(row, col)) {
+            edgeCounts[before]--;
+            edgeCounts[after]++;
+        }
+        setFrontier(square, false);
+        cells[square] = (byte) after;
+        if (after == EMPTY) {
+            addEmpty(square);
+        } else if (before == EMPTY) {
+            removeEmpty(square);
+        }
+        if ((before == EMPTY) != (after == EMPTY)) {
+            // 空与非空之间切换时，相邻棋子的前沿状态可能改变
+            for (int dr = -1; dr <= 1; dr++) {
+                for (int dc = -1; dc <= 1; dc++) {
+                    int r = row + dr;
+                    int c = col + dc;
+                    if ((dr != 0 || dc != 0) && r >= 0 && r < size && c >= 0 && c < size) {
+                        setFrontier(r * size + c, isDisc(r * size + c) && hasEmptyNeighbour(r, c));
+                    }
+                }
+            }
+        }
+        setFrontier(square, isDisc(square) && hasEmptyNeighbour(row, col));
+    }
+
+    public int count(Piece piece) {
+        return counts[piece.ordinal()];
+    }
+
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    // 第index个空格的编号（0 <= index < getEmptyCount()，顺序不固定）
+    public int emptySquare(int index) {
+        return emptySquares[index];
+    }
+
+    // 最外一圈格子上的该种棋子数
+    public int edgeCount(Piece piece) {
+        return edgeCounts[piece.ordinal()];
+    }
+
+    // 该方的前沿子数
+    public int frontierCount(Piece piece) {
+        return frontierCounts[piece.ordinal()];
+    }
+
+    private void setFrontier(int square, boolean value) {
+        if (frontier[square] != value) {
+            frontier[square] = value;
+            frontierCounts[cells[square]] += value ? 1 : -1;
+        }
+    }
+
+    // 只有双方的棋子参与前沿统计
+    private boolean isDisc(int square) {
+        return cells[square] == Piece.BLACK.ordinal() || cells[square] == Piece.WHITE.ordinal();
+    }
+
+    private boolean hasEmptyNeighbour(int row, int col) {
+        for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                if ((r != row || c != col) && cells[r * size + c] == EMPTY) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isEdge(int row, int col) {
+        return row == 0 || col == 0 || row == size - 1 || col == size - 1;
+    }
+
+    private void addEmpty(int square) {
+        emptyIndex[square] = emptyCount;
+        emptySquares[emptyCount++] = square;
+    }
+
+    // 与最后一项交换后删除
+    private void removeEmpty(int square) {
+        int index = emptyIndex[square];
+        int last = emptySquares[--emptyCount];
+        emptySquares[index] = last;
+        emptyIndex[last] = index;
+        emptyIndex[square] = -1;
+    }
+}
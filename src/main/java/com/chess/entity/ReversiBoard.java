@@ -0,0 +1,191 @@
+package com.chess.entity;
+
+// 黑白棋专用棋盘：在Piece[][]之外额外维护黑、白两个64位占位掩码
+// 第row行第col列对应第 row*8+col 位（1A为最低位）
+public class ReversiBoard extends Board {
+    public static final int REVERSI_SIZE = DEFAULT_SIZE;
+
+    // B-G列：横向和斜向移位时，只有这些列上的棋子可以被夹住
+    private static final long INNER_COLUMNS = 0x7E7E7E7E7E7E7E7EL;
+
+    // 每个格子向8个方向的射线（不含该格子），前4个方向朝高位，后4个朝低位
+    private static final int DIRECTIONS = 8;
+    private static final int[] ROW_STEPS = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] COL_STEPS = {1, -1, 0, 1, -1, 1, 0, -1};
+    private static final long[] RAYS = new long[64 * DIRECTIONS];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            for (int d = 0; d < DIRECTIONS; d++) {
+                int row = square / REVERSI_SIZE + ROW_STEPS[d];
+                int col = square % REVERSI_SIZE + COL_STEPS[d];
+                while (row >= 0 && row < REVERSI_SIZE && col >= 0 && col < REVERSI_SIZE) {
+                    RAYS[square * DIRECTIONS + d] |= bit(row, col);
+                    row += ROW_STEPS[d];
+                    col += COL_STEPS[d];
+                }
+            }
+        }
+    }
+
+    private long black;
+    private long white;
+
+    public ReversiBoard(boolean isFullyEmpty) {
+        super(REVERSI_SIZE, isFullyEmpty);
+        // 父类初始化时直接写入grid，这里同步一次掩码
+        for (int i = 0; i < REVERSI_SIZE; i++) {
+            for (int j = 0; j < REVERSI_SIZE; j++) {
+                Piece piece = getPiece(i, j);
+                if (piece == Piece.BLACK) {
+                    black |= bit(i, j);
+                } else if (piece == Piece.WHITE) {
+                    white |= bit(i, j);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean placePiece(int row, int col, Piece piece, boolean isFliped) {
+        if (!super.placePiece(row, col, piece, isFliped)) {
+            return false;
+        }
+        long bit = bit(row, col);
+        black &= ~bit;
+        white &= ~bit;
+        if (piece == Piece.BLACK) {
+            black |= bit;
+        } else if (piece == Piece.WHITE) {
+            white |= bit;
+        }
+        return true;
+    }
+
+    // 获取某种棋子的占位掩码
+    public long getBitboard(Piece piece) {
+        if (piece == Piece.BLACK) {
+            return black;
+        }
+        if (piece == Piece.WHITE) {
+            return white;
+        }
+        if (piece == Piece.EMPTY) {
+            return ~(black | white);
+        }
+        return 0L;
+    }
+
+    // 某一方所有合法落子位置的掩码
+    public long legalMoves(Piece piece) {
+        if (piece == Piece.BLACK) {
+            return legalMoves(black, white);
+        }
+        if (piece == Piece.WHITE) {
+            return legalMoves(white, black);
+        }
+        return 0L;
+    }
+
+    // 在(row, col)落子后需要翻转的棋子掩码
+    public long flips(int row, int col, Piece piece) {
+        if (piece == Piece.BLACK) {
+            return flips(black, white, row * REVERSI_SIZE + col);
+        }
+        if (piece == Piece.WHITE) {
+            return flips(white, black, row * REVERSI_SIZE + col);
+        }
+        return 0L;
+    }
+
+    public static long bit(int row, int col) {
+        return 1L << (row * REVERSI_SIZE + col);
+    }
+
+    // 合法落子生成：沿8个方向做移位填充，每个方向最多6个连续的对方棋子
+    // 横向和斜向只使用B-G列的对方棋子，移位时不会跨行；每个方向先走两步，再按两格一跳走两次
+    public static long legalMoves(long own, long opp) {
+        long inner = opp & INNER_COLUMNS;
+        long moves = 0L;
+        long x;
+        long pair;
+
+        x = inner & (own << 1);
+        x |= inner & (x << 1);
+        pair = inner & (inner << 1);
+        x |= pair & (x << 2);
+        x |= pair & (x << 2);
+        moves |= x << 1;
+        x = inner & (own >>> 1);
+        x |= inner & (x >>> 1);
+        pair >>>= 1;
+        x |= pair & (x >>> 2);
+        x |= pair & (x >>> 2);
+        moves |= x >>> 1;
+
+        x = opp & (own << 8);
+        x |= opp & (x << 8);
+        pair = opp & (opp << 8);
+        x |= pair & (x << 16);
+        x |= pair & (x << 16);
+        moves |= x << 8;
+        x = opp & (own >>> 8);
+        x |= opp & (x >>> 8);
+        pair >>>= 8;
+        x |= pair & (x >>> 16);
+        x |= pair & (x >>> 16);
+        moves |= x >>> 8;
+
+        x = inner & (own << 7);
+        x |= inner & (x << 7);
+        pair = inner & (inner << 7);
+        x |= pair & (x << 14);
+        x |= pair & (x << 14);
+        moves |= x << 7;
+        x = inner & (own >>> 7);
+        x |= inner & (x >>> 7);
+        pair >>>= 7;
+        x |= pair & (x >>> 14);
+        x |= pair & (x >>> 14);
+        moves |= x >>> 7;
+
+        x = inner & (own << 9);
+        x |= inner & (x << 9);
+        pair = inner & (inner << 9);
+        x |= pair & (x << 18);
+        x |= pair & (x << 18);
+        moves |= x << 9;
+        x = inner & (own >>> 9);
+        x |= inner & (x >>> 9);
+        pair >>>= 9;
+        x |= pair & (x >>> 18);
+        x |= pair & (x >>> 18);
+        moves |= x >>> 9;
+
+        return moves & ~(own | opp);
+    }
+
+    // 计算在square位置落子后被夹住的对方棋子：每个方向找到从落子处起第一个不是对方棋子的格子，
+    // 它是己方棋子时，中间的对方棋子整段翻转；朝高位的方向取最低位，朝低位的方向取最高位
+    public static long flips(long own, long opp, int square) {
+        int base = square * DIRECTIONS;
+        long empty = ~opp;
+        return up(own, empty, RAYS[base]) | up(own, empty, RAYS[base + 1])
+                | up(own, empty, RAYS[base + 2]) | up(own, empty, RAYS[base + 3])
+                | down(own, empty, RAYS[base + 4]) | down(own, empty, RAYS[base + 5])
+                | down(own, empty, RAYS[base + 6]) | down(own, empty, RAYS[base + 7]);
+    }
+
+    // 朝高位的射线：第一个不是对方棋子的格子是最低位
+    private static long up(long own, long notOpp, long ray) {
+        long stop = notOpp & ray;
+        stop &= -stop;
+        return (stop & own) != 0 ? (stop - 1) & ray : 0L;
+    }
+
+    // 朝低位的射线：第一个不是对方棋子的格子是最高位
+    private static long down(long own, long notOpp, long ray) {
+        long stop = Long.highestOneBit(notOpp & ray);
+        return (stop & own) != 0 ? -(stop << 1) & ray : 0L;
+    }
+}
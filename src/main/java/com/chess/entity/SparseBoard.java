@@ -0,0 +1,221 @@
+package com.chess.entity;
+
+import java.util.Arrays;
+
+// 稀疏棋盘：只保存非空格子，用以long为键的开放寻址哈希表（线性探测）代替Piece[][]
+// 键为 row << 32 | col 的低32位，坐标可以为负数；size为0时棋盘没有边界
+// 内存和每次读写的开销只与棋子数有关，与棋盘面积无关；删除时把后面的项前移，不留墓碑
+public class SparseBoard {
+    private static final Piece[] PIECES = Piece.values();
+    private static final int MIN_CAPACITY = 16;
+
+    private final int size;
+    // values中存放棋子序号+1，0表示空槽
+    private long[] keys;
+    private byte[] values;
+    private int mask;
+    private int occupied;
+    private final int[] counts = new int[PIECES.length];
+    // 出现过棋子的最小外接矩形（只扩大不缩小），用于显示
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+    private int minCol = Integer.MAX_VALUE;
+    private int maxCol = Integer.MIN_VALUE;
+
+    public SparseBoard(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("棋盘大小不能为负数: " + size);
+        }
+        this.size = size;
+        keys = new long[MIN_CAPACITY];
+        values = new byte[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+    }
+
+    public static long key(int row, int col) {
+        return (long) row << 32 | (col & 0xFFFFFFFFL);
+    }
+
+    public static int rowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int colOf(long key) {
+        return (int) key;
+    }
+
+    // 0表示没有边界
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isBounded() {
+        return size > 0;
+    }
+
+    public boolean isWithinBoard(int row, int col) {
+        return size == 0 || (row >= 0 && row < size && col >= 0 && col < size);
+    }
+
+    public Piece getPiece(int row, int col) {
+        int slot = find(key(row, col));
+        return slot < 0 ? Piece.EMPTY : PIECES[values[slot] - 1];
+    }
+
+    // 设置格子上的棋子，EMPTY表示移除；返回原来的棋子
+    public Piece placePiece(int row, int col, Piece piece) {
+        long key = key(row, col);
+        int slot = find(key);
+        Piece previous = slot < 0 ? Piece.EMPTY : PIECES[values[slot] - 1];
+        if (previous == piece) {
+            return previous;
+        }
+        if (previous != Piece.EMPTY) {
+            counts[previous.ordinal()]--;
+        }
+        if (piece != Piece.EMPTY) {
+            counts[piece.ordinal()]++;
+        }
+        if (piece == Piece.EMPTY) {
+            remove(slot);
+        } else if (slot >= 0) {
+            values[slot] = (byte) (piece.ordinal() + 1);
+        } else {
+            insert(key, piece);
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        return previous;
+    }
+
+    // 某种棋子的数量（不统计EMPTY，空格数见getEmptyCount）
+    public int count(Piece piece) {
+        return piece == Piece.EMPTY ? 0 : counts[piece.ordinal()];
+    }
+
+    // 空格数，没有边界时为Long.MAX_VALUE
+    public long getEmptyCount() {
+        return size == 0 ? Long.MAX_VALUE : (long) size * size - occupied;
+    }
+
+    // 非空格子数（棋子、障碍物、弹坑）
+    public int occupiedCount() {
+        return occupied;
+    }
+
+    public boolean isFull() {
+        return getEmptyCount() == 0;
+    }
+
+    // 按槽位遍历非空格子：0 <= slot < capacity()，isUsed为true时可读取坐标和棋子
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean isUsed(int slot) {
+        return values[slot] != 0;
+    }
+
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    public Piece pieceAt(int slot) {
+        return PIECES[values[slot] - 1];
+    }
+
+    // 外接矩形，没有棋子时min大于max
+    public int getMinRow() {
+        return minRow;
+    }
+
+    public int getMaxRow() {
+        return maxRow;
+    }
+
+    public int getMinCol() {
+        return minCol;
+    }
+
+    public int getMaxCol() {
+        return maxCol;
+    }
+
+    public void clear() {
+        Arrays.fill(values, (byte) 0);
+        Arrays.fill(counts, 0);
+        occupied = 0;
+        minRow = Integer.MAX_VALUE;
+        maxRow = Integer.MIN_VALUE;
+        minCol = Integer.MAX_VALUE;
+        maxCol = Integer.MIN_VALUE;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long key, Piece piece) {
+        // 装载因子不超过1/2
+        if ((occupied + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = (byte) (piece.ordinal() + 1);
+        occupied++;
+    }
+
+    // 删除后把同一探测链上后面的项前移，保证查找不会提前遇到空槽
+    private void remove(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            // home不在(hole, next]之间时，该项可以移到hole
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = 0;
+        occupied--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[capacity];
+        values = new byte[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.chess.entity;
+
+// 五子连珠的结果：获胜的棋子颜色以及连成一线的所有位置
+public class WinningLine {
+    private final Piece piece;
+    private final int[][] cells;
+
+    public WinningLine(Piece piece, int[][] cells) {
+        this.piece = piece;
+        this.cells = cells;
+    }
+
+    public Piece getPiece() {
+        return piece;
+    }
+
+    // 每个元素为{row, col}，按连线方向排列
+    public int[][] getCells() {
+        return cells;
+    }
+
+    public int length() {
+        return cells.length;
+    }
+}
@@ -0,0 +1,453 @@
+package com.chess.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.service.Game.GameMode;
+
+// 只追加的对局日志：所有游戏的操作按发生顺序写入同一个内存映射文件
+// 文件按1MiB分块映射，记录定长8字节：[类型][参数][游戏编号u16][棋盘u16][行][列]
+// 每个游戏每写满KEYFRAME_INTERVAL条记录追加一个关键帧（引擎局面），重放时从最近的关键帧开始
+// 记录先写内容、最后写类型字节，进程中途退出时半条记录不会被读到；非线程安全
+public final class MoveJournal implements Closeable {
+    private static final int MAGIC = 0x43484A31; // "CHJ1"
+    private static final int VERSION = 3;
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int RECORD_SIZE = 8;
+    private static final int HEADER_SIZE = 8;
+    private static final int KEYFRAME_INTERVAL = 1024;
+
+    // 记录类型；0表示数据结束（新映射的区域全部为0）
+    private static final byte END = 0;
+    private static final byte GAME_START = 1;
+    private static final byte MOVE = 2;
+    private static final byte SELECT_BOARD = 3;
+    private static final byte KEYFRAME = 4;
+    // 之前的游戏全部作废（读取存档后整个游戏列表被替换）
+    private static final byte CLEAR = 5;
+    // 撤销该游戏的上一步操作；其后总是紧跟一个关键帧
+    private static final byte UNDO = 6;
+    // 分块剩余空间放不下关键帧时，用它跳到下一块
+    private static final byte SKIP = 0x7F;
+
+    private static final GameMode[] MODES = GameMode.values();
+    private static final Move.Type[] MOVE_TYPES = Move.Type.values();
+
+    // 每个游戏的索引：各条记录的位置（偏移/8）以及关键帧（记录序号，文件偏移）
+    // 多个游戏的记录交错存放，重放时按索引直接定位，不必扫描其他游戏的记录
+    private static final class GameIndex {
+        final GameMode mode;
+        final int boardCount;
+        int entries;
+        int[] records = new int[64];
+        int[] keyframeEntries = new int[4];
+        long[] keyframeOffsets = new long[4];
+        int keyframes;
+
+        GameIndex(GameMode mode, int boardCount) {
+            this.mode = mode;
+            this.boardCount = boardCount;
+        }
+
+        void addRecord(long offset) {
+            if (entries == records.length) {
+                records = Arrays.copyOf(records, entries * 2);
+            }
+            records[entries++] = (int) (offset / RECORD_SIZE);
+        }
+
+        void addKeyframe(int entry, long offset) {
+            if (keyframes == keyframeEntries.length) {
+                keyframeEntries = Arrays.copyOf(keyframeEntries, keyframes * 2);
+                keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+            }
+            keyframeEntries[keyframes] = entry;
+            keyframeOffsets[keyframes] = offset;
+            keyframes++;
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private final Map<Integer, GameIndex> games = new LinkedHashMap<>();
+    private long writeOffset;
+    private ByteBuffer stateBuffer = ByteBuffer.allocate(0);
+
+    private MoveJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    // 打开（或新建）日志文件，并扫描已有记录建立索引
+    public static MoveJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MoveJournal journal = new MoveJournal(channel);
+        try {
+            journal.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            MappedByteBuffer first = mapChunk(0);
+            first.putInt(4, VERSION);
+            first.putInt(0, MAGIC);
+            writeOffset = HEADER_SIZE;
+            return;
+        }
+        for (int i = 0; (long) i * CHUNK_SIZE < size; i++) {
+            mapChunk(i);
+        }
+        ByteBuffer first = chunks.get(0);
+        if (first.getInt(0) != MAGIC || first.getInt(4) != VERSION) {
+            throw new IOException("不是对局日志文件或版本不兼容");
+        }
+        long offset = HEADER_SIZE;
+        while (offset < (long) chunks.size() * CHUNK_SIZE) {
+            ByteBuffer chunk = chunks.get(chunkIndex(offset));
+            int pos = chunkPosition(offset);
+            byte kind = chunk.get(pos);
+            if (kind == END) {
+                break;
+            }
+            if (kind == SKIP) {
+                offset = nextChunk(offset);
+                continue;
+            }
+            if (kind == CLEAR) {
+                games.clear();
+                offset += RECORD_SIZE;
+                continue;
+            }
+            int gameId = chunk.getShort(pos + 2) & 0xFFFF;
+            switch (kind) {
+                case GAME_START:
+                    games.put(gameId, new GameIndex(MODES[chunk.get(pos + 1)], chunk.getShort(pos + 4) & 0xFFFF));
+                    offset += RECORD_SIZE;
+                    break;
+                case MOVE:
+                case SELECT_BOARD:
+                case UNDO:
+                    index(gameId).addRecord(offset);
+                    offset += RECORD_SIZE;
+                    break;
+                case KEYFRAME:
+                    index(gameId).addKeyframe(chunk.getInt(pos + 8), offset);
+                    offset += keyframeSize(chunk.getInt(pos + 12));
+                    break;
+                default:
+                    throw new IOException("对局日志损坏：偏移" + offset + "处的记录类型为" + kind);
+            }
+        }
+        writeOffset = offset;
+    }
+
+    // ---- 写入 ----
+
+    public void recordStart(int gameId, GameMode mode, GameEngine engine) throws IOException {
+        checkShort(gameId);
+        long offset = reserve(RECORD_SIZE);
+        ByteBuffer chunk = chunks.get(chunkIndex(offset));
+        int pos = chunkPosition(offset);
+        chunk.put(pos + 1, (byte) mode.ordinal());
+        chunk.putShort(pos + 2, (short) gameId);
+        chunk.putShort(pos + 4, (short) checkShort(engine.boardCount()));
+        chunk.put(pos, GAME_START);
+        GameIndex game = new GameIndex(mode, engine.boardCount());
+        games.put(gameId, game);
+        // 游戏可能不是从开局开始的（如读取存档），记下起始局面
+        writeKeyframe(gameId, game, engine);
+    }
+
+    public void recordClear() throws IOException {
+        long offset = reserve(RECORD_SIZE);
+        chunks.get(chunkIndex(offset)).put(chunkPosition(offset), CLEAR);
+        games.clear();
+    }
+
+    // 记录一步已经成功执行的操作；engine为执行后的引擎，用于写关键帧
+    public void recordMove(int gameId, Move move, GameEngine engine) throws IOException {
+        int row = move.isPass() ? 0 : checkByte(move.getRow());
+        int col = move.isPass() ? 0 : checkByte(move.getCol());
+        append(gameId, MOVE, move.getType().ordinal(), engine.currentBoardIndex(), row, col, engine);
+    }
+
+    public void recordBoardSwitch(int gameId, GameEngine engine) throws IOException {
+        append(gameId, SELECT_BOARD, 0, engine.currentBoardIndex(), 0, 0, engine);
+    }
+
+    // 记录一次悔棋；engine为撤销后的引擎
+    // 引擎的撤销记录不跨越关键帧（载入关键帧后没有可撤销的操作），所以悔棋后立即写关键帧，重放时从它开始
+    public void recordUndo(int gameId, GameEngine engine) throws IOException {
+        append(gameId, UNDO, 0, engine.currentBoardIndex(), 0, 0, engine);
+        GameIndex game = index(gameId);
+        if (game.entries % KEYFRAME_INTERVAL != 0) {
+            writeKeyframe(gameId, game, engine);
+        }
+    }
+
+    private void append(int gameId, byte kind, int arg, int board, int row, int col, GameEngine engine)
+            throws IOException {
+        GameIndex game = index(gameId);
+        long offset = reserve(RECORD_SIZE);
+        ByteBuffer chunk = chunks.get(chunkIndex(offset));
+        int pos = chunkPosition(offset);
+        chunk.put(pos + 1, (byte) arg);
+        chunk.putShort(pos + 2, (short) gameId);
+        chunk.putShort(pos + 4, (short) checkShort(board));
+        chunk.put(pos + 6, (byte) row);
+        chunk.put(pos + 7, (byte) col);
+        chunk.put(pos, kind);
+        game.addRecord(offset);
+        if (game.entries % KEYFRAME_INTERVAL == 0) {
+            writeKeyframe(gameId, game, engine);
+        }
+    }
+
+    // 关键帧：记录头之后是u32记录序号、u32局面长度和局面字节，整体补齐到8字节
+    private void writeKeyframe(int gameId, GameIndex game, GameEngine engine) throws IOException {
+        int length = engine.stateSize();
+        int size = keyframeSize(length);
+        if (size > CHUNK_SIZE) {
+            return;
+        }
+        if (stateBuffer.capacity() < length) {
+            stateBuffer = ByteBuffer.allocate(length);
+        }
+        stateBuffer.clear();
+        engine.writeState(stateBuffer);
+        stateBuffer.flip();
+
+        long offset = reserve(size);
+        ByteBuffer chunk = chunks.get(chunkIndex(offset));
+        int pos = chunkPosition(offset);
+        chunk.putShort(pos + 2, (short) gameId);
+        chunk.putInt(pos + 8, game.entries);
+        chunk.putInt(pos + 12, length);
+        ByteBuffer body = chunk.duplicate();
+        body.position(pos + 16);
+        body.put(stateBuffer);
+        chunk.put(pos, KEYFRAME);
+        game.addKeyframe(game.entries, offset);
+    }
+
+    // 在文件末尾预留size字节；当前分块放不下时写SKIP并换到下一块
+    private long reserve(int size) throws IOException {
+        int remaining = CHUNK_SIZE - chunkPosition(writeOffset);
+        if (size > remaining) {
+            chunks.get(chunkIndex(writeOffset)).put(chunkPosition(writeOffset), SKIP);
+            writeOffset = nextChunk(writeOffset);
+        }
+        int index = chunkIndex(writeOffset);
+        while (index >= chunks.size()) {
+            mapChunk(chunks.size());
+        }
+        long offset = writeOffset;
+        writeOffset += size;
+        return offset;
+    }
+
+    // ---- 查询与重放 ----
+
+    // 按开始顺序排列的游戏编号
+    public List<Integer> gameIds() {
+        return new ArrayList<>(games.keySet());
+    }
+
+    public GameMode mode(int gameId) {
+        return index(gameId).mode;
+    }
+
+    public int boardCount(int gameId) {
+        return index(gameId).boardCount;
+    }
+
+    // 该游戏记录的操作数（落子、Pass、炸弹、切换棋盘和悔棋）
+    public int entryCount(int gameId) {
+        return index(gameId).entries;
+    }
+
+    public GameEngine replay(int gameId) {
+        return replay(gameId, entryCount(gameId));
+    }
+
+    // 重建执行完前entries条操作后的局面
+    public GameEngine replay(int gameId, int entries) {
+        GameIndex game = index(gameId);
+        GameEngine engine = game.mode.createEngine(game.boardCount);
+        replayInto(gameId, entries, engine);
+        return engine;
+    }
+
+    public void replayInto(int gameId, GameEngine engine) {
+        replayInto(gameId, entryCount(gameId), engine);
+    }
+
+    // 在已创建的引擎上重放（引擎须为对应模式的新引擎）：先载入entries之前最近的关键帧，再执行其后的记录
+    public void replayInto(int gameId, int entries, GameEngine engine) {
+        GameIndex game = index(gameId);
+        if (entries < 0 || entries > game.entries) {
+            throw new IllegalArgumentException("游戏#" + gameId + "只有" + game.entries + "条记录：" + entries);
+        }
+        if (engine.boardCount() != game.boardCount) {
+            throw new IllegalArgumentException("棋盘数量不一致：日志中为" + game.boardCount + "，引擎中为" + engine.boardCount());
+        }
+        int applied = 0;
+        int keyframe = latestKeyframe(game, entries);
+        if (keyframe >= 0) {
+            long keyframeOffset = game.keyframeOffsets[keyframe];
+            ByteBuffer chunk = chunks.get(chunkIndex(keyframeOffset));
+            int pos = chunkPosition(keyframeOffset);
+            ByteBuffer state = chunk.duplicate();
+            state.position(pos + 16).limit(pos + 16 + chunk.getInt(pos + 12));
+            engine.readState(state);
+            applied = game.keyframeEntries[keyframe];
+        }
+        for (; applied < entries; applied++) {
+            long offset = (long) game.records[applied] * RECORD_SIZE;
+            ByteBuffer chunk = chunks.get(chunkIndex(offset));
+            int pos = chunkPosition(offset);
+            MoveResult result;
+            byte kind = chunk.get(pos);
+            if (kind == SELECT_BOARD) {
+                result = engine.selectBoard(chunk.getShort(pos + 4) & 0xFFFF);
+            } else if (kind == UNDO) {
+                result = engine.undo();
+            } else {
+                int board = chunk.getShort(pos + 4) & 0xFFFF;
+                if (board != engine.currentBoardIndex()) {
+                    engine.selectBoard(board);
+                }
+                result = engine.apply(decodeMove(chunk, pos));
+            }
+            if (result != MoveResult.OK) {
+                throw new IllegalStateException("游戏#" + gameId + "的第" + applied + "条记录无法重放：" + result.getMessage());
+            }
+        }
+    }
+
+    private static Move decodeMove(ByteBuffer chunk, int pos) {
+        int row = chunk.get(pos + 6) & 0xFF;
+        int col = chunk.get(pos + 7) & 0xFF;
+        switch (MOVE_TYPES[chunk.get(pos + 1)]) {
+            case PASS:
+                return Move.pass();
+            case BOMB:
+                return Move.bomb(row, col);
+            default:
+                return Move.place(row, col);
+        }
+    }
+
+    private static int latestKeyframe(GameIndex game, int entries) {
+        for (int i = game.keyframes - 1; i >= 0; i--) {
+            if (game.keyframeEntries[i] <= entries) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 把已写入的内容刷到磁盘；平时依赖操作系统的页缓存
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // ---- 工具方法 ----
+
+    private MappedByteBuffer mapChunk(int index) throws IOException {
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * CHUNK_SIZE, CHUNK_SIZE);
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    private GameIndex index(int gameId) {
+        GameIndex game = games.get(gameId);
+        if (game == null) {
+            throw new IllegalArgumentException("日志中没有游戏#" + gameId);
+        }
+        return game;
+    }
+
+    private static int keyframeSize(int stateLength) {
+        return (16 + stateLength + RECORD_SIZE - 1) & -RECORD_SIZE;
+    }
+
+    private static int chunkIndex(long offset) {
+        return (int) (offset >>> CHUNK_BITS);
+    }
+
+    private static int chunkPosition(long offset) {
+        return (int) offset & (CHUNK_SIZE - 1);
+    }
+
+    private static long nextChunk(long offset) {
+        return ((offset >>> CHUNK_BITS) + 1) << CHUNK_BITS;
+    }
+
+    private static int checkShort(int value) {
+        if (value < 0 || value > 0xFFFF) {
+            throw new IllegalArgumentException("数值超出日志范围：" + value);
+        }
+        return value;
+    }
+
+    private static int checkByte(int value) {
+        if (value < 0 || value > 0xFF) {
+            throw new IllegalArgumentException("数值超出日志范围：" + value);
+        }
+        return value;
+    }
+
+    // 查看日志内容并测量重放速度：MoveJournal <文件>
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("用法: MoveJournal <日志文件>");
+            return;
+        }
+        try (MoveJournal journal = open(Paths.get(args[0]))) {
+            long entries = 0;
+            long start = System.nanoTime();
+            for (int gameId : journal.gameIds()) {
+                long gameStart = System.nanoTime();
+                GameEngine engine = journal.replay(gameId);
+                entries += journal.entryCount(gameId);
+                if (journal.games.size() <= 20) {
+                    System.out.printf("游戏#%d %s：%d 个棋盘，%d 条记录，状态 %s，重放 %.2f ms%n",
+                            gameId, journal.mode(gameId).getName(), journal.boardCount(gameId),
+                            journal.entryCount(gameId), engine.status(), (System.nanoTime() - gameStart) / 1e6);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("共 %d 局 %d 条记录，%.3f 秒，%.0f 条/秒%n",
+                    journal.games.size(), entries, seconds, entries / seconds);
+        }
+    }
+}
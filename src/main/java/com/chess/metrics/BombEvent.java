@@ -0,0 +1,36 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR事件：五子棋炸弹把对方棋子变为弹坑（只在执行成功时提交）
+@Name("com.chess.Bomb")
+@Label("Bomb Detonation")
+@Category({"Chess", "Game"})
+@Description("五子棋炸弹炸掉对方棋子")
+@StackTrace(false)
+@Threshold("0 ms")
+public class BombEvent extends Event {
+    @Label("Game Id")
+    public int gameId;
+
+    @Label("Board")
+    public int board;
+
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Bombs Left")
+    public int bombsLeft;
+}
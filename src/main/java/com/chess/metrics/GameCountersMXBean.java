@@ -0,0 +1,20 @@
+package com.chess.metrics;
+
+import java.util.Map;
+
+// 计数器（JMX属性），按游戏模式分开的计数以模式名为键
+public interface GameCountersMXBean {
+    Map<String, Long> getMovesByMode();
+
+    Map<String, Long> getGamesCreatedByMode();
+
+    long getMoves();
+
+    long getBombsUsed();
+
+    long getRejectedMoves();
+
+    long getInvalidInputs();
+
+    void reset();
+}
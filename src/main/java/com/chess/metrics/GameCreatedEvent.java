@@ -0,0 +1,27 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR事件：通过addNewGame新建游戏（含创建引擎和写日志的耗时）；新建游戏很少，默认记录调用栈
+@Name("com.chess.GameCreated")
+@Label("Game Created")
+@Category({"Chess", "Game"})
+@Description("通过addNewGame新建一个游戏")
+@StackTrace(true)
+@Threshold("0 ms")
+public class GameCreatedEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Game Id")
+    public int gameId;
+
+    @Label("Board Count")
+    public int boardCount;
+}
@@ -0,0 +1,30 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR事件：一次checkGameEnd判断
+@Name("com.chess.CheckGameEnd")
+@Label("Game End Check")
+@Category({"Chess", "Game"})
+@Description("判断当前棋盘的对局是否结束")
+@StackTrace(false)
+@Threshold("0 ms")
+public class GameEndCheckEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Game Id")
+    public int gameId;
+
+    @Label("Status")
+    public String status;
+
+    @Label("Winner")
+    public String winner;
+}
@@ -0,0 +1,20 @@
+package com.chess.metrics;
+
+// 单个阶段的耗时分布（JMX属性，单位为微秒）
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getMaxMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    void reset();
+}
@@ -0,0 +1,200 @@
+package com.chess.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import com.chess.service.Game.GameMode;
+
+// 运行指标：输入解析、规则校验、终局判断、棋盘渲染各阶段的耗时直方图，以及落子、炸弹、无效输入、新建游戏的计数
+// 通过JMX发布（com.chess:type=Latency,phase=...和com.chess:type=Counters），可以用JConsole或jcmd查看
+// 默认关闭，-Dchess.metrics=true开启；ENABLED是static final，关闭时调用点的分支被JIT消除，只剩一次常量判断
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("chess.metrics");
+
+    public enum Phase {
+        // 从读到一行输入到解析出操作
+        PARSE("parse"),
+        // 引擎校验并执行操作
+        RULES("rules"),
+        CHECK_GAME_END("checkGameEnd"),
+        RENDER("render");
+
+        private final String name;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final GameMode[] MODES = GameMode.values();
+    private static final LatencyHistogram[] LATENCIES = new LatencyHistogram[Phase.values().length];
+    private static final Counters COUNTERS = new Counters();
+
+    static {
+        for (Phase phase : Phase.values()) {
+            LATENCIES[phase.ordinal()] = new LatencyHistogram();
+        }
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    private static final class Counters implements GameCountersMXBean {
+        final LongAdder[] moves = newAdders(MODES.length);
+        final LongAdder[] gamesCreated = newAdders(MODES.length);
+        final LongAdder bombs = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder invalidInputs = new LongAdder();
+
+        private static LongAdder[] newAdders(int n) {
+            LongAdder[] adders = new LongAdder[n];
+            for (int i = 0; i < n; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+
+        private static Map<String, Long> byMode(LongAdder[] adders) {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (GameMode mode : MODES) {
+                values.put(mode.getName(), adders[mode.ordinal()].sum());
+            }
+            return values;
+        }
+
+        @Override
+        public Map<String, Long> getMovesByMode() {
+            return byMode(moves);
+        }
+
+        @Override
+        public Map<String, Long> getGamesCreatedByMode() {
+            return byMode(gamesCreated);
+        }
+
+        @Override
+        public long getMoves() {
+            long sum = 0;
+            for (LongAdder adder : moves) {
+                sum += adder.sum();
+            }
+            return sum;
+        }
+
+        @Override
+        public long getBombsUsed() {
+            return bombs.sum();
+        }
+
+        @Override
+        public long getRejectedMoves() {
+            return rejected.sum();
+        }
+
+        @Override
+        public long getInvalidInputs() {
+            return invalidInputs.sum();
+        }
+
+        @Override
+        public void reset() {
+            for (int i = 0; i < MODES.length; i++) {
+                moves[i].reset();
+                gamesCreated[i].reset();
+            }
+            bombs.reset();
+            rejected.reset();
+            invalidInputs.reset();
+        }
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Phase phase : Phase.values()) {
+                server.registerMBean(LATENCIES[phase.ordinal()],
+                        new ObjectName("com.chess:type=Latency,phase=" + phase.getName()));
+            }
+            server.registerMBean(COUNTERS, new ObjectName("com.chess:type=Counters"));
+        } catch (JMException e) {
+            System.out.println("注册JMX指标失败：" + e.getMessage());
+        }
+    }
+
+    // 阶段开始的时间戳；关闭时为0，不读时钟
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void record(Phase phase, long start) {
+        if (ENABLED && start != 0) {
+            LATENCIES[phase.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public static void countMove(GameMode mode, boolean bomb) {
+        if (ENABLED) {
+            COUNTERS.moves[mode.ordinal()].increment();
+            if (bomb) {
+                COUNTERS.bombs.increment();
+            }
+        }
+    }
+
+    // 格式正确但被规则拒绝的操作
+    public static void countRejectedMove() {
+        if (ENABLED) {
+            COUNTERS.rejected.increment();
+        }
+    }
+
+    // 无法解析的输入
+    public static void countInvalidInput() {
+        if (ENABLED) {
+            COUNTERS.invalidInputs.increment();
+        }
+    }
+
+    // 只统计启动时的默认游戏和addNewGame，从日志恢复或读档重建的游戏不计入
+    public static void countGameCreated(GameMode mode) {
+        if (ENABLED) {
+            COUNTERS.gamesCreated[mode.ordinal()].increment();
+        }
+    }
+
+    public static LatencyHistogram latency(Phase phase) {
+        return LATENCIES[phase.ordinal()];
+    }
+
+    // 文字摘要，对局中输入metrics时显示
+    public static String report() {
+        if (!ENABLED) {
+            return "运行指标未开启，启动时加上 -Dchess.metrics=true";
+        }
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%-14s %8s %10s %10s %10s %10s%n", "阶段(微秒)", "次数", "平均", "p50", "p99", "最大"));
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = latency(phase);
+            text.append(String.format("%-14s %8d %10.1f %10.1f %10.1f %10.1f%n", phase.getName(), histogram.getCount(),
+                    histogram.getMeanMicros(), histogram.getP50Micros(), histogram.getP99Micros(),
+                    histogram.getMaxMicros()));
+        }
+        text.append("落子 ").append(COUNTERS.getMovesByMode())
+                .append("，炸弹 ").append(COUNTERS.getBombsUsed())
+                .append("，被拒绝的操作 ").append(COUNTERS.getRejectedMoves())
+                .append("，无效输入 ").append(COUNTERS.getInvalidInputs())
+                .append("，新建游戏 ").append(COUNTERS.getGamesCreatedByMode());
+        return text.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR事件：引擎执行一步操作（含被规则拒绝的操作），持续时间为校验和执行的耗时
+@Name("com.chess.Move")
+@Label("Move Applied")
+@Category({"Chess", "Game"})
+@Description("引擎校验并执行一步操作")
+@StackTrace(false)
+@Threshold("0 ms")
+public class MoveEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Game Id")
+    public int gameId;
+
+    @Label("Board")
+    public int board;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+
+    @Label("Result")
+    public String result;
+
+    // 黑白棋落子翻转的对方棋子数，其他情况为0
+    @Label("Flips")
+    public int flips;
+}
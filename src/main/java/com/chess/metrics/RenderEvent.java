@@ -0,0 +1,27 @@
+package com.chess.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// JFR事件：主循环中完整绘制一帧棋盘（displayBoard）
+@Name("com.chess.Render")
+@Label("Board Render")
+@Category({"Chess", "View"})
+@Description("主循环绘制一帧棋盘")
+@StackTrace(false)
+@Threshold("0 ms")
+public class RenderEvent extends Event {
+    @Label("Mode")
+    public String mode;
+
+    @Label("Game Id")
+    public int gameId;
+
+    @Label("Board Size")
+    public int boardSize;
+}
@@ -0,0 +1,109 @@
+package com.chess.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// 一个非阻塞连接：按帧拆分收到的数据，发送队列中的缓冲区可以与其他连接共享内容
+class Connection {
+    // 发送队列上限，超过说明对方读得太慢，直接断开，避免拖累整个事件循环
+    static final int MAX_QUEUED_FRAMES = 4096;
+
+    interface FrameHandler {
+        void onFrame(Connection connection, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME * 2);
+    private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+    private ByteBuffer[] gather = new ByteBuffer[16];
+    // 服务器端为所在对局，客户端为脚本状态
+    Object attachment;
+    byte seat = Protocol.SEAT_SPECTATOR;
+
+    Connection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    // 读取可用数据并逐帧交给handler；返回false表示连接已关闭或数据非法
+    boolean read(FrameHandler handler) throws IOException {
+        int count = channel.read(in);
+        if (count < 0) {
+            return false;
+        }
+        in.flip();
+        while (in.remaining() >= 2) {
+            int length = in.getShort(in.position()) & 0xFFFF;
+            if (length == 0 || length > Protocol.MAX_FRAME) {
+                return false;
+            }
+            if (in.remaining() < 2 + length) {
+                break;
+            }
+            int frameEnd = in.position() + 2 + length;
+            byte type = in.get(in.position() + 2);
+            ByteBuffer payload = in.duplicate();
+            payload.position(in.position() + Protocol.HEADER_SIZE).limit(frameEnd);
+            handler.onFrame(this, type, payload);
+            in.position(frameEnd);
+        }
+        in.compact();
+        return true;
+    }
+
+    // 加入发送队列（共享内容，各自独立的读写位置）
+    boolean send(ByteBuffer frame) {
+        if (out.size() >= MAX_QUEUED_FRAMES) {
+            return false;
+        }
+        out.add(frame.duplicate());
+        if (out.size() == 1 && key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+        return true;
+    }
+
+    // 聚集写出队列中的帧，写完后取消写兴趣
+    void flush() throws IOException {
+        while (!out.isEmpty()) {
+            int count = Math.min(out.size(), 1024);
+            if (gather.length < count) {
+                gather = new ByteBuffer[Math.max(count, gather.length * 2)];
+            }
+            int k = 0;
+            for (ByteBuffer buffer : out) {
+                if (k == count) {
+                    break;
+                }
+                gather[k++] = buffer;
+            }
+            channel.write(gather, 0, count);
+            boolean partial = gather[count - 1].hasRemaining();
+            Arrays.fill(gather, 0, count, null);
+            while (!out.isEmpty() && !out.peek().hasRemaining()) {
+                out.poll();
+            }
+            // 套接字发送缓冲区已满，等下一次可写事件
+            if (partial) {
+                break;
+            }
+        }
+        if (out.isEmpty() && key.isValid()) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    void close() {
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 关闭失败时无需处理
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.chess.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import com.chess.engine.Move;
+import com.chess.service.Game.GameMode;
+
+// 基于NIO Selector的多人对局服务器：单线程事件循环托管所有对局
+// 引擎的每步操作只需要几百纳秒，所有对局放在一个线程里就不需要任何锁
+// 用法：java -cp chess-game.jar com.chess.net.GameServer [端口]
+public class GameServer implements Runnable, Connection.FrameHandler {
+    public static final int DEFAULT_PORT = 7777;
+
+    private static final GameMode[] MODES = GameMode.values();
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, Session> sessions = new HashMap<>();
+    private final List<Connection> overflowed = new ArrayList<>();
+    private int nextSessionId = 1;
+    private volatile boolean running = true;
+
+    public GameServer(int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable() && !connection.read(this)) {
+                            disconnect(connection);
+                            continue;
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException e) {
+                        disconnect(connection);
+                    }
+                }
+                dropOverflowed();
+            }
+        } catch (IOException e) {
+            System.out.println("服务器异常: " + e.getMessage());
+        } finally {
+            closeAll();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    @Override
+    public void onFrame(Connection connection, byte type, ByteBuffer payload) {
+        Session session = (Session) connection.attachment;
+        switch (type) {
+            case Protocol.CREATE:
+                if (session != null || payload.remaining() < 1) {
+                    reply(connection, Protocol.error(Protocol.ERROR_BAD_REQUEST));
+                    return;
+                }
+                int mode = payload.get();
+                if (mode < 0 || mode >= MODES.length) {
+                    reply(connection, Protocol.error(Protocol.ERROR_BAD_REQUEST));
+                    return;
+                }
+                session = new Session(nextSessionId++, MODES[mode]);
+                sessions.put(session.id, session);
+                join(connection, session, Protocol.ROLE_PLAYER);
+                return;
+            case Protocol.JOIN:
+                if (session != null || payload.remaining() < 5) {
+                    reply(connection, Protocol.error(Protocol.ERROR_BAD_REQUEST));
+                    return;
+                }
+                Session target = sessions.get(payload.getInt());
+                if (target == null) {
+                    reply(connection, Protocol.error(Protocol.ERROR_NO_SUCH_SESSION));
+                    return;
+                }
+                join(connection, target, payload.get());
+                return;
+            case Protocol.MOVE:
+                if (session == null || payload.remaining() < 3) {
+                    reply(connection, Protocol.error(Protocol.ERROR_BAD_REQUEST));
+                    return;
+                }
+                Move move = Protocol.readMove(payload);
+                ByteBuffer frame = session.move(connection, move);
+                if (frame.get(2) == Protocol.DELTA) {
+                    session.broadcast(frame, overflowed);
+                } else {
+                    reply(connection, frame);
+                }
+                return;
+            default:
+                reply(connection, Protocol.error(Protocol.ERROR_BAD_REQUEST));
+        }
+    }
+
+    private void join(Connection connection, Session session, byte role) {
+        int seat = session.join(connection, role);
+        if (seat < 0) {
+            reply(connection, Protocol.error(Protocol.ERROR_SESSION_FULL));
+            return;
+        }
+        reply(connection, Protocol.joined(session.id, (byte) seat, (byte) session.mode.ordinal()));
+        if (role == Protocol.ROLE_PLAYER) {
+            // 玩家数变化时所有人都需要知道
+            session.broadcast(session.snapshot(), overflowed);
+        } else {
+            reply(connection, session.snapshot());
+        }
+    }
+
+    private void reply(Connection connection, ByteBuffer frame) {
+        if (!connection.send(frame)) {
+            overflowed.add(connection);
+        }
+    }
+
+    private void dropOverflowed() {
+        for (int i = 0; i < overflowed.size(); i++) {
+            disconnect(overflowed.get(i));
+        }
+        overflowed.clear();
+    }
+
+    private void disconnect(Connection connection) {
+        Session session = (Session) connection.attachment;
+        if (session != null) {
+            connection.attachment = null;
+            session.leave(connection);
+            if (session.isEmpty()) {
+                sessions.remove(session.id);
+            }
+        }
+        connection.close();
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // 关闭失败时无需处理
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // 关闭失败时无需处理
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer gameServer = new GameServer(port);
+        System.out.println("对局服务器已启动，端口 " + gameServer.getPort());
+        gameServer.run();
+    }
+}
@@ -0,0 +1,157 @@
+package com.chess.net;
+
+import java.nio.ByteBuffer;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+
+// 二进制协议：每帧为 [u16 长度][u8 类型][负载]，长度不含自身的两个字节，整数均为大端序
+// 客户端 -> 服务器：
+//   CREATE    u8 模式（Game.GameMode序号）                     创建对局并坐到黑方
+//   JOIN      u32 对局号, u8 角色（ROLE_PLAYER / ROLE_SPECTATOR） 加入对局
+//   MOVE      u8 操作类型（Move.Type序号）, u8 行, u8 列
+// 服务器 -> 客户端：
+//   JOINED    u32 对局号, u8 座位（0观战/1黑/2白）, u8 模式
+//   SNAPSHOT  u8 棋盘大小, u8 行棋方, u8 状态, u8 胜者, u8 玩家数, 然后逐格u8棋子（Piece序号）
+//   DELTA     u32 手数, u8 操作类型, u8 行, u8 列, u8 行棋方, u8 状态, u8 胜者, u8 变化格数, 然后每格 u8 行, u8 列, u8 棋子
+//   ERROR     u8 错误码（小于100为MoveResult序号，其余见下方常量）
+public final class Protocol {
+    public static final byte CREATE = 1;
+    public static final byte JOIN = 2;
+    public static final byte MOVE = 3;
+
+    public static final byte JOINED = (byte) 0x81;
+    public static final byte SNAPSHOT = (byte) 0x82;
+    public static final byte DELTA = (byte) 0x83;
+    public static final byte ERROR = (byte) 0x84;
+
+    public static final byte ROLE_PLAYER = 1;
+    public static final byte ROLE_SPECTATOR = 2;
+
+    public static final byte SEAT_SPECTATOR = 0;
+    public static final byte SEAT_BLACK = 1;
+    public static final byte SEAT_WHITE = 2;
+
+    // 不是行棋结果的错误码
+    public static final byte ERROR_NOT_YOUR_TURN = 100;
+    public static final byte ERROR_NO_SUCH_SESSION = 101;
+    public static final byte ERROR_SESSION_FULL = 102;
+    public static final byte ERROR_BAD_REQUEST = 103;
+    public static final byte ERROR_WAITING_FOR_OPPONENT = 104;
+
+    // 没有胜者时写入的值
+    public static final byte NO_WINNER = -1;
+
+    public static final int HEADER_SIZE = 3;
+    public static final int MAX_FRAME = 4096;
+
+    private static final Piece[] PIECES = Piece.values();
+    private static final Move.Type[] MOVE_TYPES = Move.Type.values();
+
+    private Protocol() {
+    }
+
+    public static ByteBuffer create(byte mode) {
+        ByteBuffer buffer = begin(CREATE, 1);
+        buffer.put(mode);
+        return end(buffer);
+    }
+
+    public static ByteBuffer join(int sessionId, byte role) {
+        ByteBuffer buffer = begin(JOIN, 5);
+        buffer.putInt(sessionId).put(role);
+        return end(buffer);
+    }
+
+    public static ByteBuffer move(Move move) {
+        ByteBuffer buffer = begin(MOVE, 3);
+        buffer.put((byte) move.getType().ordinal()).put((byte) move.getRow()).put((byte) move.getCol());
+        return end(buffer);
+    }
+
+    public static ByteBuffer joined(int sessionId, byte seat, byte mode) {
+        ByteBuffer buffer = begin(JOINED, 6);
+        buffer.putInt(sessionId).put(seat).put(mode);
+        return end(buffer);
+    }
+
+    public static ByteBuffer error(byte code) {
+        ByteBuffer buffer = begin(ERROR, 1);
+        buffer.put(code);
+        return end(buffer);
+    }
+
+    public static ByteBuffer snapshot(GameEngine engine, int players) {
+        Board board = engine.board();
+        int size = board.getSize();
+        ByteBuffer buffer = begin(SNAPSHOT, 5 + size * size);
+        buffer.put((byte) size)
+                .put(pieceCode(engine.sideToMove()))
+                .put((byte) engine.status().ordinal())
+                .put(winnerCode(engine.winner()))
+                .put((byte) players);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                buffer.put(pieceCode(board.getPiece(i, j)));
+            }
+        }
+        return end(buffer);
+    }
+
+    // changes中每三个字节为一个变化的格子（行、列、棋子）
+    public static ByteBuffer delta(int moveNumber, Move move, GameEngine engine, byte[] changes, int changeCount) {
+        ByteBuffer buffer = begin(DELTA, 11 + changeCount * 3);
+        buffer.putInt(moveNumber)
+                .put((byte) move.getType().ordinal())
+                .put((byte) move.getRow())
+                .put((byte) move.getCol())
+                .put(pieceCode(engine.sideToMove()))
+                .put((byte) engine.status().ordinal())
+                .put(winnerCode(engine.winner()))
+                .put((byte) changeCount)
+                .put(changes, 0, changeCount * 3);
+        return end(buffer);
+    }
+
+    public static Move readMove(ByteBuffer payload) {
+        int type = payload.get();
+        int row = payload.get();
+        int col = payload.get();
+        if (type < 0 || type >= MOVE_TYPES.length) {
+            return null;
+        }
+        switch (MOVE_TYPES[type]) {
+            case PLACE:
+                return Move.place(row, col);
+            case BOMB:
+                return Move.bomb(row, col);
+            default:
+                return Move.pass();
+        }
+    }
+
+    public static byte pieceCode(Piece piece) {
+        return (byte) piece.ordinal();
+    }
+
+    public static Piece piece(int code) {
+        return PIECES[code];
+    }
+
+    private static byte winnerCode(Piece winner) {
+        return winner == null ? NO_WINNER : pieceCode(winner);
+    }
+
+    private static ByteBuffer begin(byte type, int payloadLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        buffer.putShort((short) (1 + payloadLength)).put(type);
+        return buffer;
+    }
+
+    // 编码完成后切换为只读，方便多个连接共享同一份内容
+    private static ByteBuffer end(ByteBuffer buffer) {
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+}
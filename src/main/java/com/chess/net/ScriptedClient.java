@@ -0,0 +1,185 @@
+package com.chess.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GameStatus;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+// 脚本客户端：在一个Selector上同时驱动大量对局，双方随机落子，观战者只接收增量
+// 每个玩家连接在本地保存一份引擎副本，用来生成合法操作并校验服务器的增量
+// 用法：java -cp chess-game.jar com.chess.net.ScriptedClient <主机> <端口> <对局数> <每局观战人数> [peace|reversi|gomoku]
+public class ScriptedClient implements Connection.FrameHandler {
+    private final Selector selector;
+    private final InetSocketAddress address;
+    private final GameMode mode;
+    private final int spectatorsPerSession;
+    private final SplittableRandom random = new SplittableRandom();
+    private final List<Move> moves = new ArrayList<>();
+
+    private int sessionsStarted;
+    private int sessionsFinished;
+    private long movesPlayed;
+    private long deltasReceived;
+    private long bytesReceived;
+    private long errors;
+
+    // 玩家连接的状态
+    private static class Player {
+        final GameEngine replica;
+        int sessionId;
+        boolean opponentJoined;
+
+        Player(GameEngine replica) {
+            this.replica = replica;
+        }
+    }
+
+    public ScriptedClient(String host, int port, GameMode mode, int spectatorsPerSession) throws IOException {
+        this.selector = Selector.open();
+        this.address = new InetSocketAddress(host, port);
+        this.mode = mode;
+        this.spectatorsPerSession = spectatorsPerSession;
+    }
+
+    // 创建sessions个对局并运行到全部结束
+    public void run(int sessions) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            Connection black = connect(new Player(createReplica()));
+            black.send(Protocol.create((byte) mode.ordinal()));
+            black.flush();
+            sessionsStarted++;
+        }
+        while (sessionsFinished < sessionsStarted) {
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Connection connection = (Connection) key.attachment();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isReadable()) {
+                    if (!connection.read(this)) {
+                        throw new IOException("服务器关闭了连接");
+                    }
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.flush();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("对局 %d 局，连接 %d 个，共 %d 手，用时 %d ms，%.0f 手/秒%n",
+                sessionsFinished, selector.keys().size(), movesPlayed, elapsed / 1000000,
+                movesPlayed * 1e9 / elapsed);
+        System.out.printf("收到增量 %d 条，数据 %d 字节，错误 %d 条%n", deltasReceived, bytesReceived, errors);
+        for (SelectionKey key : selector.keys()) {
+            ((Connection) key.attachment()).close();
+        }
+        selector.close();
+    }
+
+    private Connection connect(Object attachment) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Connection connection = new Connection(channel, key);
+        connection.attachment = attachment;
+        key.attach(connection);
+        return connection;
+    }
+
+    private GameEngine createReplica() {
+        return mode.createEngine(1);
+    }
+
+    @Override
+    public void onFrame(Connection connection, byte type, ByteBuffer payload) throws IOException {
+        bytesReceived += Protocol.HEADER_SIZE + payload.remaining();
+        if (!(connection.attachment instanceof Player)) {
+            // 观战者只统计增量
+            if (type == Protocol.DELTA) {
+                deltasReceived++;
+            }
+            return;
+        }
+        Player player = (Player) connection.attachment;
+        switch (type) {
+            case Protocol.JOINED:
+                player.sessionId = payload.getInt();
+                connection.seat = payload.get();
+                if (connection.seat == Protocol.SEAT_BLACK) {
+                    // 黑方建好对局后再让白方和观战者加入
+                    Connection white = connect(new Player(createReplica()));
+                    white.send(Protocol.join(player.sessionId, Protocol.ROLE_PLAYER));
+                    for (int i = 0; i < spectatorsPerSession; i++) {
+                        connect(null).send(Protocol.join(player.sessionId, Protocol.ROLE_SPECTATOR));
+                    }
+                }
+                return;
+            case Protocol.SNAPSHOT:
+                payload.position(payload.position() + 4);
+                player.opponentJoined = payload.get() == 2;
+                playIfMyTurn(connection, player);
+                return;
+            case Protocol.DELTA:
+                deltasReceived++;
+                payload.getInt();
+                Move move = Protocol.readMove(payload);
+                if (player.replica.apply(move) != MoveResult.OK) {
+                    throw new IOException("服务器广播了本地副本认为非法的操作: " + move);
+                }
+                byte status = payload.get(payload.position() + 1);
+                if (status != GameStatus.IN_PROGRESS.ordinal() && connection.seat == Protocol.SEAT_BLACK) {
+                    sessionsFinished++;
+                }
+                playIfMyTurn(connection, player);
+                return;
+            case Protocol.ERROR:
+                errors++;
+                return;
+            default:
+                errors++;
+        }
+    }
+
+    private void playIfMyTurn(Connection connection, Player player) {
+        GameEngine replica = player.replica;
+        if (!player.opponentJoined || replica.status() != GameStatus.IN_PROGRESS) {
+            return;
+        }
+        Piece mine = (connection.seat == Protocol.SEAT_BLACK) ? Piece.BLACK : Piece.WHITE;
+        if (replica.sideToMove() != mine) {
+            return;
+        }
+        replica.legalMoves(moves);
+        connection.send(Protocol.move(moves.get(random.nextInt(moves.size()))));
+        movesPlayed++;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("用法: ScriptedClient <主机> <端口> <对局数> <每局观战人数> [peace|reversi|gomoku]");
+            return;
+        }
+        GameMode mode = args.length > 4 ? GameMode.valueOf(args[4].toUpperCase()) : GameMode.REVERSI;
+        ScriptedClient client = new ScriptedClient(args[0], Integer.parseInt(args[1]), mode, Integer.parseInt(args[3]));
+        client.run(Integer.parseInt(args[2]));
+    }
+}
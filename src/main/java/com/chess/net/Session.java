@@ -0,0 +1,144 @@
+package com.chess.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+// 服务器上的一局对局：一个单棋盘引擎、两个玩家座位和任意多个观战者
+// 只在事件循环线程中访问，不需要加锁
+class Session {
+    final int id;
+    final GameMode mode;
+    private final GameEngine engine;
+    private Connection black;
+    private Connection white;
+    private final List<Connection> spectators = new ArrayList<>();
+    // 上一次广播时的棋盘内容，用于计算变化的格子
+    private final byte[] mirror;
+    private byte[] changes;
+    private int moveNumber;
+
+    Session(int id, GameMode mode) {
+        this.id = id;
+        this.mode = mode;
+        this.engine = mode.createEngine(1);
+        Board board = engine.board();
+        int size = board.getSize();
+        mirror = new byte[size * size];
+        changes = new byte[size * size * 3];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                mirror[i * size + j] = Protocol.pieceCode(board.getPiece(i, j));
+            }
+        }
+    }
+
+    // 按角色加入，返回座位；座位已满时返回-1
+    int join(Connection connection, byte role) {
+        if (role == Protocol.ROLE_PLAYER) {
+            if (black == null) {
+                black = connection;
+                connection.seat = Protocol.SEAT_BLACK;
+            } else if (white == null) {
+                white = connection;
+                connection.seat = Protocol.SEAT_WHITE;
+            } else {
+                return -1;
+            }
+        } else {
+            spectators.add(connection);
+            connection.seat = Protocol.SEAT_SPECTATOR;
+        }
+        connection.attachment = this;
+        return connection.seat;
+    }
+
+    // 有人加入后给所有人发送完整局面（包含当前玩家数）
+    ByteBuffer snapshot() {
+        return Protocol.snapshot(engine, playerCount());
+    }
+
+    // 执行玩家的操作：成功时返回要广播的增量帧；失败时返回错误码，只回复给该玩家
+    ByteBuffer move(Connection connection, Move move) {
+        if (connection.seat == Protocol.SEAT_SPECTATOR || move == null) {
+            return Protocol.error(Protocol.ERROR_BAD_REQUEST);
+        }
+        if (black == null || white == null) {
+            return Protocol.error(Protocol.ERROR_WAITING_FOR_OPPONENT);
+        }
+        Piece seatPiece = (connection == black) ? Piece.BLACK : Piece.WHITE;
+        if (engine.sideToMove() != seatPiece) {
+            return Protocol.error(Protocol.ERROR_NOT_YOUR_TURN);
+        }
+        MoveResult result = engine.apply(move);
+        if (result != MoveResult.OK) {
+            return Protocol.error((byte) result.ordinal());
+        }
+        moveNumber++;
+        return Protocol.delta(moveNumber, move, engine, changes, collectChanges());
+    }
+
+    // 与上次广播的棋盘比较，写出变化的格子
+    private int collectChanges() {
+        Board board = engine.board();
+        int size = board.getSize();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                byte code = Protocol.pieceCode(board.getPiece(i, j));
+                if (mirror[i * size + j] != code) {
+                    mirror[i * size + j] = code;
+                    changes[count * 3] = (byte) i;
+                    changes[count * 3 + 1] = (byte) j;
+                    changes[count * 3 + 2] = code;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // 同一个只读缓冲区发给所有人；返回发送队列溢出的连接，由调用方断开
+    List<Connection> broadcast(ByteBuffer frame, List<Connection> overflowed) {
+        sendTo(black, frame, overflowed);
+        sendTo(white, frame, overflowed);
+        for (int i = 0; i < spectators.size(); i++) {
+            sendTo(spectators.get(i), frame, overflowed);
+        }
+        return overflowed;
+    }
+
+    private static void sendTo(Connection connection, ByteBuffer frame, List<Connection> overflowed) {
+        if (connection != null && !connection.send(frame)) {
+            overflowed.add(connection);
+        }
+    }
+
+    void leave(Connection connection) {
+        if (connection == black) {
+            black = null;
+        } else if (connection == white) {
+            white = null;
+        } else {
+            spectators.remove(connection);
+        }
+    }
+
+    boolean isEmpty() {
+        return black == null && white == null && spectators.isEmpty();
+    }
+
+    int playerCount() {
+        return (black != null ? 1 : 0) + (white != null ? 1 : 0);
+    }
+
+    int spectatorCount() {
+        return spectators.size();
+    }
+}
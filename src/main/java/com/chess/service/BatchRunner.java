@@ -0,0 +1,235 @@
+package com.chess.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GameStatus;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Board;
+import com.chess.entity.BoardStats;
+import com.chess.entity.GomokuBoard;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+// 非交互的批处理模式：从脚本文件或管道逐行读取命令，直接交给引擎执行
+// 命令格式与交互模式相同：落子（1a，五子棋为FA）、pass、@XY炸弹、undo/redo、游戏编号、棋盘号、新游戏类型（peace/reversi/gomoku）、quit
+// 空行和#开头的行被忽略；不清屏、不显示棋盘、不等待，只输出被拒绝的命令以及最后各游戏的局面和结果
+// 用法：java -cp chess-game.jar com.chess.service.BatchRunner [脚本文件|-] [--boards]
+public final class BatchRunner {
+    // 被拒绝的命令最多逐条输出这么多，其余只计数
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // 批处理中的一局：不创建Game，不读输入也不打印
+    private static final class BatchGame {
+        final int gameId;
+        final GameMode mode;
+        final GameEngine engine;
+
+        BatchGame(int gameId, GameMode mode, int boardCount) {
+            this.gameId = gameId;
+            this.mode = mode;
+            this.engine = mode.createEngine(boardCount);
+        }
+    }
+
+    private final List<BatchGame> games = new ArrayList<>();
+    private final PrintStream out;
+    private int currentGameIndex;
+    // 与交互模式一致：新游戏的棋盘数从2开始，每新增一个游戏加一
+    private int boardCount = 2;
+    private long commands;
+    private long rejected;
+
+    public BatchRunner(PrintStream out) {
+        this.out = out;
+        // 与交互模式的默认游戏列表相同
+        games.add(new BatchGame(1, GameMode.PEACE, boardCount));
+        games.add(new BatchGame(2, GameMode.REVERSI, boardCount));
+        games.add(new BatchGame(3, GameMode.GOMOKU, boardCount));
+    }
+
+    // 逐行执行直到读完或遇到quit
+    public void run(BufferedReader reader) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String input = line.trim();
+            if (input.isEmpty() || input.startsWith("#")) {
+                continue;
+            }
+            if (input.equalsIgnoreCase("quit")) {
+                break;
+            }
+            commands++;
+            String error = execute(input);
+            if (error != null) {
+                rejected++;
+                if (rejected <= MAX_REPORTED_ERRORS) {
+                    out.println("第" + lineNumber + "行 " + input + "：" + error);
+                }
+            }
+        }
+    }
+
+    // 执行一条命令，成功时返回null，否则返回原因
+    private String execute(String input) {
+        for (GameMode mode : GameMode.values()) {
+            if (input.equalsIgnoreCase(mode.getName())) {
+                games.add(new BatchGame(games.size() + 1, mode, boardCount));
+                boardCount++;
+                return null;
+            }
+        }
+        BatchGame game = games.get(currentGameIndex);
+        if (input.equalsIgnoreCase("pass")) {
+            return message(game.engine.apply(Move.pass()));
+        }
+        if (input.equalsIgnoreCase("undo")) {
+            return message(game.engine.undo());
+        }
+        if (input.equalsIgnoreCase("redo")) {
+            return message(game.engine.redo());
+        }
+        // 与交互模式相同：先按游戏编号解释数字，超出范围的单个字符再按棋盘号解释
+        try {
+            int gameIndex = Integer.parseInt(input) - 1;
+            if (gameIndex >= 0 && gameIndex < games.size()) {
+                currentGameIndex = gameIndex;
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            // 继续按其他命令处理
+        }
+        if (input.length() == 1) {
+            if (!Character.isDigit(input.charAt(0))) {
+                return "输入格式有误";
+            }
+            return message(game.engine.selectBoard(input.charAt(0) - '1'));
+        }
+        Move move = parseMove(game.mode, input);
+        if (move == null) {
+            return "输入格式有误";
+        }
+        return message(game.engine.apply(move));
+    }
+
+    private static String message(MoveResult result) {
+        return result == MoveResult.OK ? null : result.getMessage();
+    }
+
+    // 按游戏模式解析落子命令，格式错误时返回null（演示脚本也使用）
+    static Move parseMove(GameMode mode, String input) {
+        if (input.equalsIgnoreCase("pass")) {
+            return Move.pass();
+        }
+        return mode == GameMode.GOMOKU ? parseGomokuMove(input) : parseMove(input);
+    }
+
+    // 和平模式、黑白棋：行号（可以多位）+ 列字母，如1a
+    private static Move parseMove(String input) {
+        int letterPos = 0;
+        while (letterPos < input.length() && Character.isDigit(input.charAt(letterPos))) {
+            letterPos++;
+        }
+        if (letterPos == 0 || letterPos != input.length() - 1) {
+            return null;
+        }
+        int row = Integer.parseInt(input.substring(0, letterPos)) - 1;
+        int col = Character.toUpperCase(input.charAt(letterPos)) - 'A';
+        return Move.place(row, col);
+    }
+
+    // 五子棋：十六进制行号 + 列字母，如FA；@开头为炸弹
+    private static Move parseGomokuMove(String input) {
+        boolean bomb = input.startsWith("@");
+        String position = bomb ? input.substring(1) : input;
+        if (position.length() < 2) {
+            return null;
+        }
+        int row = GomokuBoard.parseRowLabel(position.substring(0, position.length() - 1));
+        int col = GomokuBoard.parseColLabel(position.substring(position.length() - 1));
+        if (row < 0 || col < 0) {
+            return null;
+        }
+        return bomb ? Move.bomb(row, col) : Move.place(row, col);
+    }
+
+    // 输出每个游戏的最终局面：一行结果，boards为true时再输出已创建的各个棋盘
+    public void printResults(boolean boards) {
+        for (BatchGame game : games) {
+            GameEngine engine = game.engine;
+            BoardStats stats = engine.board().getStats();
+            out.printf("游戏#%d %s：%s，步数 %d，当前棋盘 %d，黑 %d 白 %d%n",
+                    game.gameId, game.mode.getName(), result(engine), engine.moveCount(),
+                    engine.currentBoardIndex() + 1, stats.count(Piece.BLACK), stats.count(Piece.WHITE));
+            if (boards) {
+                for (int index = 0; index < engine.boardCount(); index++) {
+                    Board board = engine.board(index);
+                    if (board != null) {
+                        out.println("棋盘" + (index + 1) + "：");
+                        printBoard(board);
+                    }
+                }
+            }
+        }
+        out.printf("共执行 %d 条命令，拒绝 %d 条，%d 局%n", commands, rejected, games.size());
+    }
+
+    private static String result(GameEngine engine) {
+        if (engine.status() == GameStatus.IN_PROGRESS) {
+            return "进行中";
+        }
+        if (engine.winner() == null) {
+            return "平局";
+        }
+        return engine.winner() == Piece.BLACK ? "黑方胜" : "白方胜";
+    }
+
+    private void printBoard(Board board) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < board.getSize(); i++) {
+            for (int j = 0; j < board.getSize(); j++) {
+                text.append(board.getPiece(i, j).getSymbol());
+            }
+            text.append('\n');
+        }
+        out.print(text);
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String script = "-";
+        boolean boards = false;
+        for (String arg : args) {
+            if (arg.equals("--boards")) {
+                boards = true;
+            } else {
+                script = arg;
+            }
+        }
+        long start = System.nanoTime();
+        BatchRunner runner = new BatchRunner(System.out);
+        try (BufferedReader reader = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            runner.run(reader);
+        }
+        runner.printResults(boards);
+        System.out.printf("用时 %.1f 毫秒%n", (System.nanoTime() - start) / 1e6);
+        if (runner.getRejected() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.chess.service;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GameStatus;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Board;
+import com.chess.entity.GomokuBoard;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+// 演示回放：在独立的引擎上按脚本逐步落子并输出棋盘，不加入游戏列表，也不写对局日志
+// 每一步由后台的调度线程按间隔推进，输入线程照常处理当前游戏的命令；可以暂停、继续、单步、调速和停止
+// 所有状态都在this上同步，控制命令可以在任意线程中调用
+public final class DemoPlayer {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    public static final long MIN_INTERVAL_MILLIS = 50;
+    public static final long MAX_INTERVAL_MILLIS = 10000;
+
+    // 所有演示共用一个守护线程，不会阻止程序退出
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "demo-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 各模式的演示脚本，输入格式与交互模式相同
+    // 五子棋：黑方沿A列连子，白方在黑方四连后用炸弹炸掉3A，随后白方沿B列先连成五子
+    private static final String[] GOMOKU_SCRIPT = {
+            "1A", "1B", "2A", "2B", "3A", "3B", "4A", "@3A", "5A", "4B", "6A", "5B"};
+    // 黑白棋：虎式开局（f5 d6 c3 d3 c4 ...），每一步都会翻转对方棋子
+    private static final String[] REVERSI_SCRIPT = {
+            "5f", "6d", "3c", "3d", "4c", "4f", "6f", "3f", "6e", "7e"};
+    // 和平模式：任意空位都可以落子，不会翻转；中央四格开局已有棋子，脚本避开这些格子
+    private static final String[] PEACE_SCRIPT = {
+            "1a", "8h", "3c", "6f", "1h", "8a"};
+
+    private final GameMode mode;
+    private final GameEngine engine;
+    private final String[] script;
+    private final PrintStream out;
+    private long intervalMillis;
+    private int nextStep;
+    private boolean paused;
+    private boolean finished;
+    // 下一步的定时任务；暂停、单步或停止时取消
+    private ScheduledFuture<?> pending;
+
+    public DemoPlayer(GameMode mode, PrintStream out) {
+        this.mode = mode;
+        this.engine = mode.createEngine(1);
+        this.script = script(mode);
+        this.out = out;
+        this.intervalMillis = DEFAULT_INTERVAL_MILLIS;
+        this.paused = true;
+    }
+
+    private static String[] script(GameMode mode) {
+        switch (mode) {
+            case GOMOKU:
+                return GOMOKU_SCRIPT;
+            case REVERSI:
+                return REVERSI_SCRIPT;
+            default:
+                return PEACE_SCRIPT;
+        }
+    }
+
+    // 输出初始局面并开始按间隔自动播放
+    public synchronized void start() {
+        out.print(frame("演示开始，共" + script.length + "步"));
+        resume();
+    }
+
+    // 在当前线程中直接播放到结束（没有控制台、输入来自管道时使用，输出顺序确定）
+    public synchronized void runToEnd() {
+        out.print(frame("演示开始，共" + script.length + "步"));
+        while (!finished) {
+            playStep();
+        }
+    }
+
+    public synchronized void pause() {
+        paused = true;
+        cancelPending();
+    }
+
+    public synchronized void resume() {
+        if (finished) {
+            return;
+        }
+        paused = false;
+        schedule();
+    }
+
+    // 立即执行一步并转为暂停（暂停中逐步查看）
+    public synchronized void step() {
+        if (finished) {
+            return;
+        }
+        paused = true;
+        cancelPending();
+        playStep();
+    }
+
+    // 调整两步之间的间隔，播放中时立即按新间隔重新计时
+    public synchronized void setInterval(long millis) {
+        intervalMillis = Math.max(MIN_INTERVAL_MILLIS, Math.min(MAX_INTERVAL_MILLIS, millis));
+        if (!paused && !finished) {
+            cancelPending();
+            schedule();
+        }
+    }
+
+    public synchronized void cancel() {
+        if (finished) {
+            return;
+        }
+        cancelPending();
+        finished = true;
+        out.println("[演示] 已停止");
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    public synchronized long getInterval() {
+        return intervalMillis;
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    private void schedule() {
+        pending = SCHEDULER.schedule(this::tick, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    // 调度线程中执行：取消与执行可能同时发生，所以先检查状态
+    private synchronized void tick() {
+        pending = null;
+        if (paused || finished) {
+            return;
+        }
+        playStep();
+        if (!finished) {
+            schedule();
+        }
+    }
+
+    private void playStep() {
+        String input = script[nextStep++];
+        Piece side = engine.sideToMove();
+        int before = engine.board().getStats().count(side);
+        Move move = BatchRunner.parseMove(mode, input);
+        MoveResult result = move == null ? MoveResult.ILLEGAL_POSITION : engine.apply(move);
+        StringBuilder message = new StringBuilder();
+        message.append("第").append(nextStep).append('/').append(script.length).append("步：")
+                .append(side == Piece.BLACK ? "黑方" : "白方").append("输入 ").append(input);
+        if (result != MoveResult.OK) {
+            message.append("（").append(result.getMessage()).append("）");
+        } else if (move.isBomb()) {
+            message.append("（炸掉对方棋子，该位置成为弹坑，不能再落子）");
+        } else if (mode == GameMode.REVERSI) {
+            message.append("（翻转").append(engine.board().getStats().count(side) - before - 1).append("枚）");
+        }
+        if (engine.status() != GameStatus.IN_PROGRESS || nextStep == script.length) {
+            finished = true;
+            message.append('\n').append(result());
+        }
+        out.print(frame(message.toString()));
+    }
+
+    private String result() {
+        if (engine.status() == GameStatus.IN_PROGRESS) {
+            return "[演示] 演示已结束";
+        }
+        if (engine.winner() == null) {
+            return "[演示] 平局，演示已结束";
+        }
+        return "[演示] " + (engine.winner() == Piece.BLACK ? "黑方" : "白方") + "获胜，演示已结束";
+    }
+
+    // 一帧为说明加上整个棋盘，一次写出，避免与输入线程的输出交错在同一帧中
+    private String frame(String message) {
+        Board board = engine.board();
+        int size = board.getSize();
+        StringBuilder text = new StringBuilder();
+        text.append("[演示 ").append(mode.getName()).append("] ").append(message).append('\n');
+        text.append("  ");
+        for (int j = 0; j < size; j++) {
+            text.append(' ').append(mode == GameMode.GOMOKU ? GomokuBoard.getColLabel(j) : String.valueOf((char) ('A' + j)));
+        }
+        text.append('\n');
+        for (int i = 0; i < size; i++) {
+            String label = mode == GameMode.GOMOKU ? GomokuBoard.getRowLabel(i) : String.valueOf(i + 1);
+            text.append(label.length() < 2 ? " " + label : label);
+            for (int j = 0; j < size; j++) {
+                text.append(' ').append(board.getPiece(i, j).getSymbol());
+            }
+            text.append('\n');
+        }
+        text.append('\n');
+        return text.toString();
+    }
+}
@@ -1,11 +1,26 @@
 package com.chess.service;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.List;
 import java.util.ArrayList;
-import com.chess.entity.Board;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GameStatus;
+import com.chess.engine.GomokuEngine;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.engine.ReversiEngine;
 import com.chess.entity.Piece;
 import com.chess.entity.Player;
+import com.chess.journal.MoveJournal;
+import com.chess.metrics.BombEvent;
+import com.chess.metrics.GameCreatedEvent;
+import com.chess.metrics.GameEndCheckEvent;
+import com.chess.metrics.Metrics;
+import com.chess.metrics.MoveEvent;
+import com.chess.metrics.RenderEvent;
+import com.chess.view.TerminalRenderer;
 
 public class Game {
     // 游戏模式枚举
@@ -23,54 +38,72 @@ public class Game {
         public String getName() {
             return name;
         }
+
+        // 该模式的规则引擎（不带控制台）；控制台游戏和无界面的调用方都通过这里创建，新增模式只需在此添加
+        public GameEngine createEngine(int boardCount) {
+            switch (this) {
+                case REVERSI:
+                    return new ReversiEngine(boardCount);
+                case GOMOKU:
+                    return new GomokuEngine(boardCount);
+                default:
+                    return new GameEngine(boardCount);
+            }
+        }
     }
     
+    // 新游戏可选择的棋盘数，每新增一个游戏加一；只是上限，棋盘在第一次被选择时才创建
     protected static int BOARD_COUNT = 2;
-    protected static final int SCREEN_CLEAR_LINES = 80;
+    protected static final String DEFAULT_SAVE_FILE = "chess-save.bin";
+    // 所有游戏共用同一个终端，渲染器记录上一帧用于差异重绘
+    protected static final TerminalRenderer renderer = TerminalRenderer.forConsole();
     
     // 游戏管理相关属性
     protected static List<Game> gameList = new ArrayList<>();
     protected static int currentGameIndex = 0;
+    // 对局日志：所有游戏的操作都追加到这里，启动时据此恢复游戏；-Dchess.journal=none 关闭
+    private static MoveJournal journal;
     
-    protected final Board[] boards;
+    // 规则和局面都由引擎维护，Game只负责控制台输入输出
+    protected final GameEngine engine;
     protected final Player player1;
     protected final Player player2;
-    protected final Scanner scanner;
+    // 所有游戏共用一个输入：管道输入时多个各自带缓冲的Scanner会互相抢走后面的行
+    protected static final Scanner scanner = new Scanner(System.in);
     protected final GameMode gameMode;
     protected final int gameId;
+    // 是否写入对局日志
+    private boolean journaled;
+    // 本次输入开始解析的时间，用于统计解析耗时；0表示没有（如电脑行棋）
+    private long parseStart;
+    // 后台播放的演示，同一时间最多一个；演示使用自己的引擎，不在游戏列表中
+    private static DemoPlayer demo;
     
     protected int boardSize;
     protected int boardMiddle;
-    protected int currentBoardIndex;
-    protected Player currentPlayer;
-    protected boolean isGameEnded;
     protected String[] GameModeList;
-    // 构造函数，添加游戏模式和ID参数
+    // 构造函数，添加游戏模式和ID参数；棋盘数为新游戏当前可选择的数量
     public Game(String player1Name, String player2Name, GameMode gameMode, int gameId) {
+        this(player1Name, player2Name, gameMode, gameId, BOARD_COUNT);
+    }
+
+    // 指定棋盘数（恢复日志或读取存档时使用当时的棋盘数）
+    public Game(String player1Name, String player2Name, GameMode gameMode, int gameId, int boardCount) {
         this.gameMode = gameMode;
         this.gameId = gameId;
         
-        boards = new Board[BOARD_COUNT];
-        for (int i = 0; i < BOARD_COUNT; i++) {
-            boards[i] = new Board(true);
-        }
-        currentBoardIndex = 0;
+        // 创建引擎时会初始化棋盘（具体规则由模式对应的引擎实现）
+        engine = gameMode.createEngine(boardCount);
         
         player1 = new Player(player1Name, Piece.BLACK);
         player2 = new Player(player2Name, Piece.WHITE);
-        currentPlayer = player1;
         
-        scanner = new Scanner(System.in);
-        boardSize = boards[0].getSize();
+        boardSize = engine.board().getSize();
         boardMiddle = boardSize / 2;
-        isGameEnded = false;
         GameModeList = new String[GameMode.values().length];
         for(int i = 0; i < GameMode.values().length; i++){
             GameModeList[i] = GameMode.values()[i].getName();
         }
-        
-        // 初始化棋盘（具体由子类实现）
-        initializeBoard();
     }
     
     // 为保持向后兼容，提供原来的构造函数
@@ -78,42 +111,173 @@ public class Game {
         this(player1Name, player2Name, GameMode.PEACE, 1);
     }
     
-    // 初始化棋盘方法，由子类实现具体逻辑
-    protected void initializeBoard() {
-        for (int i = 0; i < BOARD_COUNT; i++) {
-            // 放置初始的中间的四个棋子
-            boards[i].placePiece(boardMiddle - 1, boardMiddle - 1, Piece.WHITE, false);
-            boards[i].placePiece(boardMiddle, boardMiddle, Piece.WHITE, false);
-            boards[i].placePiece(boardMiddle - 1, boardMiddle, Piece.BLACK, false);
-            boards[i].placePiece(boardMiddle, boardMiddle - 1, Piece.BLACK, false);
-        }
-//        fulfillBoardExceptForOne(Piece.BLACK);
-        
-        // 确保当前玩家是黑棋(Player 1)
-        currentPlayer = player1;
+    // 当前行棋的玩家由引擎的行棋方决定
+    protected Player currentPlayer() {
+        return (engine.sideToMove() == player1.getPieceType()) ? player1 : player2;
+    }
+
+    protected boolean isGameEnded() {
+        return engine.status() != GameStatus.IN_PROGRESS;
     }
 
     // 静态方法：初始化游戏列表
     public static void initializeGames() {
         if (gameList.isEmpty()) {
-            gameList.add(new Game("Player1", "Player2", GameMode.PEACE, 1));
-            gameList.add(new ReversiGame("Player1", "Player2", 2));
-            gameList.add(new GomokuGame("Player1", "Player2", 3));
+            openJournal();
+            if (journal != null && !journal.gameIds().isEmpty()) {
+                restoreGames();
+            } else {
+                gameList.add(new Game("Player1", "Player2", GameMode.PEACE, 1));
+                gameList.add(new ReversiGame("Player1", "Player2", 2));
+                gameList.add(new GomokuGame("Player1", "Player2", 3));
+                for (Game game : gameList) {
+                    Metrics.countGameCreated(game.gameMode);
+                    game.startJournal();
+                }
+            }
             currentGameIndex = 0; // 从第一个游戏开始
         }
     }
+
+    private static void openJournal() {
+        String path = System.getProperty("chess.journal", "chess-journal.bin");
+        if (path.equalsIgnoreCase("none")) {
+            return;
+        }
+        try {
+            journal = MoveJournal.open(Paths.get(path));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("无法打开对局日志" + path + "，本次不记录：" + e.getMessage());
+        }
+    }
+
+    // 按日志重建上次的所有游戏：每个游戏使用当时的棋盘数量，再重放其操作
+    private static void restoreGames() {
+        for (int gameId : journal.gameIds()) {
+            int boardCount = journal.boardCount(gameId);
+            Game game = createGame(journal.mode(gameId), gameId, boardCount);
+            try {
+                journal.replayInto(gameId, game.engine);
+            } catch (RuntimeException e) {
+                System.out.println("游戏#" + gameId + "恢复失败，保留已恢复的部分：" + e.getMessage());
+            }
+            game.journaled = true;
+            gameList.add(game);
+            BOARD_COUNT = boardCount;
+        }
+        // 与addNewGame一致：前三个游戏之后，每新增一个游戏棋盘数加一
+        if (gameList.size() > 3) {
+            BOARD_COUNT++;
+        }
+    }
+
+    static Game createGame(GameMode mode, int gameId, int boardCount) {
+        switch (mode) {
+            case REVERSI:
+                return new ReversiGame("Player1", "Player2", gameId, boardCount);
+            case GOMOKU:
+                return new GomokuGame("Player1", "Player2", gameId, boardCount);
+            default:
+                return new Game("Player1", "Player2", GameMode.PEACE, gameId, boardCount);
+        }
+    }
     
     // 静态方法：添加新游戏
     public static void addNewGame(String gameType) {
-        if (gameType.equalsIgnoreCase("peace")) {
-            gameList.add(new Game("Player1", "Player2", GameMode.PEACE, gameList.size() + 1));
-        } else if (gameType.equalsIgnoreCase("reversi")) {
-            gameList.add(new ReversiGame("Player1", "Player2", gameList.size() + 1));
-        } else if (gameType.equalsIgnoreCase("gomoku")) {
-            gameList.add(new GomokuGame("Player1", "Player2", gameList.size() + 1));
+        for (GameMode mode : GameMode.values()) {
+            if (gameType.equalsIgnoreCase(mode.getName())) {
+                GameCreatedEvent event = new GameCreatedEvent();
+                event.begin();
+                Game game = createGame(mode, gameList.size() + 1, BOARD_COUNT);
+                gameList.add(game);
+                Metrics.countGameCreated(mode);
+                game.startJournal();
+                event.end();
+                if (event.shouldCommit()) {
+                    event.mode = mode.getName();
+                    event.gameId = game.gameId;
+                    event.boardCount = game.engine.boardCount();
+                    event.commit();
+                }
+                break;
+            }
         }
         BOARD_COUNT++;
     }
+
+    // 保存整个游戏列表
+    protected static void saveGames(String file) {
+        long start = System.nanoTime();
+        try {
+            int bytes = SavedGames.save(Paths.get(file), gameList, currentGameIndex, BOARD_COUNT);
+            System.out.printf("已保存%d局到%s（%d字节，%.1f毫秒）%n",
+                    gameList.size(), file, bytes, (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.out.println("保存失败：" + e.getMessage());
+        }
+    }
+
+    // 用存档替换整个游戏列表；成功时返回true，调用方应结束当前游戏的输入循环
+    protected static boolean loadGames(String file) {
+        long start = System.nanoTime();
+        SavedGames.Loaded loaded;
+        try {
+            loaded = SavedGames.load(Paths.get(file));
+        } catch (IOException e) {
+            System.out.println("读取失败：" + e.getMessage());
+            return false;
+        }
+        gameList.clear();
+        gameList.addAll(loaded.games);
+        currentGameIndex = loaded.currentGameIndex;
+        BOARD_COUNT = loaded.boardCount;
+        // 日志中之前的游戏作废，改为记录读取后的游戏
+        if (journal != null) {
+            try {
+                journal.recordClear();
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
+        for (Game game : gameList) {
+            game.startJournal();
+        }
+        System.out.printf("已从%s读取%d局（%.1f毫秒）%n",
+                file, gameList.size(), (System.nanoTime() - start) / 1e6);
+        return true;
+    }
+
+    // 开始记录该游戏
+    private void startJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.recordStart(gameId, gameMode, engine);
+            journaled = true;
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    // 写日志失败时停止记录，不影响对局本身
+    private static void journalFailed(IOException e) {
+        System.out.println("对局日志写入失败，已停止记录：" + e.getMessage());
+        closeJournal();
+    }
+
+    // 退出前把日志刷到磁盘
+    protected static void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("关闭对局日志失败：" + e.getMessage());
+        }
+        journal = null;
+    }
     
     // 静态方法：切换到指定游戏
     public static void switchToGame(int gameIndex) {
@@ -128,8 +292,26 @@ public class Game {
         
         while (true) {
             Game currentGame = gameList.get(currentGameIndex);
+            // 演示的输出打乱了屏幕内容，整帧重绘
+            if (demo != null) {
+                renderer.invalidate();
+                if (demo.isFinished()) {
+                    demo = null;
+                }
+            }
             currentGame.clearScreen();
+            long renderStart = Metrics.start();
+            RenderEvent renderEvent = new RenderEvent();
+            renderEvent.begin();
             currentGame.displayBoard();
+            renderEvent.end();
+            Metrics.record(Metrics.Phase.RENDER, renderStart);
+            if (renderEvent.shouldCommit()) {
+                renderEvent.mode = currentGame.gameMode.getName();
+                renderEvent.gameId = currentGame.gameId;
+                renderEvent.boardSize = currentGame.boardSize;
+                renderEvent.commit();
+            }
             
             // 执行当前游戏的一轮，包括所有输入处理
             currentGame.playOneRound();
@@ -139,7 +321,7 @@ public class Game {
     // 执行一轮游戏
     public void playOneRound() {
         // 无论游戏是否结束，都使用makeMove来处理输入
-        if (isGameEnded) {
+        if (isGameEnded()) {
             System.out.println("当前游戏已结束，请切换到其他游戏或添加新游戏");
             makeMove(true,false);
             // 不能return，否则会无限循环，因为没有进入makeMove从而进入input()等待
@@ -162,85 +344,70 @@ public class Game {
 
     // 检查游戏是否结束
     protected void checkGameEnd() {
-        isGameEnded = true;
-        for (int i = 0; i < BOARD_COUNT; i++) {
-            if (!boards[i].isFull()) {
-                isGameEnded = false;
-                break;
-            }
-        }
-    }
-
-    // 判断是否有合法落子位置
-    protected boolean hasValidMove(Player player) {
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (isValidMove(i, j, player.getPieceType())) {
-                    return true;
-                }
-            }
+        long start = Metrics.start();
+        GameEndCheckEvent event = new GameEndCheckEvent();
+        event.begin();
+        GameStatus status = engine.checkGameEnd();
+        event.end();
+        Metrics.record(Metrics.Phase.CHECK_GAME_END, start);
+        if (event.shouldCommit()) {
+            event.mode = gameMode.getName();
+            event.gameId = gameId;
+            event.status = status.name();
+            event.winner = engine.winner() == null ? null : engine.winner().name();
+            event.commit();
         }
-        return false;
-    }
-    
-    // 判断位置是否为合法落子位置
-    protected boolean isValidMove(int row, int col, Piece pieceType) {
-        // 基本检查：位置必须在棋盘内且为空
-        if (row < 0 || row >= boardSize || col < 0 || col >= boardSize) {
-            return false;
-        }
-        return boards[currentBoardIndex].getPiece(row, col) == Piece.EMPTY;
     }
     
     // 清屏
     protected void clearScreen() {
-        for (int i = 0; i < SCREEN_CLEAR_LINES; i++) {
-            System.out.println();
-        }
+        renderer.clearScreen();
     }
 
     // 显示棋盘
     protected void displayBoard() {
-        System.out.println("  A B C D E F G H");
+        StringBuilder frame = renderer.beginFrame();
+        frame.append("  A B C D E F G H").append('\n');
         
         for (int i = 0; i < Math.max(boardSize, 6 + gameList.size() - 2); i++) {
             // 显示棋盘行（如果在棋盘范围内）
             if (i < boardSize) {
-                System.out.print((i + 1));
+                frame.append((i + 1));
                 for (int j = 0; j < boardSize; j++) {
-                    System.out.print(" " + boards[currentBoardIndex].getPiece(i, j).getSymbol());
+                    frame.append(' ').append(engine.board().getPiece(i, j).getSymbol());
                 }
             } else {
                 // 如果超出棋盘范围，只需要为游戏列表留出空间
-                System.out.print("                 ");
+                frame.append("                 ");
             }
 
             // 右侧显示游戏信息和游戏列表
             if (i == 3) {
-                System.out.print("  游戏#" + gameId + " (" + gameMode.getName() + ")    游戏列表");
+                frame.append("  游戏#" + gameId + " (" + gameMode.getName() + ")    游戏列表");
             } else if (i == 4) {
-                System.out.print("  玩家[" + player1.getName() + "] " +
-                        (currentPlayer == player1 ? player1.getPieceType().getSymbol()+ "   "  : "    ") +  
+                frame.append("  玩家[" + player1.getName() + "] " +
+                        (currentPlayer() == player1 ? player1.getPieceType().getSymbol()+ "   "  : "    ") +  
                         (0 < gameList.size() ? "1. " + gameList.get(0).gameMode.getName() + 
                         (0 == currentGameIndex ? " (当前)" : "") : ""));
             } else if (i == 5) {
-                System.out.print("  玩家[" + player2.getName() + "] " +
-                        (currentPlayer == player2 ? player2.getPieceType().getSymbol() + "   " : "    ") +
+                frame.append("  玩家[" + player2.getName() + "] " +
+                        (currentPlayer() == player2 ? player2.getPieceType().getSymbol() + "   " : "    ") +
                         (1 < gameList.size() ? "2. " + gameList.get(1).gameMode.getName() + 
                         (1 == currentGameIndex ? " (当前)" : "") : ""));
             } else if (i >= 6 && i < 6 + gameList.size() - 2) {
                 // 从第三个游戏开始，顺序显示剩余的游戏列表项
                 int gameIndex = i - 6 + 2; // 从第三个游戏(索引2)开始
                 if (gameIndex < gameList.size()) {
-                    System.out.print("                    " + (gameIndex + 1) + ". " + 
+                    frame.append("                    " + (gameIndex + 1) + ". " + 
                             gameList.get(gameIndex).gameMode.getName() + 
                             (gameIndex == currentGameIndex ? " (当前)" : ""));
                 }
             }
 
-            System.out.println();
+            frame.append('\n');
         }
-        System.out.println();
+        frame.append('\n');
+        renderer.render();
     }
 
     protected void makeMove(boolean hasPassMethod, boolean hasBombFeature) {
@@ -250,30 +417,57 @@ public class Game {
         }
         boolean validMove = false;
         while (!validMove) {
-            int validBoardCount = countInitializedBoards();
+            // 可选择的棋盘数（棋盘在第一次选择时才创建）
+            int validBoardCount = engine.boardCount();
             if (hasPassMethod) {
-                System.out.print("请玩家[" + currentPlayer.getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 跳过行棋（Pass） / 退出程序(quit)：");
+                System.out.print("请玩家[" + currentPlayer().getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 跳过行棋（Pass） / 电脑接管(bot) / 交还座位(human) / 走法校验(perft 深度) / 终局求解(solve) / 演示(demo) / 悔棋(undo) / 重做(redo) / 保存(save) / 读取(load) / 退出程序(quit)：");
             } else if (hasBombFeature) {
-                System.out.print("请玩家[" + currentPlayer.getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 炸弹道具（输入“@FA”可炸掉FA位置上的敌方的棋子，并且让该位置不可放置棋子）  / 退出程序(quit)");
+                System.out.print("请玩家[" + currentPlayer().getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 炸弹道具（输入“@FA”可炸掉FA位置上的敌方的棋子，并且让该位置不可放置棋子） / 悔棋(undo) / 重做(redo) / 保存(save) / 读取(load) / 退出程序(quit)");
                 if(hasDemoMode){
-                    System.out.print(" / 演示模式（输入“demo”可演示当前游戏）：");
+                    System.out.print(" / 演示模式（输入“demo”在后台演示，demo pause/resume/step/stop、demo speed 毫秒 控制播放） / 必胜分析（输入“solve”） / 电脑接管(bot) / 交还座位(human)：");
                 }
             }
             else {
-                System.out.print("请玩家[" + currentPlayer.getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ")  / 退出程序(quit)：");
+                System.out.print("请玩家[" + currentPlayer().getName() + "]输入落子位置(如1a) / 游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 演示(demo) / 悔棋(undo) / 重做(redo) / 保存(save) / 读取(load) / 退出程序(quit)：");
             }
             String input = scanner.nextLine().trim();
+            parseStart = Metrics.start();
 
             if (input.isEmpty()) {
                 System.out.println("输入不能为空，请重新输入");
                 continue;
             }
             
+            if (input.equalsIgnoreCase("metrics")) {
+                System.out.println(Metrics.report());
+                continue;
+            }
+
             if (input.equalsIgnoreCase("quit")) {
                 System.out.println("游戏结束，谢谢使用！");
+                closeJournal();
                 System.exit(0); 
                 return;
             }
+
+            // 保存/读取全部游戏，可在命令后跟文件名（如 save my.bin）
+            String[] command = input.split("\\s+", 2);
+            String file = command.length > 1 ? command[1] : DEFAULT_SAVE_FILE;
+            if (command[0].equalsIgnoreCase("save")) {
+                saveGames(file);
+                continue;
+            }
+            if (command[0].equalsIgnoreCase("load")) {
+                if (loadGames(file)) {
+                    return; // 游戏列表已替换，回到主循环显示新的当前游戏
+                }
+                continue;
+            }
+            // 演示在后台播放，不等待结束
+            if (command[0].equalsIgnoreCase("demo")) {
+                processDemoCommand(command.length > 1 ? command[1] : "");
+                continue;
+            }
             
             // 检查是否为添加新游戏命令
 
@@ -298,18 +492,25 @@ public class Game {
             //     continue;
             // }
 
-            if(input.equalsIgnoreCase("pass")) {
-                if(!hasPassMethod) {
-                    System.out.println("当前游戏不是Reversi模式，不能Pass");
+            // 悔棋/重做后回到主循环重新显示棋盘
+            if (input.equalsIgnoreCase("undo")) {
+                if (undoMove()) {
+                    return;
                 }
-                else if(!hasValidMove(currentPlayer)) {  
-                    switchPlayer();
-                }
-                else{
-                    System.out.println("当前游戏不是处于对局状态且你不能落子的情况，不能Pass");
+                continue;
+            }
+            if (input.equalsIgnoreCase("redo")) {
+                if (redoMove()) {
+                    return;
                 }
                 continue;
             }
+
+            if(input.equalsIgnoreCase("pass")) {
+                // 是否允许Pass由引擎根据规则判断
+                applyMove(Move.pass());
+                continue;
+            }
             
             // 检查是否为游戏序号
             try {
@@ -327,12 +528,8 @@ public class Game {
                 processBoardSelection(input);
             } else if (input.length() >= 2) {
                 validMove = processMoveInput(input);
-                if(validMove==true){
-                    switchPlayer();
-                }
-
             } else {
-                System.out.println("输入格式有误，请使用1-" + validBoardCount + "的数字或数字+字母（如：1a）");
+                invalidInput("输入格式有误，请使用1-" + validBoardCount + "的数字或数字+字母（如：1a）");
             }
         }
     }
@@ -342,27 +539,23 @@ public class Game {
         try {
             int boardNumber = Integer.parseInt(input);
             // 检查棋盘号是否在有效范围内（1到已初始化的棋盘数量）
-            if (boardNumber >= 1 && boardNumber <= boards.length && boards[boardNumber - 1] != null) {
-                currentBoardIndex = boardNumber - 1;
+            MoveResult result = engine.selectBoard(boardNumber - 1);
+            if (result == MoveResult.OK) {
+                if (journaled && journal != null) {
+                    try {
+                        journal.recordBoardSwitch(gameId, engine);
+                    } catch (IOException e) {
+                        journalFailed(e);
+                    }
+                }
                 clearScreen();
                 displayBoard();
             } else {
-                System.out.println("无效的棋盘号");
+                System.out.println(result.getMessage());
             }
         } catch (NumberFormatException e) {
-            System.out.println("输入格式有误，请使用棋盘号（如1,2）或数字+字母（如：1a）");
-        }
-    }
-
-    // 添加辅助方法，计算初始化的棋盘数量
-    private int countInitializedBoards() {
-        int count = 0;
-        for (Board board : boards) {
-            if (board != null) {
-                count++;
-            }
+            invalidInput("输入格式有误，请使用棋盘号（如1,2）或数字+字母（如：1a）");
         }
-        return count;
     }
 
     // 修改处理落子输入的方法，支持多位数字行号
@@ -376,7 +569,7 @@ public class Game {
             
             // 如果没有找到字母或者数字部分为空，则输入格式错误
             if (letterPos == 0 || letterPos >= input.length()) {
-                System.out.println("输入格式有误，请使用数字+字母（如：1a）");
+                invalidInput("输入格式有误，请使用数字+字母（如：1a）");
                 return false;
             }
             
@@ -385,40 +578,190 @@ public class Game {
             char colChar = Character.toUpperCase(input.charAt(letterPos));
             int col = colChar - 'A';
             
-            // 验证行列是否在有效范围内
-            if (row < 0 || row >= boardSize || col < 0 || col >= boardSize) {
-                System.out.println("输入超出棋盘范围，请重新输入！");
-                return false;
+            // 越界、占用等检查都由引擎完成
+            return applyMove(Move.place(row, col));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            invalidInput("输入格式有误，请使用数字+字母（如：1a）");
+            return false;
+        }
+    }
+
+    // 输出格式错误的提示并计数
+    protected static void invalidInput(String message) {
+        Metrics.countInvalidInput();
+        System.out.println(message);
+    }
+
+    // 交给引擎执行一步操作，失败时输出原因；成功后引擎已切换行棋方
+    protected boolean applyMove(Move move) {
+        Metrics.record(Metrics.Phase.PARSE, parseStart);
+        parseStart = 0;
+        long start = Metrics.start();
+        MoveEvent event = new MoveEvent();
+        Piece mover = engine.sideToMove();
+        Piece opponent = (mover == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
+        // 翻转数由落子前后对方的棋子数得出（统计是增量维护的，读取不扫描棋盘）
+        int opponentsBefore = event.isEnabled() ? engine.board().getStats().count(opponent) : 0;
+        event.begin();
+        MoveResult result = engine.apply(move);
+        event.end();
+        Metrics.record(Metrics.Phase.RULES, start);
+        if (event.shouldCommit()) {
+            event.mode = gameMode.getName();
+            event.gameId = gameId;
+            event.board = engine.currentBoardIndex();
+            event.type = move.getType().name();
+            event.row = move.getRow();
+            event.col = move.getCol();
+            event.result = result.name();
+            event.flips = (result == MoveResult.OK && move.getType() == Move.Type.PLACE)
+                    ? opponentsBefore - engine.board().getStats().count(opponent) : 0;
+            event.commit();
+        }
+        if (result == MoveResult.OK && move.isBomb()) {
+            BombEvent bomb = new BombEvent();
+            if (bomb.shouldCommit()) {
+                bomb.gameId = gameId;
+                bomb.board = engine.currentBoardIndex();
+                bomb.row = move.getRow();
+                bomb.col = move.getCol();
+                bomb.player = mover.name();
+                bomb.bombsLeft = (engine instanceof GomokuEngine) ? ((GomokuEngine) engine).bombsLeft(mover) : 0;
+                bomb.commit();
+            }
+        }
+        if (result != MoveResult.OK) {
+            Metrics.countRejectedMove();
+            System.out.println(result.getMessage());
+            return false;
+        }
+        Metrics.countMove(gameMode, move.isBomb());
+        if (journaled && journal != null) {
+            try {
+                journal.recordMove(gameId, move, engine);
+            } catch (IOException e) {
+                journalFailed(e);
             }
+        }
+        return true;
+    }
 
-            boolean validMove = boards[currentBoardIndex].placePiece(row, col, currentPlayer.getPieceType(), false);
-            if (!validMove) {
-                System.out.println("落子位置有误，请重新输入！");
-                return false;
+    // 演示命令：demo 开始演示当前游戏的模式（替换正在播放的演示），
+    // demo pause/resume/step/stop 暂停、继续、单步、停止，demo speed 毫秒 调整两步之间的间隔
+    protected void processDemoCommand(String argument) {
+        String[] words = argument.trim().split("\\s+");
+        String action = words[0].toLowerCase();
+        if (action.isEmpty()) {
+            if (demo != null) {
+                demo.cancel();
             }
-            
-            
-            return true;
-        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-            System.out.println("输入格式有误，请使用数字+字母（如：1a）");
+            demo = new DemoPlayer(gameMode, System.out);
+            // 输入来自管道（没有终端）时直接播放完，输出顺序确定
+            if (System.console() == null) {
+                demo.runToEnd();
+            } else {
+                demo.start();
+                System.out.println("演示在后台播放，可以继续输入当前游戏的命令");
+            }
+            return;
+        }
+        if (demo == null || demo.isFinished()) {
+            System.out.println("当前没有正在播放的演示，请输入demo开始演示");
+            return;
+        }
+        switch (action) {
+            case "pause":
+                demo.pause();
+                System.out.println("演示已暂停，输入demo step单步播放，demo resume继续");
+                break;
+            case "resume":
+                demo.resume();
+                break;
+            case "step":
+                demo.step();
+                break;
+            case "stop":
+                demo.cancel();
+                break;
+            case "speed":
+                try {
+                    demo.setInterval(Long.parseLong(words[words.length > 1 ? 1 : 0]));
+                    System.out.println("演示间隔为" + demo.getInterval() + "毫秒");
+                } catch (NumberFormatException e) {
+                    System.out.println("输入格式有误，请使用 demo speed 毫秒（如 demo speed 500）");
+                }
+                break;
+            default:
+                System.out.println("演示命令有误，请使用demo、demo pause/resume/step/stop或demo speed 毫秒");
+                break;
+        }
+    }
+
+    // 撤销最后一步（引擎按改动记录还原，不重放整局）；日志中单独记录，重启后恢复的是撤销后的局面
+    // 与电脑对局时连同电脑的应手一起撤销，直到轮到玩家：否则电脑会立即再走一步并清空重做记录
+    protected boolean undoMove() {
+        MoveResult result = engine.undo();
+        if (result != MoveResult.OK) {
+            System.out.println(result.getMessage());
+            return false;
+        }
+        recordUndo();
+        while (isBot(currentPlayer()) && !(isBot(player1) && isBot(player2))
+                && engine.undo() == MoveResult.OK) {
+            recordUndo();
+        }
+        return true;
+    }
+
+    private void recordUndo() {
+        if (journaled && journal != null) {
+            try {
+                journal.recordUndo(gameId, engine);
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
+    }
+
+    // 重做最近撤销的一步；日志中按普通操作记录
+    protected boolean redoMove() {
+        MoveResult result = engine.redo();
+        if (result != MoveResult.OK) {
+            System.out.println(result.getMessage());
             return false;
         }
+        recordRedo();
+        // 与悔棋对称：电脑被一起撤销的应手也一起重做
+        while (isBot(currentPlayer()) && engine.redoCount() > 0 && engine.redo() == MoveResult.OK) {
+            recordRedo();
+        }
+        return true;
     }
 
-    // 切换玩家
-    protected void switchPlayer() {
-        currentPlayer = (currentPlayer == player1) ? player2 : player1;
+    private void recordRedo() {
+        if (journaled && journal != null) {
+            try {
+                journal.recordMove(gameId, engine.lastMove(), engine);
+            } catch (IOException e) {
+                journalFailed(e);
+            }
+        }
+    }
+
+    // 该玩家的座位是否由电脑接管，由有电脑玩家的子类实现
+    protected boolean isBot(Player player) {
+        return false;
     }
 
     public void fulfillBoardExceptForOne(Piece pieceType) {
         for (int i = 0; i < boardSize; i++) {
             for (int j = 0; j < boardSize; j++) {
-                boards[currentBoardIndex].placePiece(i, j, pieceType, true);
+                engine.board().placePiece(i, j, pieceType, true);
                 if(i==boardMiddle && j==boardMiddle){
-                    boards[currentBoardIndex].placePiece(i, j, Piece.EMPTY, true);;
+                    engine.board().placePiece(i, j, Piece.EMPTY, true);;
                 }
                 if(i==boardMiddle+1 && j==boardMiddle+1){
-                    boards[currentBoardIndex].placePiece(i, j, Piece.WHITE, true);
+                    engine.board().placePiece(i, j, Piece.WHITE, true);
                 }
             }
         }
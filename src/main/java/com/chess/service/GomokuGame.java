@@ -1,54 +1,51 @@
 package com.chess.service;
 
+import java.util.List;
+import com.chess.ai.GomokuMctsBot;
+import com.chess.ai.GomokuThreatSolver;
+import com.chess.engine.GomokuEngine;
+import com.chess.engine.Move;
 import com.chess.entity.Piece;
 import com.chess.entity.Player;
 import com.chess.entity.GomokuBoard;
+import com.chess.entity.WinningLine;
 
 public class GomokuGame extends Game {
-    
-    private int currentRound = 1;
-    private int blackBombs = 2;
-    private int whiteBombs = 3;
-    private boolean isDemoMode = false;
+
+    // 由电脑接管的座位，null表示由玩家输入
+    private GomokuMctsBot player1Bot;
+    private GomokuMctsBot player2Bot;
+    // 电脑行棋报告，在下一次显示棋盘后输出
+    private String lastBotReport;
     
     public GomokuGame(String player1Name, String player2Name, int gameId) {
         super(player1Name, player2Name, GameMode.GOMOKU, gameId);
     }
-    
-    @Override
-    protected void initializeBoard() {
-        // 使用GomokuBoard替换默认的Board
-        for (int i = 0; i < BOARD_COUNT; i++) {
-            boards[i] = new GomokuBoard(true);
-        }
-        boardSize = boards[0].getSize();
-        boardMiddle = boardSize / 2;
-        // 添加障碍物
-        int[][] blockPositions = {
-            {GomokuBoard.parseRowLabel("3"), GomokuBoard.parseColLabel("F")}, // 3F
-            {GomokuBoard.parseRowLabel("8"), GomokuBoard.parseColLabel("G")}, // 8G
-            {GomokuBoard.parseRowLabel("9"), GomokuBoard.parseColLabel("F")}, // 9F
-            {GomokuBoard.parseRowLabel("C"), GomokuBoard.parseColLabel("K")}  // CK
-        };
-        for (int[] pos : blockPositions) {
-            if (pos[0] >= 0 && pos[1] >= 0 && pos[0] < boardSize && pos[1] < boardSize) {
-                boards[0].placePiece(pos[0], pos[1], Piece.BLOCK, true);
-            }
-        }
-        // 确保当前玩家是黑棋(Player 1)
-        currentPlayer = player1;
+
+    public GomokuGame(String player1Name, String player2Name, int gameId, int boardCount) {
+        super(player1Name, player2Name, GameMode.GOMOKU, gameId, boardCount);
     }
     
     @Override
     public void playOneRound() {
+        if (lastBotReport != null) {
+            System.out.println(lastBotReport);
+            lastBotReport = null;
+        }
         // 无论游戏是否结束，都使用makeMove来处理输入
-        if (isGameEnded) {
+        if (isGameEnded()) {
             displayGameResult();
             System.out.println("当前游戏已结束，请切换到其他游戏或添加新游戏");
             makeMoveAfterGameEnd();
             
         }
         
+        // 当前座位由电脑接管时直接由电脑行棋
+        else if (getBot(currentPlayer()) != null) {
+            playBotMove();
+            checkGameEnd();
+        }
+        
         else {
             makeMove(false,true);
             // switchPlayer();
@@ -57,10 +54,72 @@ public class GomokuGame extends Game {
         }
     }
 
+    // 让电脑接管指定玩家的座位；被替换的电脑不再被另一座位使用时关闭它的线程池
+    public void setBot(Player player, GomokuMctsBot bot) {
+        GomokuMctsBot previous = getBot(player);
+        Player other = (player == player1) ? player2 : player1;
+        if (previous != null && previous != bot && previous != getBot(other)) {
+            previous.close();
+        }
+        if (player == player1) {
+            player1Bot = bot;
+        } else if (player == player2) {
+            player2Bot = bot;
+        }
+    }
+    
+    private GomokuMctsBot getBot(Player player) {
+        return (player == player1) ? player1Bot : player2Bot;
+    }
+
+    @Override
+    protected boolean isBot(Player player) {
+        return getBot(player) != null;
+    }
+
+    // 把电脑接管的座位都交还给玩家，返回交还的座位数
+    private int releaseBots() {
+        int released = 0;
+        for (Player player : new Player[] {player1, player2}) {
+            if (getBot(player) != null) {
+                setBot(player, null);
+                released++;
+            }
+        }
+        return released;
+    }
+    
+    // 电脑搜索后按普通输入的格式落子或使用炸弹，由引擎切换行棋方
+    // 电脑无法行棋时返回false，并把座位交还给玩家，否则下一轮仍由电脑行棋而不读输入，会一直空转
+    private boolean playBotMove() {
+        Player player = currentPlayer();
+        GomokuMctsBot.SearchResult result = getBot(player).search(engine.board(), player.getPieceType(),
+                gomokuEngine().bombsLeft(Piece.BLACK), gomokuEngine().bombsLeft(Piece.WHITE));
+        if (result.getRow() < 0) {
+            setBot(player, null);
+            lastBotReport = "电脑[" + player.getName() + "]没有可以落子的位置，座位已交还给玩家";
+            return false;
+        }
+        String move = (result.isBomb() ? "@" : "")
+                + GomokuBoard.getRowLabel(result.getRow()) + GomokuBoard.getColLabel(result.getCol());
+        if (!processMoveInput(move)) {
+            setBot(player, null);
+            lastBotReport = "电脑[" + player.getName() + "]的落子" + move + "被拒绝，座位已交还给玩家";
+            return false;
+        }
+        lastBotReport = String.format("电脑[%s]输入 %s：模拟 %d 局，%d 局/秒，胜率 %.1f%%",
+                player.getName(),
+                move,
+                result.getPlayouts(),
+                result.getPlayoutsPerSecond(),
+                result.getWinRate() * 100);
+        return true;
+    }
+    
     private void makeMoveAfterGameEnd() {
         boolean validMove = false;
         while (!validMove) {
-            System.out.print("请玩家[" + currentPlayer.getName() + "]输入游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 退出程序(quit)：");
+            System.out.print("请玩家[" + currentPlayer().getName() + "]输入游戏编号 (如1,2) / 新游戏类型("+String.join(",", GameModeList) + ") / 悔棋(undo) / 重做(redo) / 保存(save) / 读取(load) / 退出程序(quit)：");
  
             String input = scanner.nextLine().trim();
 
@@ -71,9 +130,37 @@ public class GomokuGame extends Game {
             
             if (input.equalsIgnoreCase("quit")) {
                 System.out.println("游戏结束，谢谢使用！");
+                closeJournal();
                 System.exit(0); 
                 return;
             }
+
+            String[] command = input.split("\\s+", 2);
+            String file = command.length > 1 ? command[1] : DEFAULT_SAVE_FILE;
+            if (command[0].equalsIgnoreCase("save")) {
+                saveGames(file);
+                continue;
+            }
+            if (command[0].equalsIgnoreCase("load")) {
+                if (loadGames(file)) {
+                    return;
+                }
+                continue;
+            }
+
+            // 悔掉分出胜负的一手后对局继续
+            if (input.equalsIgnoreCase("undo")) {
+                if (undoMove()) {
+                    return;
+                }
+                continue;
+            }
+            if (input.equalsIgnoreCase("redo")) {
+                if (redoMove()) {
+                    return;
+                }
+                continue;
+            }
             
             // 检查是否为添加新游戏命令
 
@@ -117,7 +204,7 @@ public class GomokuGame extends Game {
             } 
 
             else {
-                System.out.println("输入格式有误，请使用如(1,2)的棋盘号的数字。");
+                invalidInput("输入格式有误，请使用如(1,2)的棋盘号的数字。");
             }
         }
     }
@@ -126,313 +213,170 @@ public class GomokuGame extends Game {
     @Override
     protected boolean processMoveInput(String input) {
         input = input.trim();
-        if (input.equalsIgnoreCase("demo")) {
-            isDemoMode = true;
-            System.out.println("已进入Demo演示模式，系统将自动操作演示五子棋玩法。");
-            runDemo();
+        if (input.equalsIgnoreCase("solve")) {
+            analyzeForcedWin();
+            return false;
+        }
+        // 由电脑接管当前玩家的座位，并立即代为行棋
+        if (input.equalsIgnoreCase("bot")) {
+            // 座位上已有电脑时沿用，避免每次都新建线程池
+            if (getBot(currentPlayer()) == null) {
+                setBot(currentPlayer(), new GomokuMctsBot());
+            }
+            return playBotMove();
+        }
+        // 电脑接管的座位交还给玩家，之后由玩家输入
+        if (input.equalsIgnoreCase("human")) {
+            System.out.println(releaseBots() > 0 ? "电脑接管的座位已交还给玩家" : "当前没有电脑接管的座位");
             return false;
         }
         try {
             input = input.toUpperCase();
             // 炸弹道具输入：@XY
             if (input.startsWith("@")) {
-                if ((currentPlayer == player1 && blackBombs == 0) || (currentPlayer == player2 && whiteBombs == 0)) {
-                    System.out.println("你没有剩余炸弹了！");
-                    return false;
-                }
                 if (input.length() < 3) {
-                    System.out.println("炸弹输入格式有误，请使用@+纵坐标+横坐标（如：@FA）");
+                    invalidInput("炸弹输入格式有误，请使用@+纵坐标+横坐标（如：@FA）");
                     return false;
                 }
                 String rowStr = input.substring(1, input.length() - 1);
                 String colStr = input.substring(input.length() - 1);
                 int row = GomokuBoard.parseRowLabel(rowStr);
                 int col = GomokuBoard.parseColLabel(colStr);
-                if (row < 0 || row >= boardSize || col < 0 || col >= boardSize) {
-                    System.out.println("输入超出棋盘范围，请重新输入！");
+                // 剩余炸弹、范围和目标棋子由引擎检查
+                if (!applyMove(Move.bomb(row, col))) {
                     return false;
                 }
-                Piece target = boards[currentBoardIndex].getPiece(row, col);
-                // 只能炸掉对方棋子，不能炸空、障碍物、弹坑、自己棋子
-                if (target == Piece.EMPTY || target == Piece.BLOCK || target == Piece.CRATER || target == currentPlayer.getPieceType()) {
-                    System.out.println("只能炸掉对方的棋子！");
-                    return false;
-                }
-                // 执行炸弹效果
-                boards[currentBoardIndex].placePiece(row, col, Piece.CRATER, true);
-                if (currentPlayer == player1) {
-                    blackBombs--;
-                } else {
-                    whiteBombs--;
-                }
                 System.out.println("炸弹已使用，位置(" + rowStr + colStr + ")已变为弹坑！");
                 return true;
             }
             // 普通落子
             if (input.length() < 2) {
-                System.out.println("输入格式有误，请使用纵坐标+横坐标（如：1A / FA）");
+                invalidInput("输入格式有误，请使用纵坐标+横坐标（如：1A / FA）");
                 return false;
             }
             String rowStr = input.substring(0, input.length() - 1);
             String colStr = input.substring(input.length() - 1);
             int row = GomokuBoard.parseRowLabel(rowStr);
             int col = GomokuBoard.parseColLabel(colStr);
-            if (row < 0 || row >= boardSize || col < 0 || col >= boardSize) {
-                System.out.println("输入超出棋盘范围，请重新输入！");
-                return false;
-            }
-            // 检查障碍物和弹坑
-            Piece cell = boards[currentBoardIndex].getPiece(row, col);
-            if (cell == Piece.BLOCK) {
-                System.out.println("该位置为障碍物，无法落子！");
-                return false;
-            }
-            if (cell == Piece.CRATER) {
-                System.out.println("该位置为弹坑，无法落子！");
-                return false;
-            }
-            boolean validMove = boards[currentBoardIndex].placePiece(row, col, currentPlayer.getPieceType(), false);
-            if (!validMove) {
-                System.out.println("落子位置有误，请重新输入！");
-                return false;
-            }
-            if (currentPlayer == player1) {
-                currentRound++;
-            }
-            return true;
+            // 障碍物、弹坑和占用检查由引擎完成
+            return applyMove(Move.place(row, col));
         } catch (Exception e) {
-            System.out.println("输入格式有误，请使用纵坐标+横坐标（如：1A / FA），或@+坐标使用炸弹");
+            invalidInput("输入格式有误，请使用纵坐标+横坐标（如：1A / FA），或@+坐标使用炸弹");
             return false;
         }
     }
     
     @Override
     protected void displayBoard() {
+        StringBuilder frame = renderer.beginFrame();
         // 显示列标签 (A-O)
-        System.out.print(" ");
+        frame.append(' ');
         for (int j = 0; j < boardSize; j++) {
-            System.out.print(" " + GomokuBoard.getColLabel(j));
+            frame.append(' ').append(GomokuBoard.getColLabel(j));
         }
-        System.out.println();
+        frame.append('\n');
         int infoColumn = 25; // 统一信息起始列
         for (int i = 0; i < Math.max(boardSize, 6 + gameList.size() - 2); i++) {
             // 显示棋盘行（如果在棋盘范围内）
             if (i < boardSize) {
-                System.out.print(GomokuBoard.getRowLabel(i));
+                frame.append(GomokuBoard.getRowLabel(i));
                 for (int j = 0; j < boardSize; j++) {
-                    System.out.print(" " + boards[currentBoardIndex].getPiece(i, j).getSymbol());
+                    frame.append(' ').append(engine.board().getPiece(i, j).getSymbol());
                 }
             } else {
                 // 如果超出棋盘范围，只需要为游戏列表留出空间
-                System.out.print("                 ");
+                frame.append("                 ");
             }
             // 右侧显示游戏信息和游戏列表
             if (i == 3) {
                 // int len = ("游戏#" + gameId + " (" + gameMode.getName() + ")").length();
-                // for (int s = 0; s < infoColumn - len; s++) System.out.print(" ");
-                System.out.print("  游戏#" + gameId + " (" + gameMode.getName() + ")              游戏列表");
+                // for (int s = 0; s < infoColumn - len; s++) frame.append(' ');
+                frame.append("  游戏#" + gameId + " (" + gameMode.getName() + ")              游戏列表");
             } else if (i == 4) {
-                String player1Info = "  玩家[" + player1.getName() + "] "  + (currentPlayer == player1 ? player1.getPieceType().getSymbol() + "   "  : "    ") + "炸弹:" + blackBombs;
+                String player1Info = "  玩家[" + player1.getName() + "] "  + (currentPlayer() == player1 ? player1.getPieceType().getSymbol() + "   "  : "    ") + "炸弹:" + gomokuEngine().bombsLeft(Piece.BLACK);
                 int len = player1Info.length();
-                System.out.print(player1Info);
-                for (int s = 0; s < infoColumn - len; s++) System.out.print(" ");
+                frame.append(player1Info);
+                for (int s = 0; s < infoColumn - len; s++) frame.append(' ');
                 if (0 < gameList.size()) {
-                    System.out.print("1. " + gameList.get(0).gameMode.getName() + (0 == currentGameIndex ? " (当前)" : ""));
+                    frame.append("1. " + gameList.get(0).gameMode.getName() + (0 == currentGameIndex ? " (当前)" : ""));
                 }
             } else if (i == 5) {
-                String player2Info = "  玩家[" + player2.getName() + "] " + (currentPlayer == player2 ? player2.getPieceType().getSymbol() + "   " : "    ") + "炸弹:" + whiteBombs;
+                String player2Info = "  玩家[" + player2.getName() + "] " + (currentPlayer() == player2 ? player2.getPieceType().getSymbol() + "   " : "    ") + "炸弹:" + gomokuEngine().bombsLeft(Piece.WHITE);
                 int len = player2Info.length();
-                System.out.print(player2Info);
-                for (int s = 0; s < infoColumn - len; s++) System.out.print(" ");
+                frame.append(player2Info);
+                for (int s = 0; s < infoColumn - len; s++) frame.append(' ');
                 if (1 < gameList.size()) {
-                    System.out.print("2. " + gameList.get(1).gameMode.getName() + (1 == currentGameIndex ? " (当前)" : ""));
+                    frame.append("2. " + gameList.get(1).gameMode.getName() + (1 == currentGameIndex ? " (当前)" : ""));
                 }
             } else if (i == 6) {
-                String roundInfo = "  当前回合: " + currentRound;
+                String roundInfo = "  当前回合: " + gomokuEngine().currentRound();
                 int len = roundInfo.length();
-                System.out.print(roundInfo);
-                for (int s = 0; s < infoColumn - len; s++) System.out.print(" ");
+                frame.append(roundInfo);
+                for (int s = 0; s < infoColumn - len; s++) frame.append(' ');
                 if (2 < gameList.size()) {
-                    System.out.print("3. " + gameList.get(2).gameMode.getName() + (2 == currentGameIndex ? " (当前)" : ""));
+                    frame.append("3. " + gameList.get(2).gameMode.getName() + (2 == currentGameIndex ? " (当前)" : ""));
                 }
             } else if (i >= 7 && i < 7 + gameList.size() - 3) {
                 int gameIndex = i - 7 + 3; // 从第4个游戏(索引3)开始
                 StringBuilder spaces = new StringBuilder();
                 for (int s = 0; s < infoColumn+4; s++) spaces.append(" "); 
                 if (gameIndex < gameList.size()) {
-                    System.out.print(spaces.toString() + (gameIndex + 1) + ". " + gameList.get(gameIndex).gameMode.getName() + (gameIndex == currentGameIndex ? " (当前)" : ""));
-                }
-            }
-            System.out.println();
-        }
-        System.out.println();
-    }
-    
-    @Override
-    protected void checkGameEnd() {
-        // 检查是否有玩家获胜（五子连珠）
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                Piece currentPiece = boards[currentBoardIndex].getPiece(i, j);
-                if (currentPiece != Piece.EMPTY) {
-                    // 检查水平方向
-                    if (j <= boardSize - 5) { // 五子棋，因此一定是5
-                        boolean win = true;
-                        for (int k = 1; k < 5; k++) {
-                            if (boards[currentBoardIndex].getPiece(i, j + k) != currentPiece) {
-                                win = false;
-                                break;
-                            }
-                        }
-                        if (win) {
-                            isGameEnded = true;
-                            return;
-                        }
-                    }
-                    
-                    // 检查垂直方向
-                    if (i <= boardSize - 5) {
-                        boolean win = true;
-                        for (int k = 1; k < 5; k++) {
-                            if (boards[currentBoardIndex].getPiece(i + k, j) != currentPiece) {
-                                win = false;
-                                break;
-                            }
-                        }
-                        if (win) {
-                            isGameEnded = true;
-                            return;
-                        }
-                    }
-                    
-                    // 检查右下对角线
-                    if (i <= boardSize - 5 && j <= boardSize - 5) {
-                        boolean win = true;
-                        for (int k = 1; k < 5; k++) {
-                            if (boards[currentBoardIndex].getPiece(i + k, j + k) != currentPiece) {
-                                win = false;
-                                break;
-                            }
-                        }
-                        if (win) {
-                            isGameEnded = true;
-                            return;
-                        }
-                    }
-                    
-                    // 检查左下对角线
-                    if (i <= boardSize - 5 && j >= 4) {
-                        boolean win = true;
-                        for (int k = 1; k < 5; k++) {
-                            if (boards[currentBoardIndex].getPiece(i + k, j - k) != currentPiece) {
-                                win = false;
-                                break;
-                            }
-                        }
-                        if (win) {
-                            isGameEnded = true;
-                            return;
-                        }
-                    }
+                    frame.append(spaces).append((gameIndex + 1) + ". " + gameList.get(gameIndex).gameMode.getName() + (gameIndex == currentGameIndex ? " (当前)" : ""));
                 }
             }
+            frame.append('\n');
         }
-        
-        // 检查棋盘是否已满
-        boolean isFull = true;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boards[currentBoardIndex].getPiece(i, j) == Piece.EMPTY) {
-                    isFull = false;
-                    break;
-                }
-            }
-            if (!isFull) break;
-        }
-        
-        isGameEnded = isFull;
+        frame.append('\n');
+        renderer.render();
     }
     
     @Override
     protected void displayGameResult() {
         System.out.println("游戏结束！");
         
-        // 如果棋盘已满但没有人五子连珠，则平局
-        boolean isFull = true;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boards[currentBoardIndex].getPiece(i, j) == Piece.EMPTY) {
-                    isFull = false;
-                    break;
-                }
+        // 有五子连珠时直接根据连线颜色确定获胜者
+        WinningLine winningLine = gomokuEngine().winningLine();
+        if (winningLine != null) {
+            Player winner = (winningLine.getPiece() == player1.getPieceType()) ? player1 : player2;
+            StringBuilder cells = new StringBuilder();
+            for (int[] cell : winningLine.getCells()) {
+                cells.append(" ").append(GomokuBoard.getRowLabel(cell[0])).append(GomokuBoard.getColLabel(cell[1]));
             }
-            if (!isFull) break;
+            System.out.println("连珠位置:" + cells);
+            System.out.println("恭喜玩家[" + winner.getName() + "]获胜！");
+            return;
         }
         
-        if (isFull) {
+        // 棋盘已满但没有人五子连珠，则平局
+        if (engine.board().getEmptyCount() == 0) {
             System.out.println("棋盘已满，游戏平局！");
-            return;
         }
-        
-        // 如果不是平局，则当前玩家的对手获胜（因为在落子后就检查获胜条件）
-        Player winner = (currentPlayer == player1) ? player2 : player1;
-        System.out.println("恭喜玩家[" + winner.getName() + "]获胜！");
     }
 
-    // Demo模式自动演示
-    private void runDemo() {
-        // 另外起一个新游戏来进行该demo
-        Game demoGame = new GomokuGame("玩家1", "玩家2", 999);
-        currentGameIndex += 1;
-
-        // 黑方依次1A~7A，白方依次1B~5B，黑方在4A后用炸弹@3A
-        String[] blackMoves = {"1A", "2A", "3A", "4A", "5A","6A"};
-        String[] whiteMoves = {"1B", "2B", "3B", "@3A", "4B", "5B"};
-        int bIdx = 0, wIdx = 0;
-        // boolean afterBomb = false;
-        while (!isGameEnded && (bIdx < blackMoves.length || wIdx < whiteMoves.length)) {
-            if (demoGame.currentPlayer == demoGame.player1 && bIdx < blackMoves.length) {
-                String move = blackMoves[bIdx++];
-                demoGame.processMoveInput(move);
-                demoGame.displayBoard();
-                System.out.println("上述操作为黑方输入了 " + move);
-
-                // if (move.startsWith("@")) {
-                //     // 炸弹
-                //     processMoveInput(move);
-                //     displayBoard();
-                //     System.out.println("上述操作为黑方输入了 " + move);
-                //     // afterBomb = true;
-                // } else {
-                //     processMoveInput(move);
-                //     displayBoard();
-                //     System.out.println("上述操作为黑方输入了 " + move);
-                // }
-                demoGame.switchPlayer();
-            } else if (demoGame.currentPlayer == demoGame.player2 && wIdx < whiteMoves.length) {
-                String move = whiteMoves[wIdx++];
-                demoGame.processMoveInput(move);
-                demoGame.displayBoard();
-                System.out.println("上述操作为白方输入了 " + move);
-                demoGame.switchPlayer();
-            } else {
-                System.out.println(demoGame.currentPlayer + " " + wIdx + " " + bIdx + "error");
+    // 用威胁空间搜索分析当前玩家是否存在必胜（连续冲四/活三）
+    private void analyzeForcedWin() {
+        GomokuThreatSolver.Result result = new GomokuThreatSolver().solve(engine.board(), currentPlayer().getPieceType());
+        String stats = "（节点数 " + result.getNodes() + "，用时 " + result.getElapsedNanos() / 1000000 + " ms）";
+        switch (result.getStatus()) {
+            case WIN:
+                StringBuilder line = new StringBuilder();
+                List<int[]> sequence = result.getSequence();
+                for (int[] cell : sequence) {
+                    line.append(" ").append(GomokuBoard.getRowLabel(cell[0])).append(GomokuBoard.getColLabel(cell[1]));
+                }
+                System.out.println("必胜分析：玩家[" + currentPlayer().getName() + "]存在必胜序列"
+                        + (result.isFoursOnly() ? "(VCF)" : "(VCT)") + "：" + line + stats);
+                break;
+            case NO_WIN:
+                System.out.println("必胜分析：在搜索范围内没有找到必胜序列" + stats);
+                break;
+            default:
+                System.out.println("必胜分析：搜索预算已用尽，未能得出结论" + stats);
                 break;
-            }
-            demoGame.checkGameEnd();
-            try { Thread.sleep(1000); } catch (InterruptedException e) { }
-        }
-        if (demoGame.isGameEnded) {
-            demoGame.displayGameResult();
-        } else {
-            System.out.println("Demo演示已结束。");
         }
-        isDemoMode = false;
-        // 删除demo的该模式
-        gameList.remove(demoGame);
-        currentGameIndex-=1;
-        System.out.println("Demo结束！\n\n\n");
-        displayBoard();
+    }
 
+    private GomokuEngine gomokuEngine() {
+        return (GomokuEngine) engine;
     }
 } 
\ No newline at end of file
@@ -1,94 +1,196 @@
 package com.chess.service;
 
-import java.util.ArrayList;
+import com.chess.ai.ReversiBot;
+import com.chess.ai.ReversiEndgameSolver;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+import com.chess.engine.ReversiEngine;
+import com.chess.engine.ReversiPerft;
 import com.chess.entity.Piece;
+import com.chess.entity.Player;
+import com.chess.entity.ReversiBoard;
 
 public class ReversiGame extends Game {
     
+    // 由电脑接管的座位，null表示由玩家输入
+    private ReversiBot player1Bot;
+    private ReversiBot player2Bot;
+    // 电脑行棋报告，在下一次显示棋盘后输出
+    private String lastBotReport;
+    // solve命令的时间上限
+    private static final long SOLVE_TIME_BUDGET_MILLIS = 30000;
+    // 对局中perft命令的最大深度，在输入线程上运行，更深的层数交给ReversiPerft的main
+    private static final int MAX_CONSOLE_PERFT_DEPTH = 12;
+    
     public ReversiGame(String player1Name, String player2Name, int gameId) {
         super(player1Name, player2Name, GameMode.REVERSI, gameId);
     }
-    
+
+    public ReversiGame(String player1Name, String player2Name, int gameId, int boardCount) {
+        super(player1Name, player2Name, GameMode.REVERSI, gameId, boardCount);
+    }
+
     
     @Override
     public void playOneRound() {
-        if (isGameEnded) {
+        if (isGameEnded()) {
             System.out.println("当前游戏已结束，请切换到其他游戏或添加新游戏");
         }
         
-        if (!hasValidMove(player1) && !hasValidMove(player2)) {
-                isGameEnded = true;
+        if (lastBotReport != null) {
+            System.out.println(lastBotReport);
+            lastBotReport = null;
+        }
+        
+        if (!reversiEngine().hasValidMove(Piece.BLACK) && !reversiEngine().hasValidMove(Piece.WHITE)) {
                 System.out.println("两位玩家都没有合法落子位置，游戏结束！");
                 displayGameResult();
         }   
         
+        // 当前座位由电脑接管时直接由电脑行棋
+        if (!isGameEnded() && getBot(currentPlayer()) != null) {
+            playBotMove();
+            checkGameEnd();
+            return;
+        }
+        
         makeMove(true,false);
         checkGameEnd();
     }
     
+    // 让电脑接管指定玩家的座位
+    public void setBot(Player player, ReversiBot bot) {
+        if (player == player1) {
+            player1Bot = bot;
+        } else if (player == player2) {
+            player2Bot = bot;
+        }
+    }
+    
+    private ReversiBot getBot(Player player) {
+        return (player == player1) ? player1Bot : player2Bot;
+    }
+
+    @Override
+    protected boolean isBot(Player player) {
+        return getBot(player) != null;
+    }
+
+    // 把电脑接管的座位都交还给玩家，返回交还的座位数
+    private int releaseBots() {
+        int released = 0;
+        for (Player player : new Player[] {player1, player2}) {
+            if (getBot(player) != null) {
+                setBot(player, null);
+                released++;
+            }
+        }
+        return released;
+    }
+    
+    // 电脑在当前棋盘上搜索并落子（无合法位置时Pass），由引擎切换行棋方；引擎拒绝时返回false且不记录报告
+    private boolean playBotMove() {
+        Player player = currentPlayer();
+        Piece pieceType = player.getPieceType();
+        ReversiBoard board = reversiEngine().board();
+        ReversiBot.SearchResult result = getBot(player).search(
+                board.getBitboard(pieceType), board.getBitboard(GameEngine.opponent(pieceType)));
+        
+        if (result.isPass()) {
+            if (!applyMove(Move.pass())) {
+                return false;
+            }
+            lastBotReport = "电脑[" + player.getName() + "]没有合法落子位置，跳过行棋";
+            return true;
+        }
+        if (!applyMove(Move.place(result.getRow(), result.getCol()))) {
+            return false;
+        }
+        if (result.isFromBook()) {
+            lastBotReport = String.format("电脑[%s]落子 %d%c：开局库",
+                    player.getName(), result.getRow() + 1, (char) ('a' + result.getCol()));
+        } else if (result.isSolved()) {
+            lastBotReport = String.format("电脑[%s]落子 %d%c：终局求解，%s，节点数 %d，%d 节点/秒",
+                    player.getName(), result.getRow() + 1, (char) ('a' + result.getCol()),
+                    predictedResult(pieceType, result.getFinalDiscDifference()),
+                    result.getNodes(), result.getNodesPerSecond());
+        } else {
+            lastBotReport = String.format("电脑[%s]落子 %d%c：搜索深度 %d，节点数 %d，%d 节点/秒",
+                    player.getName(),
+                    result.getRow() + 1,
+                    (char) ('a' + result.getCol()),
+                    result.getDepth(),
+                    result.getNodes(),
+                    result.getNodesPerSecond());
+        }
+        return true;
+    }
+    
     @Override
     protected void displayBoard() {
-        System.out.println("  A B C D E F G H");
+        StringBuilder frame = renderer.beginFrame();
+        frame.append("  A B C D E F G H").append('\n');
+        // 当前玩家的合法落子（与回合、终局判断共用引擎中的缓存）
+        long hints = reversiEngine().legalMoveMask(currentPlayer().getPieceType());
         
         for (int i = 0; i < Math.max(boardSize, 6 + gameList.size() - 2); i++) {
             // 显示棋盘行（如果在棋盘范围内）
             if (i < boardSize) {
-                System.out.print((i + 1));
+                frame.append((i + 1));
                 for (int j = 0; j < boardSize; j++) {
                     // 显示合法落子位置
-                    if (boards[currentBoardIndex].getPiece(i, j) == Piece.EMPTY && 
-                        isValidMove(i, j, currentPlayer.getPieceType())) {
-                        System.out.print(" +");
+                    if ((hints & ReversiBoard.bit(i, j)) != 0) {
+                        frame.append(" +");
                     } else {
-                        System.out.print(" " + boards[currentBoardIndex].getPiece(i, j).getSymbol());
+                        frame.append(' ').append(engine.board().getPiece(i, j).getSymbol());
                     }
                 }
             } else {
                 // 如果超出棋盘范围，只需要为游戏列表留出空间
-                System.out.print("                 ");
+                frame.append("                 ");
             }
 
             // 右侧显示游戏信息、玩家得分和游戏列表
             if (i == 3) {
-                System.out.print("  游戏#" + gameId + " (" + gameMode.getName() + ")           游戏列表");
+                frame.append("  游戏#" + gameId + " (" + gameMode.getName() + ")           游戏列表");
             } else if (i == 4) {
                 // 计算第一行玩家信息
                 String playerInfo = String.format("  玩家[%s] %s 得分: %d", 
                     player1.getName(),
-                    (currentPlayer == player1 ? player1.getPieceType().getSymbol() : ""),
+                    (currentPlayer() == player1 ? player1.getPieceType().getSymbol() : ""),
                     countPieces(Piece.BLACK));
                 
-                System.out.print(playerInfo);
+                frame.append(playerInfo);
                 
                 // 确保游戏列表项始终从第25列开始（为黑白棋模式左移5格）
                 int targetColumn = 25; 
                 int spaces = targetColumn - playerInfo.length();
                 for (int s = 0; s < spaces; s++) {
-                    System.out.print(" ");
+                    frame.append(' ');
                 }
                 
                 if (0 < gameList.size()) {
-                    System.out.print("1. " + gameList.get(0).gameMode.getName() + 
+                    frame.append("1. " + gameList.get(0).gameMode.getName() + 
                         (0 == currentGameIndex ? " (当前)" : ""));
                 }
             } else if (i == 5) {
                 // 计算第二行玩家信息
                 String playerInfo = String.format("  玩家[%s] %s 得分: %d", 
                     player2.getName(),
-                    (currentPlayer == player2 ? player2.getPieceType().getSymbol() : ""),
+                    (currentPlayer() == player2 ? player2.getPieceType().getSymbol() : ""),
                     countPieces(Piece.WHITE));
                 
-                System.out.print(playerInfo);
+                frame.append(playerInfo);
                 
                 // 确保游戏列表项始终从第25列开始（为黑白棋模式左移5格）
                 int targetColumn = 25;
                 int spaces = targetColumn - playerInfo.length();
                 for (int s = 0; s < spaces; s++) {
-                    System.out.print(" ");
+                    frame.append(' ');
                 }
                 
                 if (1 < gameList.size()) {
-                    System.out.print("2. " + gameList.get(1).gameMode.getName() + 
+                    frame.append("2. " + gameList.get(1).gameMode.getName() + 
                         (1 == currentGameIndex ? " (当前)" : ""));
                 }
             } else if (i >= 6 && i < 6 + gameList.size() - 2) {
@@ -100,71 +202,110 @@ public class ReversiGame extends Game {
                     for (int s = 0; s < 29; s++) {
                         spaces.append(" ");
                     }
-                    System.out.print(spaces.toString() + (gameIndex + 1) + ". " + 
+                    frame.append(spaces).append((gameIndex + 1) + ". " + 
                             gameList.get(gameIndex).gameMode.getName() + 
                             (gameIndex == currentGameIndex ? " (当前)" : ""));
                 }
             }
 
-            System.out.println();
+            frame.append('\n');
         }
-        System.out.println();
+        frame.append('\n');
+        renderer.render();
     }
     
     // 重写处理落子输入方法
     @Override
     protected boolean processMoveInput(String input) {
-        try {
-            // 找到第一个非数字字符的位置
-            int letterPos = 0;
-            while (letterPos < input.length() && Character.isDigit(input.charAt(letterPos))) {
-                letterPos++;
-            }
-            
-            // 如果没有找到字母或者数字部分为空，则输入格式错误
-            if (letterPos == 0 || letterPos >= input.length()) {
-                System.out.println("输入格式有误，请使用数字+字母（如：1a）");
-                return false;
-            }
-            
-            // 解析行号和列号
-            int row = Integer.parseInt(input.substring(0, letterPos)) - 1;
-            char colChar = Character.toUpperCase(input.charAt(letterPos));
-            int col = colChar - 'A';
-            
-            // 验证行列是否在有效范围内
-            if (row < 0 || row >= boardSize || col < 0 || col >= boardSize) {
-                System.out.println("输入超出棋盘范围，请重新输入！");
-                return false;
-            }
-
-            if (!isValidMove(row, col, currentPlayer.getPieceType())) {
-                System.out.println("不是合法的落子位置，请重新输入！");
-                return false;
-            }
-            
-            // 先放置棋子再翻转
-            boolean result = boards[currentBoardIndex].placePiece(row, col, currentPlayer.getPieceType(), true);
-            if (result) {
-                flipPieces(row, col, currentPlayer.getPieceType());
-            }
-            
-            return result;
-        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
-            System.out.println("输入格式有误，请使用数字+字母（如：1a）");
+        // 由电脑接管当前玩家的座位，并立即代为行棋
+        if (input.equalsIgnoreCase("bot")) {
+            setBot(currentPlayer(), new ReversiBot());
+            return playBotMove();
+        }
+        // 电脑接管的座位交还给玩家，之后由玩家输入
+        if (input.equalsIgnoreCase("human")) {
+            System.out.println(releaseBots() > 0 ? "电脑接管的座位已交还给玩家" : "当前没有电脑接管的座位");
+            return false;
+        }
+        // 走法生成校验：perft [深度]，从当前棋盘统计叶子数并测速，不落子
+        String[] command = input.split("\\s+");
+        if (command[0].equalsIgnoreCase("perft")) {
+            runPerft(command);
+            return false;
+        }
+        // 终局精确求解：双方完美对弈下的最终比分和当前玩家的最佳落子，不落子
+        if (input.equalsIgnoreCase("solve")) {
+            solveEndgame();
             return false;
         }
+        // 落子的合法性和翻转由引擎处理
+        return super.processMoveInput(input);
     }
     
-    // 重写检查游戏结束方法
-    @Override
-    protected void checkGameEnd() {
-        // 检查棋盘是否已满或者两位玩家都无法落子
-        boolean boardFull = boards[currentBoardIndex].isFull();
-        boolean noValidMoves = !hasValidMove(player1) && !hasValidMove(player2);
-        isGameEnded = boardFull || noValidMoves;
+    private void runPerft(String[] command) {
+        int depth;
+        try {
+            depth = command.length > 1 ? Integer.parseInt(command[1]) : 8;
+        } catch (NumberFormatException e) {
+            System.out.println("输入格式有误，请使用 perft 深度（如 perft 8）");
+            return;
+        }
+        if (depth < 1 || depth > MAX_CONSOLE_PERFT_DEPTH) {
+            System.out.println("perft深度应为1-" + MAX_CONSOLE_PERFT_DEPTH + "，更深的层数请使用ReversiPerft");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ReversiPerft.Result result = ReversiPerft.run(reversiEngine(), depth, threads);
+        String check = "";
+        if (ReversiPerft.isStartPosition(reversiEngine()) && ReversiPerft.expected(depth) >= 0) {
+            check = ReversiPerft.expected(depth) == result.getNodes()
+                    ? "，与标准开局的公开结果一致"
+                    : "，与标准开局的公开结果不一致（应为" + ReversiPerft.expected(depth) + "）";
+        }
+        System.out.printf("perft(%d) = %d，%.1f 毫秒，%d 节点/秒，%d 线程%s%n",
+                depth, result.getNodes(), result.getElapsedNanos() / 1e6, result.getNodesPerSecond(), threads, check);
     }
-    
+
+    private void solveEndgame() {
+        Piece pieceType = currentPlayer().getPieceType();
+        ReversiBoard board = reversiEngine().board();
+        long own = board.getBitboard(pieceType);
+        long opp = board.getBitboard(GameEngine.opponent(pieceType));
+        int empties = ReversiEndgameSolver.empties(own, opp);
+        if (empties > ReversiBot.ENDGAME_EMPTIES) {
+            System.out.println("还有 " + empties + " 个空格，求解可能需要很长时间（上限 "
+                    + SOLVE_TIME_BUDGET_MILLIS / 1000 + " 秒）");
+        }
+        ReversiEndgameSolver.Result result = new ReversiEndgameSolver().solve(own, opp, SOLVE_TIME_BUDGET_MILLIS * 1000000L);
+        if (result == null) {
+            System.out.println("终局求解：超出时间上限，未能得出结论");
+            return;
+        }
+        String move = result.isPass()
+                ? "只能跳过行棋"
+                : String.format("最佳落子 %d%c", result.getRow() + 1, (char) ('a' + result.getCol()));
+        System.out.printf("终局求解：%s，%s（空格 %d，节点数 %d，用时 %.1f 毫秒，%d 节点/秒）%n",
+                predictedResult(pieceType, result.getScore()), move, empties,
+                result.getNodes(), result.getElapsedNanos() / 1e6, result.getNodesPerSecond());
+    }
+
+    // 双方完美对弈下的最终比分；difference为pieceType一方视角的子数差，剩余空格已计入胜方
+    private String predictedResult(Piece pieceType, int difference) {
+        int blackDifference = pieceType == Piece.BLACK ? difference : -difference;
+        int blackCount = (ReversiBoard.REVERSI_SIZE * ReversiBoard.REVERSI_SIZE + blackDifference) / 2;
+        int whiteCount = ReversiBoard.REVERSI_SIZE * ReversiBoard.REVERSI_SIZE - blackCount;
+        String outcome;
+        if (blackCount > whiteCount) {
+            outcome = "玩家[" + player1.getName() + "]获胜";
+        } else if (whiteCount > blackCount) {
+            outcome = "玩家[" + player2.getName() + "]获胜";
+        } else {
+            outcome = "平局";
+        }
+        return String.format("预测比分 玩家[%s] %d : %d 玩家[%s]，%s",
+                player1.getName(), blackCount, whiteCount, player2.getName(), outcome);
+    }
+
     // 重写显示游戏结果方法
     @Override
     protected void displayGameResult() {
@@ -186,94 +327,12 @@ public class ReversiGame extends Game {
     
 
     
-    // 判断位置是否为合法落子
-    @Override
-    protected boolean isValidMove(int row, int col, Piece pieceType) {
-        // 位置必须为空
-        if (boards[currentBoardIndex].getPiece(row, col) != Piece.EMPTY) {
-            return false;
-        }
-        
-        // 检查8个方向
-        int[][] directions = {
-            {-1, -1}, {-1, 0}, {-1, 1},
-            {0, -1},           {0, 1},
-            {1, -1},  {1, 0},  {1, 1}
-        };
-        
-        Piece opponentPiece = (pieceType == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
-        
-        for (int[] dir : directions) {
-            int r = row + dir[0];
-            int c = col + dir[1];
-            
-            // 检查是否有对手棋子相邻
-            if (isWithinBoard(r, c) && boards[currentBoardIndex].getPiece(r, c) == opponentPiece) {
-                r += dir[0];
-                c += dir[1];
-                
-                // 继续沿此方向检查
-                while (isWithinBoard(r, c)) {
-                    if (boards[currentBoardIndex].getPiece(r, c) == Piece.EMPTY) {
-                        break;
-                    }
-                    if (boards[currentBoardIndex].getPiece(r, c) == pieceType) {
-                        return true; // 找到了可翻转的棋子
-                    }
-                    r += dir[0];
-                    c += dir[1];
-                }
-            }
-        }
-        
-        return false;
-    }
-    // 翻转被夹住的对手棋子
-    protected void flipPieces(int row, int col, Piece pieceType) {
-        int[][] directions = {
-            {-1, -1}, {-1, 0}, {-1, 1},
-            {0, -1},           {0, 1},
-            {1, -1},  {1, 0},  {1, 1}
-        };
-        
-        Piece opponentPiece = (pieceType == Piece.BLACK) ? Piece.WHITE : Piece.BLACK;
-        
-        for (int[] dir : directions) {
-            ArrayList<int[]> toFlip = new ArrayList<>();
-            int r = row + dir[0];
-            int c = col + dir[1];
-            
-            // 收集一条直线上的对手棋子
-            while (isWithinBoard(r, c) && boards[currentBoardIndex].getPiece(r, c) == opponentPiece) {
-                toFlip.add(new int[]{r, c});
-                r += dir[0];
-                c += dir[1];
-            }
-            
-            // 只有当这条线上最后遇到自己的棋子时，才翻转中间的对手棋子
-            if (isWithinBoard(r, c) && boards[currentBoardIndex].getPiece(r, c) == pieceType && !toFlip.isEmpty()) {
-                for (int[] pos : toFlip) {
-                    boards[currentBoardIndex].placePiece(pos[0], pos[1], pieceType,true);
-                }
-            }
-        }
-    }
-
     // 计算特定类型棋子的数量
     protected int countPieces(Piece pieceType) {
-        int count = 0;
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
-                if (boards[currentBoardIndex].getPiece(i, j) == pieceType) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return reversiEngine().countPieces(pieceType);
     }
-    
-    // 检查坐标是否在棋盘内
-    private boolean isWithinBoard(int row, int col) {
-        return row >= 0 && row < boardSize && col >= 0 && col < boardSize;
+
+    private ReversiEngine reversiEngine() {
+        return (ReversiEngine) engine;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.chess.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import com.chess.service.Game.GameMode;
+
+// 整个游戏列表的存档：先在内存中拼好，一次写入；读取时一次读入后逐个恢复
+// 格式：魔数、版本、游戏数u16、当前游戏u16、新游戏的棋盘数u16，
+// 随后每个游戏为 [模式][编号u16][棋盘数u16][局面长度u32][局面]，局面见GameEngine.writeState
+final class SavedGames {
+    private static final int MAGIC = 0x43485331; // "CHS1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 11;
+    private static final int GAME_HEADER_SIZE = 9;
+    private static final GameMode[] MODES = GameMode.values();
+
+    private SavedGames() {
+    }
+
+    // 返回写入的字节数
+    static int save(Path path, List<Game> games, int currentGameIndex, int boardCount) throws IOException {
+        int size = HEADER_SIZE;
+        for (Game game : games) {
+            size += GAME_HEADER_SIZE + game.engine.stateSize();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC)
+                .put((byte) VERSION)
+                .putShort((short) games.size())
+                .putShort((short) currentGameIndex)
+                .putShort((short) boardCount);
+        for (Game game : games) {
+            out.put((byte) game.gameMode.ordinal())
+                    .putShort((short) game.gameId)
+                    .putShort((short) game.engine.boardCount())
+                    .putInt(game.engine.stateSize());
+            game.engine.writeState(out);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        return size;
+    }
+
+    // 读取后的游戏列表及存档时的当前游戏和棋盘数
+    static final class Loaded {
+        final List<Game> games;
+        final int currentGameIndex;
+        final int boardCount;
+
+        Loaded(List<Game> games, int currentGameIndex, int boardCount) {
+            this.games = games;
+            this.currentGameIndex = currentGameIndex;
+            this.boardCount = boardCount;
+        }
+    }
+
+    // 每个游戏按存档中记录的棋盘数创建，不影响新游戏使用的Game.BOARD_COUNT
+    static Loaded load(Path path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (in.getInt() != MAGIC || in.get() != VERSION) {
+                throw new IOException("不是存档文件或版本不兼容");
+            }
+            int count = in.getShort() & 0xFFFF;
+            int currentGameIndex = in.getShort() & 0xFFFF;
+            int boardCount = in.getShort() & 0xFFFF;
+            List<Game> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                GameMode mode = MODES[in.get()];
+                int gameId = in.getShort() & 0xFFFF;
+                int gameBoardCount = in.getShort() & 0xFFFF;
+                int length = in.getInt();
+                int end = in.position() + length;
+                Game game = Game.createGame(mode, gameId, gameBoardCount);
+                game.engine.readState(in);
+                if (in.position() != end) {
+                    throw new IOException("游戏#" + gameId + "的局面长度不一致");
+                }
+                games.add(game);
+            }
+            if (currentGameIndex >= games.size()) {
+                currentGameIndex = 0;
+            }
+            return new Loaded(games, currentGameIndex, boardCount);
+        } catch (RuntimeException e) {
+            // 截断或内容损坏的存档：越界、未知的模式或棋子编码等
+            throw new IOException("存档已损坏：" + e, e);
+        }
+    }
+}
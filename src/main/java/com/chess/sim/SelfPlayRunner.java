@@ -0,0 +1,142 @@
+package com.chess.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GameStatus;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+// 无界面的批量自我对弈：每局是一个fork-join任务，统计按任务树逐层合并
+// 策略实例按工作线程各建一份，行棋路径上没有锁和共享的可变状态
+// 用法：java -cp chess-game.jar com.chess.sim.SelfPlayRunner <peace|reversi|gomoku> <局数> <黑方策略> <白方策略> [线程数]
+public class SelfPlayRunner {
+    // 少于该局数的区间不再拆分
+    private static final int GAMES_PER_TASK = 4;
+
+    private final GameMode mode;
+    private final int games;
+    private final ThreadLocal<Strategy> blackStrategy;
+    private final ThreadLocal<Strategy> whiteStrategy;
+    // 各工作线程创建的策略实例，run结束时统一关闭
+    private final ConcurrentLinkedQueue<Strategy> created = new ConcurrentLinkedQueue<>();
+    private final int parallelism;
+    private final long seed;
+
+    public SelfPlayRunner(GameMode mode, int games, Supplier<Strategy> black, Supplier<Strategy> white,
+                          int parallelism, long seed) {
+        this.mode = mode;
+        this.games = games;
+        this.blackStrategy = ThreadLocal.withInitial(() -> track(black.get()));
+        this.whiteStrategy = ThreadLocal.withInitial(() -> track(white.get()));
+        this.parallelism = Math.max(1, parallelism);
+        this.seed = seed;
+    }
+
+    public SimulationStats run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            SimulationStats stats = pool.invoke(new GamesTask(0, games));
+            stats.setElapsedNanos(System.nanoTime() - start);
+            return stats;
+        } finally {
+            pool.shutdown();
+            // 异常结束时可能还有子任务在运行，等它们结束再关闭策略
+            pool.awaitQuiescence(1, TimeUnit.MINUTES);
+            closeStrategies();
+        }
+    }
+
+    private Strategy track(Strategy strategy) {
+        created.add(strategy);
+        return strategy;
+    }
+
+    // 工作线程随线程池结束，它们的策略不会再被使用
+    private void closeStrategies() {
+        Strategy strategy;
+        while ((strategy = created.poll()) != null) {
+            strategy.close();
+        }
+    }
+
+    private class GamesTask extends RecursiveTask<SimulationStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        GamesTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationStats stats = new SimulationStats();
+                List<Move> moves = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    playGame(i, moves, stats);
+                }
+                return stats;
+            }
+            int middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(from, middle);
+            left.fork();
+            SimulationStats right = new GamesTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // 每局使用由局号派生的随机数，结果与调度顺序无关（有时间预算的电脑玩家除外）
+    private void playGame(int index, List<Move> moves, SimulationStats stats) {
+        SplittableRandom random = new SplittableRandom(seed + index * 0x9E3779B97F4A7C15L);
+        // 自我对弈只使用一个棋盘
+        GameEngine engine = mode.createEngine(1);
+        Strategy black = blackStrategy.get();
+        Strategy white = whiteStrategy.get();
+        int blackBombs = 0;
+        int whiteBombs = 0;
+        while (engine.status() == GameStatus.IN_PROGRESS) {
+            engine.legalMoves(moves);
+            Piece side = engine.sideToMove();
+            Move move = (side == Piece.BLACK ? black : white).choose(engine, moves, random);
+            if (engine.apply(move) != MoveResult.OK) {
+                throw new IllegalStateException("策略给出了非法操作: " + move);
+            }
+            if (move.isBomb()) {
+                if (side == Piece.BLACK) {
+                    blackBombs++;
+                } else {
+                    whiteBombs++;
+                }
+            }
+        }
+        stats.recordGame(engine.status(), engine.winner(), engine.moveCount(), blackBombs, whiteBombs);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println("用法: SelfPlayRunner <peace|reversi|gomoku> <局数> <黑方策略> <白方策略> [线程数]");
+            System.out.println("策略: random, greedy, bot");
+            return;
+        }
+        GameMode mode = GameMode.valueOf(args[0].toUpperCase());
+        int games = Integer.parseInt(args[1]);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        SelfPlayRunner runner = new SelfPlayRunner(mode, games,
+                Strategies.byName(args[2], mode), Strategies.byName(args[3], mode), threads, System.nanoTime());
+        System.out.println(mode.getName() + "：黑方 " + args[2] + " 对 白方 " + args[3] + "，" + threads + " 线程");
+        System.out.println(runner.run().report());
+    }
+}
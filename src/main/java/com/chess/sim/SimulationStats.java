@@ -0,0 +1,102 @@
+package com.chess.sim;
+
+import com.chess.engine.GameStatus;
+import com.chess.entity.Piece;
+
+// 一批自我对弈的统计；每个任务各自累计，结束后再合并，行棋过程中没有共享状态
+public class SimulationStats {
+    private long games;
+    private long blackWins;
+    private long whiteWins;
+    private long draws;
+    private long moves;
+    private long blackBombs;
+    private long whiteBombs;
+    private long elapsedNanos;
+
+    public void recordGame(GameStatus status, Piece winner, long gameMoves, long gameBlackBombs, long gameWhiteBombs) {
+        games++;
+        if (status == GameStatus.WIN && winner == Piece.BLACK) {
+            blackWins++;
+        } else if (status == GameStatus.WIN && winner == Piece.WHITE) {
+            whiteWins++;
+        } else {
+            draws++;
+        }
+        moves += gameMoves;
+        blackBombs += gameBlackBombs;
+        whiteBombs += gameWhiteBombs;
+    }
+
+    public SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        blackWins += other.blackWins;
+        whiteWins += other.whiteWins;
+        draws += other.draws;
+        moves += other.moves;
+        blackBombs += other.blackBombs;
+        whiteBombs += other.whiteBombs;
+        return this;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getBlackWins() {
+        return blackWins;
+    }
+
+    public long getWhiteWins() {
+        return whiteWins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getBlackBombs() {
+        return blackBombs;
+    }
+
+    public long getWhiteBombs() {
+        return whiteBombs;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getAverageLength() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public String report() {
+        return String.format("对局数: %d%n黑方胜: %d (%.1f%%)  白方胜: %d (%.1f%%)  平局: %d (%.1f%%)%n"
+                        + "平均手数: %.1f  炸弹使用: 黑 %d / 白 %d（每局 %.2f）%n用时: %d ms  %.1f 局/秒",
+                games,
+                blackWins, percent(blackWins),
+                whiteWins, percent(whiteWins),
+                draws, percent(draws),
+                getAverageLength(),
+                blackBombs, whiteBombs, games == 0 ? 0 : (double) (blackBombs + whiteBombs) / games,
+                elapsedNanos / 1000000,
+                getGamesPerSecond());
+    }
+
+    private double percent(long count) {
+        return games == 0 ? 0 : count * 100.0 / games;
+    }
+}
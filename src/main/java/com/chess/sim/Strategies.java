@@ -0,0 +1,154 @@
+package com.chess.sim;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import com.chess.ai.GomokuMctsBot;
+import com.chess.ai.ReversiBot;
+import com.chess.engine.GameEngine;
+import com.chess.engine.GomokuEngine;
+import com.chess.engine.GomokuWinDetector;
+import com.chess.engine.Move;
+import com.chess.engine.ReversiEngine;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+import com.chess.service.Game.GameMode;
+
+// 内置策略：random（均匀随机）、greedy（一步贪心）、bot（对应模式的电脑玩家）
+public final class Strategies {
+    // 自我对弈时电脑玩家的默认预算，远小于交互对局
+    public static final long BOT_TIME_BUDGET_MILLIS = 20;
+    public static final long BOT_MAX_PLAYOUTS = 2000;
+
+    private static final long CORNERS = 0x8100000000000081L;
+    private static final int CORNER_BONUS = 10;
+
+    private Strategies() {
+    }
+
+    // 按名称创建策略工厂，每个工作线程通过工厂得到自己的实例
+    public static Supplier<Strategy> byName(String name, GameMode mode) {
+        switch (name.toLowerCase()) {
+            case "random":
+                return () -> Strategies::random;
+            case "greedy":
+                return () -> Strategies::greedy;
+            case "bot":
+                if (mode == GameMode.REVERSI) {
+                    return () -> reversiBot(new ReversiBot(BOT_TIME_BUDGET_MILLIS));
+                }
+                if (mode == GameMode.GOMOKU) {
+                    return () -> gomokuBot(new GomokuMctsBot(BOT_TIME_BUDGET_MILLIS, BOT_MAX_PLAYOUTS, 1));
+                }
+                throw new IllegalArgumentException("当前游戏没有电脑玩家: " + mode.getName());
+            default:
+                throw new IllegalArgumentException("未知的策略: " + name);
+        }
+    }
+
+    public static Move random(GameEngine engine, List<Move> moves, SplittableRandom random) {
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    // 黑白棋选翻转最多的位置（角额外加分）；五子棋能连五就连五，否则堵住对方的五，再否则延长自己最长的线
+    public static Move greedy(GameEngine engine, List<Move> moves, SplittableRandom random) {
+        if (engine instanceof ReversiEngine) {
+            return greedyReversi((ReversiEngine) engine, moves, random);
+        }
+        if (engine instanceof GomokuEngine) {
+            return greedyGomoku(engine, moves, random);
+        }
+        return random(engine, moves, random);
+    }
+
+    public static Strategy reversiBot(ReversiBot bot) {
+        return (engine, moves, random) -> {
+            ReversiBoard board = ((ReversiEngine) engine).board();
+            Piece side = engine.sideToMove();
+            ReversiBot.SearchResult result = bot.search(
+                    board.getBitboard(side), board.getBitboard(GameEngine.opponent(side)));
+            return result.isPass() ? Move.pass() : Move.place(result.getRow(), result.getCol());
+        };
+    }
+
+    // 返回的策略拥有bot，关闭策略时一并关闭bot的线程池
+    public static Strategy gomokuBot(GomokuMctsBot bot) {
+        return new Strategy() {
+            @Override
+            public Move choose(GameEngine engine, List<Move> moves, SplittableRandom random) {
+                GomokuEngine gomoku = (GomokuEngine) engine;
+                GomokuMctsBot.SearchResult result = bot.search(gomoku.board(), gomoku.sideToMove(),
+                        gomoku.bombsLeft(Piece.BLACK), gomoku.bombsLeft(Piece.WHITE));
+                if (result.getRow() < 0) {
+                    return random(engine, moves, random);
+                }
+                return result.isBomb() ? Move.bomb(result.getRow(), result.getCol())
+                        : Move.place(result.getRow(), result.getCol());
+            }
+
+            @Override
+            public void close() {
+                bot.close();
+            }
+        };
+    }
+
+    private static Move greedyReversi(ReversiEngine engine, List<Move> moves, SplittableRandom random) {
+        ReversiBoard board = engine.board();
+        Piece side = engine.sideToMove();
+        Move best = null;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (Move move : moves) {
+            if (move.isPass()) {
+                return move;
+            }
+            int score = Long.bitCount(board.flips(move.getRow(), move.getCol(), side));
+            if ((ReversiBoard.bit(move.getRow(), move.getCol()) & CORNERS) != 0) {
+                score += CORNER_BONUS;
+            }
+            // 同分时等概率选择（蓄水池抽样）
+            if (score > bestScore) {
+                best = move;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    private static Move greedyGomoku(GameEngine engine, List<Move> moves, SplittableRandom random) {
+        Board board = engine.board();
+        Piece side = engine.sideToMove();
+        Piece opponent = GameEngine.opponent(side);
+        Move best = null;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (Move move : moves) {
+            if (move.isBomb()) {
+                continue;
+            }
+            int own = GomokuWinDetector.longestLine(board, move.getRow(), move.getCol(), side);
+            int block = GomokuWinDetector.longestLine(board, move.getRow(), move.getCol(), opponent);
+            int score;
+            if (own >= GomokuWinDetector.WIN_LENGTH) {
+                score = 1000;
+            } else if (block >= GomokuWinDetector.WIN_LENGTH) {
+                score = 500;
+            } else {
+                score = own * 2 + block;
+            }
+            if (score > bestScore) {
+                best = move;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = move;
+            }
+        }
+        return best != null ? best : random(engine, moves, random);
+    }
+}
@@ -0,0 +1,18 @@
+package com.chess.sim;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+
+// 自我对弈中的一方：根据引擎的当前局面选择一步操作
+// 同一个实例只会在一个线程中使用，可以保存自己的搜索状态
+// 持有线程池等资源的策略重写close，对弈结束后由创建者关闭
+public interface Strategy extends AutoCloseable {
+    // moves为引擎给出的当前行棋方全部合法操作（非空）
+    Move choose(GameEngine engine, List<Move> moves, SplittableRandom random);
+
+    @Override
+    default void close() {
+    }
+}
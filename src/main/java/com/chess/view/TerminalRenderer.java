@@ -0,0 +1,232 @@
+package com.chess.view;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+// 整帧渲染：先把一帧画面写入可复用的缓冲区，再一次性编码并写出
+// ANSI模式下与上一帧逐行比较，只用光标定位重绘发生变化的行（行内从第一个不同的字符开始）
+// 整屏重绘后把帧下方设为滚动区域：提示、消息和输入回显只在帧下方滚动，帧始终固定在屏幕顶部，差异重绘的行号才可靠
+// 已知终端行数（-Dchess.rows或环境变量LINES）且帧下方不足两行时不设滚动区域，每帧都整屏重绘
+// 没有控制台（重定向、管道）或指定-Dchess.ansi=false时退回普通输出：清屏空行和整帧一起写出
+public class TerminalRenderer {
+    public static final int CLEAR_LINES = 80;
+
+    private static final String ESC = "\033[";
+    // 保存光标、恢复整屏滚动区域、恢复光标（设置滚动区域会把光标移到左上角）
+    private static final String RESET_REGION = "\0337\033[r\0338";
+
+    private final boolean ansi;
+    // 终端行数，0表示未知
+    private final int screenRows;
+    // 是否设置了帧下方的滚动区域
+    private boolean regionSet;
+    // 调用方写入的当前帧
+    private final StringBuilder frame = new StringBuilder(4096);
+    // 发送到终端的内容（转义序列 + 变化的行）
+    private final StringBuilder output = new StringBuilder(4096);
+    private final CharsetEncoder encoder = Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer bytes = ByteBuffer.allocate(8192);
+
+    // 上一帧的内容及每行的起止位置
+    private String previous;
+    private int[] previousStarts = new int[64];
+    private int previousLines;
+    private int[] starts = new int[64];
+    private boolean pendingClear;
+
+    public TerminalRenderer(boolean ansi) {
+        this(ansi, 0);
+    }
+
+    public TerminalRenderer(boolean ansi, int screenRows) {
+        this.ansi = ansi;
+        this.screenRows = screenRows;
+        if (ansi) {
+            // 退出时恢复整屏滚动，否则之后的shell只能在帧下方滚动
+            Runtime.getRuntime().addShutdownHook(new Thread(this::resetRegion, "terminal-reset"));
+        }
+    }
+
+    // 交互控制台默认使用ANSI，可用-Dchess.ansi=true/false强制指定
+    public static TerminalRenderer forConsole() {
+        String setting = System.getProperty("chess.ansi");
+        boolean ansi = (setting != null) ? Boolean.parseBoolean(setting)
+                : System.console() != null && !"dumb".equals(System.getenv("TERM"));
+        return new TerminalRenderer(ansi, screenRows());
+    }
+
+    private static int screenRows() {
+        String rows = System.getProperty("chess.rows", System.getenv("LINES"));
+        try {
+            return rows == null ? 0 : Math.max(0, Integer.parseInt(rows.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public boolean isAnsi() {
+        return ansi;
+    }
+
+    // 开始新的一帧，返回清空后的缓冲区
+    public StringBuilder beginFrame() {
+        frame.setLength(0);
+        return frame;
+    }
+
+    // 请求清屏：普通模式下在下一帧前输出空行；ANSI模式下由差异重绘覆盖，不需要额外输出
+    public void clearScreen() {
+        if (!ansi) {
+            pendingClear = true;
+        }
+    }
+
+    // 下一帧完整重绘（例如屏幕内容被其他输出打乱后）
+    public void invalidate() {
+        previous = null;
+    }
+
+    // 把当前帧写到System.out，只调用一次write
+    public synchronized void render() {
+        output.setLength(0);
+        if (!ansi) {
+            if (pendingClear) {
+                for (int i = 0; i < CLEAR_LINES; i++) {
+                    output.append('\n');
+                }
+                pendingClear = false;
+            }
+            output.append(frame);
+            write(output);
+            return;
+        }
+
+        int lines = splitLines(frame);
+        boolean fits = screenRows == 0 || lines + 2 <= screenRows;
+        if (previous == null || lines != previousLines || !fits) {
+            // 行数变化（如切换游戏）时整屏重绘
+            if (regionSet) {
+                output.append(RESET_REGION);
+                regionSet = false;
+            }
+            output.append(ESC).append("H").append(ESC).append("2J");
+            for (int i = 0; i < lines; i++) {
+                output.append(frame, starts[i], lineEnd(frame, starts, i, lines)).append(ESC).append("K\n");
+            }
+            if (fits) {
+                // 帧下方为滚动区域，之后的输出不会把帧顶出屏幕；设置后光标回到帧下方第一行
+                output.append(ESC).append(lines + 1).append('r');
+                output.append(ESC).append(lines + 1).append(";1H");
+                regionSet = true;
+            }
+        } else {
+            for (int i = 0; i < lines; i++) {
+                appendLineDiff(i, lines);
+            }
+            // 光标移到帧下方，清除上一轮的提示和消息
+            output.append(ESC).append(lines + 1).append(";1H").append(ESC).append("J");
+        }
+        write(output);
+        rememberFrame(lines);
+    }
+
+    // 在关闭钩子中调用，与render不在同一线程
+    private synchronized void resetRegion() {
+        if (regionSet) {
+            System.out.print(RESET_REGION);
+            System.out.flush();
+            regionSet = false;
+        }
+    }
+
+    private void appendLineDiff(int line, int lines) {
+        int start = starts[line];
+        int end = lineEnd(frame, starts, line, lines);
+        int oldStart = previousStarts[line];
+        int oldEnd = lineEnd(previous, previousStarts, line, previousLines);
+        int length = end - start;
+        if (length == oldEnd - oldStart && sameChars(start, oldStart, length)) {
+            return;
+        }
+        // 公共前缀全为ASCII时才能确定显示列，否则从行首重绘（○●等符号在不同终端中宽度不同）
+        int prefix = 0;
+        int limit = Math.min(length, oldEnd - oldStart);
+        while (prefix < limit && frame.charAt(start + prefix) == previous.charAt(oldStart + prefix)
+                && frame.charAt(start + prefix) < 0x80) {
+            prefix++;
+        }
+        if (prefix < limit && frame.charAt(start + prefix) == previous.charAt(oldStart + prefix)) {
+            prefix = 0;
+        }
+        output.append(ESC).append(line + 1).append(';').append(prefix + 1).append('H');
+        output.append(frame, start + prefix, end).append(ESC).append('K');
+    }
+
+    private boolean sameChars(int start, int oldStart, int length) {
+        for (int k = 0; k < length; k++) {
+            if (frame.charAt(start + k) != previous.charAt(oldStart + k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 记录每行在缓冲区中的起始位置，返回行数（末尾的换行不产生空行）
+    private int splitLines(CharSequence text) {
+        int count = 0;
+        int lineStart = 0;
+        int length = text.length();
+        while (lineStart < length) {
+            if (count == starts.length) {
+                int[] grown = new int[count * 2];
+                System.arraycopy(starts, 0, grown, 0, count);
+                starts = grown;
+            }
+            starts[count++] = lineStart;
+            int newline = lineStart;
+            while (newline < length && text.charAt(newline) != '\n') {
+                newline++;
+            }
+            lineStart = newline + 1;
+        }
+        return count;
+    }
+
+    private static int lineEnd(CharSequence text, int[] lineStarts, int line, int lines) {
+        int end = (line + 1 < lines) ? lineStarts[line + 1] - 1 : text.length();
+        if (end > lineStarts[line] && end == text.length() && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return end;
+    }
+
+    private void rememberFrame(int lines) {
+        previous = frame.toString();
+        if (previousStarts.length < starts.length) {
+            previousStarts = new int[starts.length];
+        }
+        System.arraycopy(starts, 0, previousStarts, 0, lines);
+        previousLines = lines;
+    }
+
+    // 编码到可复用的字节缓冲区后一次写出并刷新
+    private void write(CharSequence text) {
+        int needed = (int) (text.length() * encoder.maxBytesPerChar()) + 16;
+        if (bytes.capacity() < needed) {
+            bytes = ByteBuffer.allocate(Math.max(needed, bytes.capacity() * 2));
+        }
+        bytes.clear();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(text), bytes, true);
+        encoder.flush(bytes);
+        PrintStream out = System.out;
+        out.write(bytes.array(), 0, bytes.position());
+        out.flush();
+    }
+}
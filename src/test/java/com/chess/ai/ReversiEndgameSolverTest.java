@@ -0,0 +1,148 @@
+package com.chess.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Random;
+import org.junit.Test;
+import com.chess.entity.ReversiBoard;
+
+public class ReversiEndgameSolverTest {
+
+    private static final long START_BLACK = (1L << 28) | (1L << 35);
+    private static final long START_WHITE = (1L << 27) | (1L << 36);
+
+    @Test
+    public void matchesPlainNegamax() {
+        ReversiEndgameSolver solver = new ReversiEndgameSolver();
+        Random random = new Random(16);
+        for (int i = 0; i < 30; i++) {
+            // 空格数覆盖4个空格的专用代码、无置换表的层和有置换表、ETC的层
+            long[] position = randomPosition(random, 3 + i % 10);
+            long own = position[0];
+            long opp = position[1];
+            ReversiEndgameSolver.Result result = solver.solve(own, opp);
+            assertEquals("局面" + i, negamax(own, opp, -65, 65, false), result.getScore());
+            if (result.isPass()) {
+                assertEquals(0, ReversiBoard.legalMoves(own, opp));
+                continue;
+            }
+            // 最佳落子必须合法，且落子后的精确分数等于求解结果
+            int square = result.getSquare();
+            assertNotEquals(0, ReversiBoard.legalMoves(own, opp) & (1L << square));
+            long flipped = ReversiBoard.flips(own, opp, square);
+            assertEquals("局面" + i, result.getScore(),
+                    -negamax(opp & ~flipped, own | flipped | (1L << square), -65, 65, false));
+        }
+    }
+
+    @Test
+    public void stableDiscsNeverFlip() {
+        Random random = new Random(17);
+        for (int i = 0; i < 200; i++) {
+            long[] position = randomPosition(random, 4 + i % 16);
+            long own = position[0];
+            long opp = position[1];
+            long stableOwn = ReversiEndgameSolver.stableDiscs(own, opp);
+            long stableOpp = ReversiEndgameSolver.stableDiscs(opp, own);
+            assertEquals(stableOwn, stableOwn & own);
+            assertEquals(stableOpp, stableOpp & opp);
+            // 随机下完，双方的稳定子始终不变色；mover为当前行棋方
+            boolean ownToMove = true;
+            while (true) {
+                long mover = ownToMove ? own : opp;
+                long other = ownToMove ? opp : own;
+                long moves = ReversiBoard.legalMoves(mover, other);
+                if (moves == 0 && ReversiBoard.legalMoves(other, mover) == 0) {
+                    break;
+                }
+                if (moves != 0) {
+                    int square = randomSquare(moves, random);
+                    long flipped = ReversiBoard.flips(mover, other, square);
+                    mover |= flipped | (1L << square);
+                    other &= ~flipped;
+                    own = ownToMove ? mover : other;
+                    opp = ownToMove ? other : mover;
+                }
+                ownToMove = !ownToMove;
+                assertEquals("局面" + i, stableOwn, stableOwn & own);
+                assertEquals("局面" + i, stableOpp, stableOpp & opp);
+            }
+        }
+    }
+
+    @Test
+    public void stableDiscsOfFullCorner() {
+        // 左上角2x2和整个第一行都是己方：都不会再被翻转
+        long own = 0xFFL | (1L << 8) | (1L << 9);
+        long opp = 1L << 18;
+        long stable = ReversiEndgameSolver.stableDiscs(own, opp);
+        assertEquals(own, stable);
+        assertEquals(0L, ReversiEndgameSolver.stableDiscs(opp, own));
+    }
+
+    // 从标准开局随机下到剩empties个空格，返回行棋方和对方的棋子；行棋方无子可下时也照样返回
+    private static long[] randomPosition(Random random, int empties) {
+        while (true) {
+            long own = START_BLACK;
+            long opp = START_WHITE;
+            boolean ended = false;
+            while (64 - Long.bitCount(own | opp) > empties) {
+                long moves = ReversiBoard.legalMoves(own, opp);
+                if (moves == 0) {
+                    if (ReversiBoard.legalMoves(opp, own) == 0) {
+                        ended = true;
+                        break;
+                    }
+                } else {
+                    int square = randomSquare(moves, random);
+                    long flipped = ReversiBoard.flips(own, opp, square);
+                    long next = opp & ~flipped;
+                    opp = own | flipped | (1L << square);
+                    own = next;
+                    continue;
+                }
+                long swap = own;
+                own = opp;
+                opp = swap;
+            }
+            if (!ended) {
+                return new long[] {own, opp};
+            }
+        }
+    }
+
+    private static int randomSquare(long moves, Random random) {
+        for (int k = random.nextInt(Long.bitCount(moves)); k > 0; k--) {
+            moves &= moves - 1;
+        }
+        return Long.numberOfTrailingZeros(moves);
+    }
+
+    // 参考实现：只有alpha-beta剪枝，不排序、不用置换表；剩余空格归胜方
+    private static int negamax(long own, long opp, int alpha, int beta, boolean passed) {
+        long moves = ReversiBoard.legalMoves(own, opp);
+        if (moves == 0) {
+            if (passed) {
+                int difference = Long.bitCount(own) - Long.bitCount(opp);
+                int empties = 64 - Long.bitCount(own | opp);
+                return difference > 0 ? difference + empties : (difference < 0 ? difference - empties : 0);
+            }
+            return -negamax(opp, own, -beta, -alpha, true);
+        }
+        int best = -65;
+        while (moves != 0) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            long flipped = ReversiBoard.flips(own, opp, square);
+            int score = -negamax(opp & ~flipped, own | flipped | (1L << square), -beta, -Math.max(alpha, best), false);
+            if (score > best) {
+                best = score;
+                if (best >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+}
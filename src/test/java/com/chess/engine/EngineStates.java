@@ -0,0 +1,39 @@
+package com.chess.engine;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import com.chess.service.Game.GameMode;
+
+// 测试用的局面工具：局面字节、规范化局面和随机操作
+public final class EngineStates {
+    private EngineStates() {
+    }
+
+    public static byte[] state(GameEngine engine) {
+        ByteBuffer out = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(out);
+        if (out.hasRemaining()) {
+            throw new AssertionError("stateSize与writeState写入的字节数不一致");
+        }
+        return out.array();
+    }
+
+    // 规范化的局面：所有棋盘都创建后的局面字节
+    // 撤销不会删除切换棋盘时创建的棋盘，而未创建的棋盘与刚创建的初始局面等价
+    public static byte[] canonical(GameMode mode, GameEngine engine) {
+        GameEngine copy = mode.createEngine(engine.boardCount());
+        copy.readState(ByteBuffer.wrap(state(engine)));
+        for (int i = 0; i < engine.boardCount(); i++) {
+            copy.selectBoard(i);
+        }
+        copy.selectBoard(engine.currentBoardIndex());
+        return state(copy);
+    }
+
+    // 随机选一个合法操作，没有时返回null
+    public static Move randomMove(GameEngine engine, List<Move> moves, Random random) {
+        engine.legalMoves(moves);
+        return moves.isEmpty() ? null : moves.get(random.nextInt(moves.size()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.chess.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+public class GameEngineStateTest {
+
+    @Test
+    public void packUnpackPeace() {
+        packUnpack(GameMode.PEACE, 11);
+    }
+
+    @Test
+    public void packUnpackReversi() {
+        packUnpack(GameMode.REVERSI, 12);
+    }
+
+    @Test
+    public void packUnpackGomoku() {
+        packUnpack(GameMode.GOMOKU, 13);
+    }
+
+    // 随机对局的每一步都写出局面再读入新引擎：读入后的局面、行棋方、状态和哈希都应相同，再次写出的字节不变
+    private static void packUnpack(GameMode mode, long seed) {
+        Random random = new Random(seed);
+        List<Move> moves = new ArrayList<>();
+        for (int game = 0; game < 20; game++) {
+            GameEngine engine = mode.createEngine(1 + random.nextInt(4));
+            for (int step = 0; step < 300; step++) {
+                Move move = EngineStates.randomMove(engine, moves, random);
+                if (move == null || random.nextInt(8) == 0) {
+                    engine.selectBoard(random.nextInt(engine.boardCount()));
+                } else {
+                    assertEquals(MoveResult.OK, engine.apply(move));
+                }
+                byte[] state = EngineStates.state(engine);
+                GameEngine restored = mode.createEngine(engine.boardCount());
+                restored.readState(ByteBuffer.wrap(state));
+                assertSameEngine(engine, restored);
+                assertArrayEquals(state, EngineStates.state(restored));
+            }
+        }
+    }
+
+    private static void assertSameEngine(GameEngine expected, GameEngine actual) {
+        assertEquals(expected.currentBoardIndex(), actual.currentBoardIndex());
+        assertEquals(expected.createdBoardCount(), actual.createdBoardCount());
+        assertEquals(expected.sideToMove(), actual.sideToMove());
+        assertEquals(expected.status(), actual.status());
+        assertEquals(expected.winner(), actual.winner());
+        for (int index = 0; index < expected.boardCount(); index++) {
+            Board board = expected.board(index);
+            Board copy = actual.board(index);
+            if (board == null) {
+                assertNull(copy);
+                continue;
+            }
+            for (int i = 0; i < board.getSize(); i++) {
+                for (int j = 0; j < board.getSize(); j++) {
+                    assertEquals(board.getPiece(i, j), copy.getPiece(i, j));
+                }
+            }
+            assertEquals(board.getZobristKey(), copy.getZobristKey());
+            assertEquals(board.getEmptyCount(), copy.getEmptyCount());
+        }
+        if (expected instanceof GomokuEngine) {
+            GomokuEngine gomoku = (GomokuEngine) expected;
+            GomokuEngine gomokuCopy = (GomokuEngine) actual;
+            assertEquals(gomoku.bombsLeft(Piece.BLACK), gomokuCopy.bombsLeft(Piece.BLACK));
+            assertEquals(gomoku.bombsLeft(Piece.WHITE), gomokuCopy.bombsLeft(Piece.WHITE));
+            assertEquals(gomoku.currentRound(), gomokuCopy.currentRound());
+            if (gomoku.status() == GameStatus.WIN) {
+                assertNotNull(gomokuCopy.winningLine());
+            }
+        }
+    }
+
+    @Test
+    public void packsThreeBitsPerCell() {
+        // 9字节头 + 棋盘序号2字节 + 64格*3位=24字节
+        assertEquals(9 + 2 + 24, new ReversiEngine(1).stateSize());
+        // 225格*3位向上取整为85字节，另有炸弹数和回合数4字节
+        assertEquals(9 + 2 + 85 + 4, new GomokuEngine(1).stateSize());
+    }
+
+    @Test
+    public void readStateClearsUndoHistory() {
+        ReversiEngine engine = new ReversiEngine(1);
+        engine.apply(Move.place(4, 5));
+        ReversiEngine restored = new ReversiEngine(1);
+        restored.readState(ByteBuffer.wrap(EngineStates.state(engine)));
+        assertEquals(MoveResult.NOTHING_TO_UNDO, restored.undo());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDifferentBoardCount() {
+        new ReversiEngine(2).readState(ByteBuffer.wrap(EngineStates.state(new ReversiEngine(1))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidPieceCode() {
+        byte[] state = EngineStates.state(new GameEngine(1));
+        // 第一个格子的3位编码改为7（没有对应的棋子）
+        state[11] |= 0x07;
+        new GameEngine(1).readState(ByteBuffer.wrap(state));
+    }
+}
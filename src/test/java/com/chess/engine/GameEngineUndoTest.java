@@ -0,0 +1,171 @@
+package com.chess.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import com.chess.entity.Board;
+import com.chess.entity.Piece;
+import com.chess.service.Game.GameMode;
+
+public class GameEngineUndoTest {
+
+    @Test
+    public void undoRestoresFlippedDiscs() {
+        ReversiEngine engine = new ReversiEngine(1);
+        byte[] start = EngineStates.state(engine);
+        // 黑方下5f（行4列5），翻转5e
+        assertEquals(MoveResult.OK, engine.apply(Move.place(4, 5)));
+        assertEquals(Piece.BLACK, engine.board().getPiece(4, 4));
+        assertEquals(4, engine.countPieces(Piece.BLACK));
+
+        assertEquals(MoveResult.OK, engine.undo());
+        assertEquals(Piece.WHITE, engine.board().getPiece(4, 4));
+        assertEquals(Piece.EMPTY, engine.board().getPiece(4, 5));
+        assertEquals(Piece.BLACK, engine.sideToMove());
+        assertArrayEquals(start, EngineStates.state(engine));
+        assertEquals(engine.board().computeZobristKey(), engine.board().getZobristKey());
+    }
+
+    @Test
+    public void undoRestoresBombedPieceAndBombCount() {
+        GomokuEngine engine = new GomokuEngine(1);
+        assertEquals(MoveResult.OK, engine.apply(Move.place(0, 0)));
+        assertEquals(MoveResult.OK, engine.apply(Move.place(1, 1)));
+        byte[] beforeBomb = EngineStates.state(engine);
+        assertEquals(MoveResult.OK, engine.apply(Move.bomb(1, 1)));
+        assertEquals(Piece.CRATER, engine.board().getPiece(1, 1));
+        assertEquals(GomokuEngine.BLACK_BOMBS - 1, engine.bombsLeft(Piece.BLACK));
+
+        assertEquals(MoveResult.OK, engine.undo());
+        assertEquals(Piece.WHITE, engine.board().getPiece(1, 1));
+        assertEquals(GomokuEngine.BLACK_BOMBS, engine.bombsLeft(Piece.BLACK));
+        assertArrayEquals(beforeBomb, EngineStates.state(engine));
+
+        assertEquals(MoveResult.OK, engine.redo());
+        assertEquals(Piece.CRATER, engine.board().getPiece(1, 1));
+        assertEquals(GomokuEngine.BLACK_BOMBS - 1, engine.bombsLeft(Piece.BLACK));
+    }
+
+    @Test
+    public void undoReturnsToTheBoardOfTheMove() {
+        GameEngine engine = new GameEngine(3);
+        assertEquals(MoveResult.OK, engine.apply(Move.place(0, 0)));
+        assertEquals(MoveResult.OK, engine.selectBoard(2));
+        assertEquals(MoveResult.OK, engine.undo());
+        assertEquals(0, engine.currentBoardIndex());
+        assertEquals(Piece.EMPTY, engine.board().getPiece(0, 0));
+
+        // 重做也回到该步所在的棋盘
+        assertEquals(MoveResult.OK, engine.selectBoard(1));
+        assertEquals(MoveResult.OK, engine.redo());
+        assertEquals(0, engine.currentBoardIndex());
+        assertEquals(Piece.BLACK, engine.board().getPiece(0, 0));
+        assertEquals(Piece.EMPTY, engine.board(1).getPiece(0, 0));
+    }
+
+    @Test
+    public void undoAfterWinResumesTheGame() {
+        GomokuEngine engine = new GomokuEngine(1);
+        for (int col = 0; col < 4; col++) {
+            engine.apply(Move.place(0, col));
+            engine.apply(Move.place(1, col));
+        }
+        assertEquals(MoveResult.OK, engine.apply(Move.place(0, 4)));
+        assertEquals(GameStatus.WIN, engine.status());
+        assertEquals(Piece.BLACK, engine.winner());
+
+        assertEquals(MoveResult.OK, engine.undo());
+        assertEquals(GameStatus.IN_PROGRESS, engine.status());
+        assertNull(engine.winner());
+        assertNull(engine.winningLine());
+        assertEquals(Piece.BLACK, engine.sideToMove());
+    }
+
+    @Test
+    public void newMoveClearsRedo() {
+        GameEngine engine = new GameEngine(1);
+        engine.apply(Move.place(0, 0));
+        engine.undo();
+        assertEquals(1, engine.redoCount());
+        assertEquals(MoveResult.OK, engine.apply(Move.place(1, 1)));
+        assertEquals(0, engine.redoCount());
+        assertEquals(MoveResult.NOTHING_TO_REDO, engine.redo());
+    }
+
+    @Test
+    public void nothingToUndoAtStart() {
+        assertEquals(MoveResult.NOTHING_TO_UNDO, new ReversiEngine(1).undo());
+    }
+
+    @Test
+    public void randomUndoRedoRoundTripsPeace() {
+        randomUndoRedo(GameMode.PEACE, 1);
+    }
+
+    @Test
+    public void randomUndoRedoRoundTripsReversi() {
+        randomUndoRedo(GameMode.REVERSI, 2);
+    }
+
+    @Test
+    public void randomUndoRedoRoundTripsGomoku() {
+        randomUndoRedo(GameMode.GOMOKU, 3);
+    }
+
+    // 随机执行落子、撤销、重做和切换棋盘：撤销后应与该步执行前的局面相同，重做后应与执行后的局面相同
+    private static void randomUndoRedo(GameMode mode, long seed) {
+        Random random = new Random(seed);
+        List<Move> moves = new ArrayList<>();
+        for (int game = 0; game < 10; game++) {
+            GameEngine engine = mode.createEngine(3);
+            Deque<byte[]> before = new ArrayDeque<>();
+            Deque<byte[]> after = new ArrayDeque<>();
+            Deque<byte[]> redoBefore = new ArrayDeque<>();
+            Deque<byte[]> redoAfter = new ArrayDeque<>();
+            for (int step = 0; step < 400; step++) {
+                int action = random.nextInt(10);
+                Move move = EngineStates.randomMove(engine, moves, random);
+                if (action < 2 && !before.isEmpty() || move == null && !before.isEmpty() && action < 8) {
+                    assertEquals(MoveResult.OK, engine.undo());
+                    byte[] expected = before.pop();
+                    assertArrayEquals(expected, EngineStates.canonical(mode, engine));
+                    redoBefore.push(expected);
+                    redoAfter.push(after.pop());
+                } else if (action < 4 && !redoAfter.isEmpty()) {
+                    assertEquals(MoveResult.OK, engine.redo());
+                    assertArrayEquals(redoAfter.peek(), EngineStates.canonical(mode, engine));
+                    before.push(redoBefore.pop());
+                    after.push(redoAfter.pop());
+                } else if (action < 5 || move == null) {
+                    assertEquals(MoveResult.OK, engine.selectBoard(random.nextInt(engine.boardCount())));
+                } else {
+                    before.push(EngineStates.canonical(mode, engine));
+                    assertEquals(MoveResult.OK, engine.apply(move));
+                    after.push(EngineStates.canonical(mode, engine));
+                    redoBefore.clear();
+                    redoAfter.clear();
+                }
+                assertEquals(redoAfter.size(), engine.redoCount());
+                for (int i = 0; i < engine.boardCount(); i++) {
+                    Board board = engine.board(i);
+                    if (board != null) {
+                        assertEquals(board.computeZobristKey(), board.getZobristKey());
+                    }
+                }
+            }
+            // 全部撤销后回到开局
+            while (!before.isEmpty()) {
+                assertEquals(MoveResult.OK, engine.undo());
+                assertArrayEquals(before.pop(), EngineStates.canonical(mode, engine));
+            }
+            assertEquals(MoveResult.NOTHING_TO_UNDO, engine.undo());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.chess.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import com.chess.entity.Piece;
+import com.chess.entity.ReversiBoard;
+
+public class ReversiPerftTest {
+
+    private static final int MAX_DEPTH = 8;
+
+    @Test
+    public void serialPerftMatchesReference() {
+        ReversiBoard board = new ReversiEngine(1).board();
+        long black = board.getBitboard(Piece.BLACK);
+        long white = board.getBitboard(Piece.WHITE);
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            assertEquals("深度" + depth, ReversiPerft.expected(depth), ReversiPerft.perft(black, white, depth));
+            assertEquals("深度" + depth, ReversiPerft.expected(depth), ReversiPerft.runFromStart(depth, 1).getNodes());
+        }
+    }
+
+    @Test
+    public void threadedPerftMatchesReference() {
+        for (int threads = 2; threads <= 4; threads += 2) {
+            for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+                assertEquals(threads + "线程 深度" + depth,
+                        ReversiPerft.expected(depth), ReversiPerft.runFromStart(depth, threads).getNodes());
+            }
+        }
+    }
+
+    @Test
+    public void startPositionIsRecognised() {
+        ReversiEngine engine = new ReversiEngine(1);
+        assertTrue(ReversiPerft.isStartPosition(engine));
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            assertTrue(ReversiPerft.expected(depth) > 0);
+        }
+    }
+}
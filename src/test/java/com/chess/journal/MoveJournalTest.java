@@ -0,0 +1,129 @@
+package com.chess.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.chess.engine.EngineStates;
+import com.chess.engine.GameEngine;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.service.Game.GameMode;
+
+public class MoveJournalTest {
+    private static final long CHUNK_SIZE = 1 << 20;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 一局游戏及其每条记录之后的规范化局面
+    private static final class Played {
+        final int gameId;
+        final GameMode mode;
+        final GameEngine engine;
+        final List<byte[]> states = new ArrayList<>();
+
+        Played(int gameId, GameMode mode, int boardCount) {
+            this.gameId = gameId;
+            this.mode = mode;
+            this.engine = mode.createEngine(boardCount);
+            states.add(EngineStates.canonical(mode, engine));
+        }
+    }
+
+    @Test
+    public void replaysInterleavedGamesAcrossChunkBoundary() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("journal.bin");
+        Random random = new Random(21);
+        List<Move> moves = new ArrayList<>();
+        List<Played> games = Arrays.asList(
+                new Played(1, GameMode.REVERSI, 3), new Played(2, GameMode.GOMOKU, 2), new Played(3, GameMode.PEACE, 1));
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            for (Played game : games) {
+                journal.recordStart(game.gameId, game.mode, game.engine);
+            }
+            // 悔棋后总会写关键帧，日志很快超过一个分块；再多写一些，让第二个分块中也有关键帧和普通记录
+            int extra = 3000;
+            while (Files.size(path) <= CHUNK_SIZE || extra-- > 0) {
+                Played game = games.get(random.nextInt(games.size()));
+                playOne(journal, game, moves, random);
+            }
+            assertTrue(Files.size(path) > CHUNK_SIZE);
+            for (Played game : games) {
+                assertReplays(journal, game);
+            }
+        }
+        // 重新打开后按文件内容重建索引（跳过分块末尾的SKIP）
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            assertEquals(Arrays.asList(1, 2, 3), journal.gameIds());
+            for (Played game : games) {
+                assertEquals(game.mode, journal.mode(game.gameId));
+                assertEquals(game.engine.boardCount(), journal.boardCount(game.gameId));
+                assertReplays(journal, game);
+            }
+        }
+    }
+
+    // 随机执行一次落子、悔棋、重做或切换棋盘，并写入日志
+    private static void playOne(MoveJournal journal, Played game, List<Move> moves, Random random) throws IOException {
+        GameEngine engine = game.engine;
+        Move move = EngineStates.randomMove(engine, moves, random);
+        int action = random.nextInt(10);
+        if (action < 3 && engine.moveCount() > 0 || move == null && engine.moveCount() > 0 && action < 8) {
+            assertEquals(MoveResult.OK, engine.undo());
+            journal.recordUndo(game.gameId, engine);
+        } else if (action < 5 && engine.redoCount() > 0) {
+            assertEquals(MoveResult.OK, engine.redo());
+            journal.recordMove(game.gameId, engine.lastMove(), engine);
+        } else if (action < 6 || move == null) {
+            assertEquals(MoveResult.OK, engine.selectBoard(random.nextInt(engine.boardCount())));
+            journal.recordBoardSwitch(game.gameId, engine);
+        } else {
+            assertEquals(MoveResult.OK, engine.apply(move));
+            journal.recordMove(game.gameId, move, engine);
+        }
+        game.states.add(EngineStates.canonical(game.mode, engine));
+    }
+
+    // 重放到记录之后的局面应与当时的局面相同；每条记录都查会重复重放关键帧之间的记录，这里隔几条抽查一次
+    private static void assertReplays(MoveJournal journal, Played game) {
+        assertEquals(game.states.size() - 1, journal.entryCount(game.gameId));
+        for (int entries = 0; entries < game.states.size(); entries += 1 + entries % 7) {
+            GameEngine replayed = journal.replay(game.gameId, entries);
+            assertArrayEquals("游戏#" + game.gameId + "重放" + entries + "条记录",
+                    game.states.get(entries), EngineStates.canonical(game.mode, replayed));
+        }
+        int last = game.states.size() - 1;
+        assertArrayEquals(game.states.get(last), EngineStates.canonical(game.mode, journal.replay(game.gameId)));
+    }
+
+    @Test
+    public void clearDropsEarlierGames() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("journal.bin");
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            journal.recordStart(1, GameMode.PEACE, GameMode.PEACE.createEngine(1));
+            journal.recordClear();
+            GameEngine engine = GameMode.REVERSI.createEngine(1);
+            journal.recordStart(5, GameMode.REVERSI, engine);
+            engine.apply(Move.place(4, 5));
+            journal.recordMove(5, Move.place(4, 5), engine);
+        }
+        try (MoveJournal journal = MoveJournal.open(path)) {
+            assertEquals(Arrays.asList(5), journal.gameIds());
+            assertEquals(1, journal.entryCount(5));
+            GameEngine expected = GameMode.REVERSI.createEngine(1);
+            expected.apply(Move.place(4, 5));
+            assertArrayEquals(EngineStates.state(expected), EngineStates.state(journal.replay(5)));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.chess.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.chess.engine.EngineStates;
+import com.chess.engine.Move;
+import com.chess.engine.MoveResult;
+import com.chess.service.Game.GameMode;
+
+public class SavedGamesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saveLoadRoundTrip() throws IOException {
+        Random random = new Random(31);
+        List<Move> moves = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        GameMode[] modes = GameMode.values();
+        for (int i = 0; i < 7; i++) {
+            Game game = Game.createGame(modes[i % modes.length], i + 1, 2 + i);
+            // 随机走若干步，其间切换棋盘
+            for (int step = random.nextInt(80); step > 0; step--) {
+                Move move = EngineStates.randomMove(game.engine, moves, random);
+                if (move == null || random.nextInt(6) == 0) {
+                    game.engine.selectBoard(random.nextInt(game.engine.boardCount()));
+                } else {
+                    assertEquals(MoveResult.OK, game.engine.apply(move));
+                }
+            }
+            games.add(game);
+        }
+        Path path = folder.getRoot().toPath().resolve("save.bin");
+        int bytes = SavedGames.save(path, games, 4, 9);
+        assertEquals(Files.size(path), bytes);
+
+        int boardCount = Game.BOARD_COUNT;
+        SavedGames.Loaded loaded = SavedGames.load(path);
+        // 读取存档不改变新游戏使用的棋盘数
+        assertEquals(boardCount, Game.BOARD_COUNT);
+        assertEquals(4, loaded.currentGameIndex);
+        assertEquals(9, loaded.boardCount);
+        assertEquals(games.size(), loaded.games.size());
+        for (int i = 0; i < games.size(); i++) {
+            Game expected = games.get(i);
+            Game actual = loaded.games.get(i);
+            assertEquals(expected.gameMode, actual.gameMode);
+            assertEquals(expected.gameId, actual.gameId);
+            assertEquals(expected.engine.boardCount(), actual.engine.boardCount());
+            assertEquals(expected.getClass(), actual.getClass());
+            assertArrayEquals(EngineStates.state(expected.engine), EngineStates.state(actual.engine));
+        }
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("save.bin");
+        List<Game> games = Arrays.asList(Game.createGame(GameMode.REVERSI, 1, 2), Game.createGame(GameMode.GOMOKU, 2, 2));
+        int bytes = SavedGames.save(path, games, 0, 3);
+        Files.write(path, Arrays.copyOf(Files.readAllBytes(path), bytes - 5));
+        try {
+            SavedGames.load(path);
+            fail("截断的存档应当读取失败");
+        } catch (IOException e) {
+            // 预期的异常
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("other.bin");
+        Files.write(path, "not a save file".getBytes("UTF-8"));
+        SavedGames.load(path);
+    }
+}